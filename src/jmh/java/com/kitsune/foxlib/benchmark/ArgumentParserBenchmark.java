@@ -0,0 +1,115 @@
+package com.kitsune.foxlib.benchmark;
+
+import com.kitsune.foxlib.command.parser.DoubleParser;
+import com.kitsune.foxlib.command.parser.EnumParser;
+import com.kitsune.foxlib.command.parser.IntegerParser;
+import com.kitsune.foxlib.command.parser.LongParser;
+import com.kitsune.foxlib.command.parser.MaterialParser;
+import com.kitsune.foxlib.command.parser.ShortParser;
+import com.kitsune.foxlib.command.parser.StringParser;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each built-in argument parser on an argument that matches and one that doesn't.
+ *
+ * The number parsers are measured through their primitive methods, the way the command tree uses them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArgumentParserBenchmark {
+
+    private final StringParser stringParser = new StringParser();
+    private final IntegerParser integerParser = new IntegerParser();
+    private final ShortParser shortParser = new ShortParser();
+    private final LongParser longParser = new LongParser();
+    private final DoubleParser doubleParser = new DoubleParser();
+    private final MaterialParser materialParser = new MaterialParser();
+    private final EnumParser<GameMode> gameModeParser = new EnumParser<>(GameMode.class);
+
+    // Not final so the arguments aren't constant folded
+    private String word = "hello";
+    private String integer = "-123456";
+    private String shortNumber = "1234";
+    private String longNumber = "9876543210";
+    private String decimal = "-12.5e3";
+    private String invalidNumber = "12x";
+    private String material = "diamond_sword";
+    private String gameMode = "Creative";
+    private String invalidName = "not_a_constant";
+
+    @Benchmark
+    public String string() {
+        return stringParser.parse(word);
+    }
+
+    @Benchmark
+    public int integer() {
+        return integerParser.matches(integer) ? integerParser.parseInt(integer) : 0;
+    }
+
+    @Benchmark
+    public boolean integerInvalid() {
+        return integerParser.matches(invalidNumber);
+    }
+
+    @Benchmark
+    public Integer integerBoxed() {
+        return integerParser.parse(integer);
+    }
+
+    @Benchmark
+    public short shortNumber() {
+        return shortParser.matches(shortNumber) ? shortParser.parseShort(shortNumber) : 0;
+    }
+
+    @Benchmark
+    public long longNumber() {
+        return longParser.matches(longNumber) ? longParser.parseLong(longNumber) : 0;
+    }
+
+    @Benchmark
+    public double decimal() {
+        return doubleParser.matches(decimal) ? doubleParser.parseDouble(decimal) : 0;
+    }
+
+    @Benchmark
+    public boolean decimalInvalid() {
+        return doubleParser.matches(invalidNumber);
+    }
+
+    @Benchmark
+    public Material material() {
+        return materialParser.parse(material);
+    }
+
+    @Benchmark
+    public Material materialInvalid() {
+        return materialParser.parse(invalidName);
+    }
+
+    @Benchmark
+    public GameMode enumConstant() {
+        return gameModeParser.parse(gameMode);
+    }
+
+    @Benchmark
+    public GameMode enumInvalid() {
+        return gameModeParser.parse(invalidName);
+    }
+}
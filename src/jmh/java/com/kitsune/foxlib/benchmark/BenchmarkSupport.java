@@ -0,0 +1,179 @@
+package com.kitsune.foxlib.benchmark;
+
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Creates the players and commands used by the benchmarks, without a server.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {}
+
+    /**
+     * Make sure the {@link FoxCommandAPI} and its argument parsers are initialised.
+     */
+    static void initCommandAPI() {
+        FoxCommandAPI.init(false);
+    }
+
+    /**
+     * Create a player that only implements the methods used while dispatching a command.
+     *
+     * @param name - the name of the player
+     * @param permissions - the permissions the player has
+     *
+     * @return - the player
+     */
+    static Player createPlayer(@NotNull String name, @NotNull Predicate<String> permissions) {
+
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hasPermission": return args[0] instanceof String && permissions.test((String) args[0]);
+                case "isOp": return false;
+                case "getName": return name;
+                case "getUniqueId": return uuid;
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                case "toString": return "BenchmarkPlayer{" + name + "}";
+                default: return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * Create a command sender that isn't a player, it has every permission and ignores messages.
+     *
+     * @param type - the type of the command sender
+     * @param name - the name of the command sender
+     *
+     * @return - the command sender
+     */
+    static <T extends CommandSender> T createSender(@NotNull Class<T> type, @NotNull String name) {
+
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hasPermission": return true;
+                case "isOp": return true;
+                case "getName": return name;
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                case "toString": return "BenchmarkSender{" + name + "}";
+                default: return defaultValue(method.getReturnType());
+            }
+        }));
+    }
+
+    /**
+     * Create a command and add it to the tree.
+     *
+     * @param tree - the tree to add the command to
+     * @param path - the path of the command
+     * @param permission - the permission of the command
+     * @param handler - the name of the handler method in {@link Handlers}
+     *
+     * @return - the command
+     */
+    static RegisteredCommand addCommand(@NotNull FoxCommandTree tree, @NotNull String path, @NotNull String permission, @NotNull String handler) {
+        RegisteredCommand registeredCommand = createCommand(path, permission, handler);
+        tree.addFoxCommand(registeredCommand);
+        return registeredCommand;
+    }
+
+    /**
+     * Create a command.
+     *
+     * @param path - the path of the command
+     * @param permission - the permission of the command
+     * @param handler - the name of the handler method in {@link Handlers}
+     *
+     * @return - the command
+     */
+    static RegisteredCommand createCommand(@NotNull String path, @NotNull String permission, @NotNull String handler) {
+
+        for (Method method : Handlers.class.getDeclaredMethods()) {
+            if (!method.getName().equals(handler)) continue;
+
+            try {
+                return new RegisteredCommand(new Command(path, permission), method, Handlers.INSTANCE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to create an invoker for " + handler, e);
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown handler " + handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        return null;
+    }
+
+    /**
+     * The handlers of the benchmark commands, they don't do anything so only the dispatch is measured.
+     */
+    public static final class Handlers {
+
+        static final Handlers INSTANCE = new Handlers();
+
+        public void noArguments(Player player) {}
+
+        public void intArgument(Player player, int value) {}
+
+        public void intArguments(Player player, int first, int second) {}
+
+        public void stringArgument(Player player, String value) {}
+
+        public void mixedArguments(Player player, int amount, String name, double factor) {}
+    }
+
+    /**
+     * A {@link FoxCommand} that isn't read from an annotated method.
+     */
+    @SuppressWarnings("ClassExplicitlyAnnotation")
+    private static final class Command implements FoxCommand {
+
+        private final String path;
+        private final String permission;
+
+        private Command(String path, String permission) {
+            this.path = path;
+            this.permission = permission;
+        }
+
+        @Override public String path() { return path; }
+        @Override public String[] aliases() { return new String[0]; }
+        @Override public String permission() { return permission; }
+        @Override public String noPermissionsMessage() { return ""; }
+        @Override public String description() { return "Benchmark command"; }
+        @Override public String usage() { return "/" + path; }
+        @Override public boolean async() { return false; }
+        @Override public int maxConcurrent() { return 0; }
+        @Override public long cooldown() { return 0; }
+        @Override public String cooldownMessage() { return ""; }
+        @Override public int rateLimit() { return 0; }
+        @Override public long rateLimitPeriod() { return 1000; }
+        @Override public String rateLimitMessage() { return ""; }
+        @Override public Class<? extends Annotation> annotationType() { return FoxCommand.class; }
+    }
+}
@@ -0,0 +1,132 @@
+package com.kitsune.foxlib.benchmark;
+
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FoxCommandTree#execute} for successful dispatches and every failure path.
+ *
+ * The tree has a {@code wide} node with {@link #width} literal children and a {@code deep}
+ * command with {@link #depth} literal arguments, next to a few typed commands.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandDispatchBenchmark {
+
+    @Param({"10", "1000"})
+    public int width;
+
+    @Param({"2", "16"})
+    public int depth;
+
+    private FoxCommandTree tree;
+    private Player player;
+
+    private String[] wideArgs;
+    private String[] deepArgs;
+    private String[] literalArgs;
+    private String[] typedArgs;
+    private String[] mixedArgs;
+    private String[] invalidTypedArgs;
+    private String[] unknownSubcommandArgs;
+    private String[] permissionArgs;
+
+    @Setup
+    public void setup() {
+
+        BenchmarkSupport.initCommandAPI();
+
+        tree = new FoxCommandTree();
+        player = BenchmarkSupport.createPlayer("Benchmark", permission -> !permission.equals("bench.denied"));
+
+        for (int i = 0; i < width; i++) {
+            BenchmarkSupport.addCommand(tree, "wide w" + i, "", "noArguments");
+        }
+
+        StringBuilder deepPath = new StringBuilder("deep");
+        deepArgs = new String[depth];
+
+        for (int i = 0; i < depth; i++) {
+            deepPath.append(" d").append(i);
+            deepArgs[i] = "d" + i;
+        }
+
+        BenchmarkSupport.addCommand(tree, deepPath.toString(), "", "noArguments");
+
+        BenchmarkSupport.addCommand(tree, "match one two", "", "noArguments");
+        BenchmarkSupport.addCommand(tree, "match", "", "intArguments");
+        BenchmarkSupport.addCommand(tree, "match mixed", "bench.allowed", "mixedArguments");
+        BenchmarkSupport.addCommand(tree, "denied", "bench.denied", "noArguments");
+
+        wideArgs = new String[]{"w" + (width - 1)};
+        literalArgs = new String[]{"one", "two"};
+        typedArgs = new String[]{"12", "34"};
+        mixedArgs = new String[]{"mixed", "5", "stone", "0.5"};
+        invalidTypedArgs = new String[]{"12", "abc"};
+        unknownSubcommandArgs = new String[]{"w" + width};
+        permissionArgs = new String[0];
+    }
+
+    @Benchmark
+    public FoxCommandResult wideLiteral() {
+        return tree.execute(player, "wide", wideArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult deepLiteral() {
+        return tree.execute(player, "deep", deepArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult literalMatch() {
+        return tree.execute(player, "match", literalArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult typedMatch() {
+        return tree.execute(player, "match", typedArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult mixedMatch() {
+        return tree.execute(player, "match", mixedArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult unknownCommand() {
+        return tree.execute(player, "unknown", literalArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult unknownSubcommand() {
+        return tree.execute(player, "wide", unknownSubcommandArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult parseFailure() {
+        return tree.execute(player, "match", invalidTypedArgs);
+    }
+
+    @Benchmark
+    public FoxCommandResult permissionDenied() {
+        return tree.execute(player, "denied", permissionArgs);
+    }
+}
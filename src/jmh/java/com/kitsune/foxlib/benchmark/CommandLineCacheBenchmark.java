@@ -0,0 +1,73 @@
+package com.kitsune.foxlib.benchmark;
+
+import com.kitsune.foxlib.command.CommandLineCache;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dispatches that miss and hit the {@link CommandLineCache}.
+ *
+ * Lines that are only seen once mustn't allocate an entry, so {@code gc.alloc.rate.norm} of
+ * {@link #uncachedLine()} should be {@code 0 B/op} when run with {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandLineCacheBenchmark {
+
+    /** The amount of different uncached lines, far more than the cache has entries so a line is never seen twice in a row */
+    private static final int LINES = 1 << 16;
+
+    private FoxCommandTree tree;
+    private Player player;
+
+    private String[][] uncachedArgs;
+    private String[] cachedArgs;
+    private int next;
+
+    @Setup
+    public void setup() {
+
+        BenchmarkSupport.initCommandAPI();
+
+        tree = new FoxCommandTree();
+        player = BenchmarkSupport.createPlayer("Benchmark", permission -> true);
+
+        BenchmarkSupport.addCommand(tree, "cache", "", "intArguments");
+
+        uncachedArgs = new String[LINES][];
+        for (int i = 0; i < LINES; i++) {
+            uncachedArgs[i] = new String[]{Integer.toString(i), Integer.toString(LINES - i)};
+        }
+
+        cachedArgs = new String[]{"12", "34"};
+    }
+
+    @Benchmark
+    public FoxCommandResult uncachedLine() {
+        String[] args = uncachedArgs[next];
+        next = (next + 1) & (LINES - 1);
+        return tree.execute(player, "cache", args);
+    }
+
+    @Benchmark
+    public FoxCommandResult cachedLine() {
+        return tree.execute(player, "cache", cachedArgs);
+    }
+}
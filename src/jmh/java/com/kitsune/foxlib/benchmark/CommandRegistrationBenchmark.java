@@ -0,0 +1,76 @@
+package com.kitsune.foxlib.benchmark;
+
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a tree of thousands of commands using {@link FoxCommandTree#addFoxCommand},
+ * and using {@link FoxCommandTree#replaceFoxCommands} to add them all at once.
+ *
+ * The commands are spread over {@code sqrt(commands)} labels, each with as many subcommands,
+ * half of them taking typed arguments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandRegistrationBenchmark {
+
+    @Param({"1000", "5000"})
+    public int commands;
+
+    private List<RegisteredCommand> registeredCommands;
+
+    @Setup
+    public void setup() {
+
+        BenchmarkSupport.initCommandAPI();
+
+        registeredCommands = new ArrayList<>(commands);
+        int labels = (int) Math.ceil(Math.sqrt(commands));
+
+        for (int i = 0; i < commands; i++) {
+            String path = "label" + (i / labels) + " sub" + (i % labels);
+            registeredCommands.add(BenchmarkSupport.createCommand(path, "", i % 2 == 0 ? "noArguments" : "mixedArguments"));
+        }
+    }
+
+    @Benchmark
+    public FoxCommandTree addCommands() {
+
+        FoxCommandTree tree = new FoxCommandTree();
+
+        for (RegisteredCommand registeredCommand : registeredCommands) {
+            tree.addFoxCommand(registeredCommand);
+        }
+
+        return tree;
+    }
+
+    @Benchmark
+    public FoxCommandTree addCommandsAtOnce() {
+
+        FoxCommandTree tree = new FoxCommandTree();
+        tree.replaceFoxCommands(Collections.emptyList(), registeredCommands);
+
+        return tree;
+    }
+}
@@ -0,0 +1,155 @@
+package com.kitsune.foxlib.benchmark;
+
+import com.kitsune.foxlib.command.CommandTraceReader;
+import com.kitsune.foxlib.command.CommandTraceRecord;
+import com.kitsune.foxlib.command.CommandTraceRecorder;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a trace recorded on a server with {@code /foxlib trace start} against a headless command tree,
+ * so changes to the engine can be measured on the real command mix.
+ *
+ * Every invocation dispatches the next record of the trace, starting over at the end. Run it with the GC profiler,
+ * like the jmh task does, to get the allocation per dispatch next to the throughput and the latency percentiles:
+ * {@code gradlew jmh -Pinclude=CommandTraceReplay -Ptrace=traces -Pcommands=com.example.MyCommands -PreplayClasspath=MyPlugin.jar}
+ *
+ * The commands are registered from the listed classes, which need a public constructor without arguments.
+ * The handlers are really invoked, with senders that have every permission and ignore messages. Every player
+ * of the trace is replayed by a player of their own, so cooldowns and rate limits apply like they did on the server.
+ * The results are compared to the recorded ones once before the measurement, differences are printed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandTraceReplayBenchmark {
+
+    /** The trace files or directories of trace files, separated by commas */
+    @Param({""})
+    public String trace;
+
+    /** The classes of the commands to register, separated by commas */
+    @Param({""})
+    public String commands;
+
+    private FoxCommandTree tree;
+    private CommandTraceRecord[] records;
+    private CommandSender[] senders;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException, ReflectiveOperationException {
+
+        if (trace.isEmpty()) throw new IllegalStateException("No trace to replay, pass one using -p trace=<file or directory>");
+
+        BenchmarkSupport.initCommandAPI();
+
+        for (String className : commands.split(",")) {
+            if (className.trim().isEmpty()) continue;
+            FoxCommandAPI.getInstance().registerCommandsFromClass(null, Class.forName(className.trim()).getConstructor().newInstance());
+        }
+
+        tree = FoxCommandAPI.getInstance().getCommandTree();
+
+        List<CommandTraceRecord> recordList = CommandTraceReader.readAll(getTraceFiles());
+        if (recordList.isEmpty()) throw new IllegalStateException("The trace " + trace + " doesn't have any records");
+
+        records = recordList.toArray(new CommandTraceRecord[0]);
+        senders = new CommandSender[records.length];
+
+        // One sender per type for the senders that aren't throttled, and one per id for the players
+        Map<CommandTraceRecord.SenderType, CommandSender> sendersByType = new EnumMap<>(CommandTraceRecord.SenderType.class);
+        Map<Integer, CommandSender> playersById = new HashMap<>();
+        sendersByType.put(CommandTraceRecord.SenderType.CONSOLE, BenchmarkSupport.createSender(ConsoleCommandSender.class, "CONSOLE"));
+        sendersByType.put(CommandTraceRecord.SenderType.BLOCK, BenchmarkSupport.createSender(BlockCommandSender.class, "@"));
+        sendersByType.put(CommandTraceRecord.SenderType.OTHER, BenchmarkSupport.createSender(CommandSender.class, "Replay"));
+
+        for (int i = 0; i < records.length; i++) {
+
+            if (records[i].getSenderType() == CommandTraceRecord.SenderType.PLAYER) {
+                senders[i] = playersById.computeIfAbsent(records[i].getSenderId(), id -> BenchmarkSupport.createPlayer("Replay" + id, permission -> true));
+            } else {
+                senders[i] = sendersByType.get(records[i].getSenderType());
+            }
+        }
+
+        compareResults();
+    }
+
+    @Benchmark
+    public FoxCommandResult replay() {
+
+        int index = next;
+        next = index + 1 == records.length ? 0 : index + 1;
+
+        CommandTraceRecord record = records[index];
+        return tree.execute(senders[index], record.getLabel(), record.getArgs());
+    }
+
+    /**
+     * Dispatch every record once and print how many results differ from the recorded ones.
+     */
+    private void compareResults() {
+
+        Map<FoxCommandResult, Map<FoxCommandResult, Integer>> differences = new EnumMap<>(FoxCommandResult.class);
+        int different = 0;
+
+        for (int i = 0; i < records.length; i++) {
+
+            FoxCommandResult result = tree.execute(senders[i], records[i].getLabel(), records[i].getArgs());
+            if (result == records[i].getResult()) continue;
+
+            differences.computeIfAbsent(records[i].getResult(), key -> new EnumMap<>(FoxCommandResult.class)).merge(result, 1, Integer::sum);
+            different++;
+        }
+
+        System.out.println("Replaying " + records.length + " records, " + different + " results differ from the trace");
+
+        differences.forEach((recorded, replayed) -> replayed.forEach((result, count) ->
+                System.out.println("  " + recorded + " -> " + result + ": " + count)));
+    }
+
+    private File[] getTraceFiles() {
+
+        List<File> files = new ArrayList<>();
+
+        for (String path : trace.split(",")) {
+
+            File file = new File(path.trim());
+            File[] traceFiles = file.isDirectory() ? file.listFiles((directory, name) -> name.endsWith(CommandTraceRecorder.EXTENSION)) : new File[]{file};
+
+            if (traceFiles != null) {
+                for (File traceFile : traceFiles) files.add(traceFile);
+            }
+        }
+
+        return files.toArray(new File[0]);
+    }
+}
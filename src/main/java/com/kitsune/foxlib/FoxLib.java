@@ -2,6 +2,7 @@ package com.kitsune.foxlib;
 
 import com.kitsune.foxlib.command.FoxCommandAPI;
 import com.kitsune.foxlib.command.impl.FoxLibCommand;
+import com.kitsune.foxlib.util.Log;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class FoxLib extends JavaPlugin {
@@ -24,7 +25,15 @@ public final class FoxLib extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        // Plugin shutdown logic
+
+        // Let asynchronous commands finish
+        if (FoxCommandAPI.getInstance() != null) {
+            FoxCommandAPI.getInstance().getCommandScheduler().shutdown();
+            FoxCommandAPI.getInstance().getCommandExecutor().stopRecording();
+        }
+
+        // Write the remaining log messages and stop the writer thread
+        Log.shutdown();
     }
 
     /**
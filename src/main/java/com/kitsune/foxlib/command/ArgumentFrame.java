@@ -0,0 +1,479 @@
+package com.kitsune.foxlib.command;
+
+import com.kitsune.foxlib.command.parser.GreedyStringParser;
+import com.kitsune.foxlib.command.parser.StringParser;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Holds the command sender and the parsed arguments while a command is dispatched.
+ *
+ * Every thread has its own frame that's reused by every dispatch on that thread, so a dispatch
+ * doesn't have to allocate any lists or arrays. Slot {@code 0} is the command sender, the parsed
+ * arguments follow in the order of the handler's parameters. Arguments parsed by a primitive
+ * parser, like an {@link IntArgumentParser}, are stored unboxed. String arguments are stored as the index of their
+ * token in the {@link CommandInput}, so they're only turned into a {@link String} when the handler gets them.
+ *
+ * The frame also remembers the result of every {@link ArgumentParser} that has been run on an argument,
+ * so backtracking through sibling nodes of the same type doesn't parse the same argument again.
+ * {@link ContextualArgumentParser}s are always run again, they get the previous arguments through a {@link ParseContext}.
+ */
+public class ArgumentFrame {
+
+    /** The initial amount of slots of a frame */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** The amount of parse results that can be remembered for each argument position */
+    private static final int PARSE_CACHE_WAYS = 4;
+
+    /** Marks a cached parse result of an argument that didn't match */
+    private static final Object NO_MATCH = new Object();
+
+    /** The frame of each thread */
+    private static final ThreadLocal<ArgumentFrame> FRAMES = ThreadLocal.withInitial(ArgumentFrame::new);
+
+    /**
+     * Marks a slot that holds an unboxed value, the value itself is stored in {@link #primitives}.
+     * For tokens and the rest of the line the index of the token is stored.
+     */
+    private enum Primitive {
+        INT, SHORT, LONG, DOUBLE, TOKEN, REST
+    }
+
+    /** The tokenized arguments of the dispatch */
+    private final CommandInput input;
+
+    /** The slots */
+    private Object[] arguments;
+
+    /** The unboxed values of the slots, doubles are stored as their raw long bits */
+    private long[] primitives;
+
+    /** The amount of slots that have been written to since the frame was acquired */
+    private int used;
+
+    /** The parsers of the cached parse results, {@link #PARSE_CACHE_WAYS} entries per argument position */
+    private ArgumentParser<?>[] cachedParsers;
+
+    /** The cached parse results, stored at the same index as their parser */
+    private Object[] cachedResults;
+
+    /** The unboxed values of the cached parse results */
+    private long[] cachedPrimitives;
+
+    /** The amount of argument positions the parse cache has been used for */
+    private int cachedPositions;
+
+    /** Whether the frame is currently used by a dispatch */
+    private boolean inUse;
+
+    /** The command the dispatch resolved to, used to record its metrics */
+    private RegisteredCommand resolvedCommand;
+
+    /** The deepest node the dispatch reached, used to attribute parse failures */
+    private FoxCommandNode<?> deepestNode;
+
+    /** The cursor of the deepest node */
+    private int deepestCursor;
+
+    /** Whether a parser that isn't pure has been consulted, so the command the line resolves to may change */
+    private boolean impureParserConsulted;
+
+    /** The context passed to contextual parsers */
+    private final ParseContext context;
+
+    /**
+     * Construct a new, empty {@link ArgumentFrame}.
+     */
+    private ArgumentFrame() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Construct a new, empty {@link ArgumentFrame} with the specified amount of slots.
+     *
+     * @param capacity - the amount of slots
+     */
+    private ArgumentFrame(int capacity) {
+        this.input = new CommandInput();
+        this.context = new ParseContext(this);
+        this.arguments = new Object[capacity];
+        this.primitives = new long[capacity];
+        this.cachedParsers = new ArgumentParser<?>[capacity * PARSE_CACHE_WAYS];
+        this.cachedResults = new Object[capacity * PARSE_CACHE_WAYS];
+        this.cachedPrimitives = new long[capacity * PARSE_CACHE_WAYS];
+    }
+
+    /**
+     * Acquire a frame for a dispatch on the current thread.
+     *
+     * If the thread's frame is already in use, because a command handler dispatched another command,
+     * a new frame is created so the outer dispatch isn't affected.
+     *
+     * @param capacity - the minimum amount of slots
+     *
+     * @return - the frame, must be released using {@link #release()}
+     */
+    static ArgumentFrame acquire(int capacity) {
+
+        ArgumentFrame frame = FRAMES.get();
+
+        if (frame.inUse) {
+            frame = new ArgumentFrame();
+        }
+
+        frame.inUse = true;
+        frame.ensureCapacity(capacity);
+        return frame;
+    }
+
+    /**
+     * Release the frame, clearing all references to the parsed arguments.
+     */
+    void release() {
+        Arrays.fill(arguments, 0, used, null);
+        Arrays.fill(cachedParsers, 0, cachedPositions * PARSE_CACHE_WAYS, null);
+        Arrays.fill(cachedResults, 0, cachedPositions * PARSE_CACHE_WAYS, null);
+        used = 0;
+        cachedPositions = 0;
+        resolvedCommand = null;
+        deepestNode = null;
+        deepestCursor = 0;
+        impureParserConsulted = false;
+        context.set(null, 0, 0);
+        input.clear();
+        inUse = false;
+    }
+
+    /**
+     * Create a copy of the first slots of this frame that isn't tied to a dispatch,
+     * used to pass the arguments to another thread.
+     *
+     * @param slots - the amount of slots to copy
+     *
+     * @return - the copy
+     */
+    ArgumentFrame detach(int slots) {
+
+        ArgumentFrame copy = new ArgumentFrame(slots);
+
+        System.arraycopy(arguments, 0, copy.arguments, 0, slots);
+        System.arraycopy(primitives, 0, copy.primitives, 0, slots);
+        copy.used = slots;
+
+        // The copy doesn't have the input, so the tokens have to be turned into strings now
+        for (int slot = 0; slot < slots; slot++) {
+            if (arguments[slot] == Primitive.TOKEN || arguments[slot] == Primitive.REST) copy.arguments[slot] = get(slot);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Check whether the arguments in the first slots are all unboxed values, strings or enum constants,
+     * which don't hold on to anything else so they can be shared. The sender slot isn't checked.
+     *
+     * @param slots - the amount of slots to check
+     *
+     * @return - {@code true} if the arguments can be shared or else {@code false}
+     */
+    boolean isShareable(int slots) {
+
+        for (int slot = 1; slot < slots; slot++) {
+            Object value = arguments[slot];
+            if (!(value instanceof Primitive) && !(value instanceof String) && !(value instanceof GreedyString) && !(value instanceof Enum)) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the arguments in the first slots, with the tokens turned into strings so they don't need the input.
+     * The sender slot is left empty.
+     *
+     * @param slots - the amount of slots to copy
+     * @param values - the array the values or markers of the unboxed values are copied to
+     * @param primitives - the array the unboxed values are copied to
+     */
+    void export(int slots, @NotNull Object[] values, @NotNull long[] primitives) {
+
+        for (int slot = 1; slot < slots; slot++) {
+
+            Object value = arguments[slot];
+
+            values[slot] = value == Primitive.TOKEN || value == Primitive.REST ? get(slot) : value;
+            primitives[slot] = this.primitives[slot];
+        }
+    }
+
+    /**
+     * Copy exported arguments into the first slots of this frame, the values are shared so they must be immutable.
+     * The sender slot isn't changed.
+     *
+     * @param values - the values or markers of the unboxed values
+     * @param primitives - the unboxed values
+     * @param slots - the amount of slots to copy
+     */
+    void load(@NotNull Object[] values, @NotNull long[] primitives, int slots) {
+        ensureCapacity(slots);
+        System.arraycopy(values, 1, arguments, 1, slots - 1);
+        System.arraycopy(primitives, 1, this.primitives, 1, slots - 1);
+        if (slots > used) used = slots;
+    }
+
+    /**
+     * Get the tokenized arguments of the dispatch.
+     *
+     * @return - the input
+     */
+    CommandInput getInput() {
+        return input;
+    }
+
+    /**
+     * Set the value of the specified slot.
+     *
+     * @param slot - the slot
+     * @param value - the value
+     */
+    void set(int slot, Object value) {
+        arguments[slot] = value;
+        if (slot >= used) used = slot + 1;
+    }
+
+    /**
+     * Remember that the dispatch reached the node, if it's deeper than any node reached before.
+     *
+     * @param node - the node
+     * @param cursor - the index of the next argument that has to be matched
+     */
+    void reach(FoxCommandNode<?> node, int cursor) {
+        if (deepestNode == null || cursor > deepestCursor) {
+            deepestNode = node;
+            deepestCursor = cursor;
+        }
+    }
+
+    /**
+     * Get whether a parser that isn't {@link ArgumentParser#isPure() pure} has been consulted during the dispatch,
+     * whether it matched or not. A line that failed to match such a parser may match it later, so it can't be cached.
+     *
+     * @return - {@code true} if an impure or contextual parser has been consulted or else {@code false}
+     */
+    boolean isImpureParserConsulted() {
+        return impureParserConsulted;
+    }
+
+    FoxCommandNode<?> getDeepestNode() {
+        return deepestNode;
+    }
+
+    void setResolvedCommand(RegisteredCommand resolvedCommand) {
+        this.resolvedCommand = resolvedCommand;
+    }
+
+    RegisteredCommand getResolvedCommand() {
+        return resolvedCommand;
+    }
+
+    /**
+     * Parse the token at the specified position and store it in the slot, reusing the result if
+     * the parser has already been run on that position during this dispatch.
+     *
+     * @param position - the position of the token
+     * @param parser - the parser
+     * @param slot - the slot to store the parsed argument in
+     *
+     * @return - {@code true} if the argument matches or else {@code false}
+     */
+    boolean parse(int position, ArgumentParser<?> parser, int slot) {
+
+        if (parser instanceof ContextualArgumentParser || !parser.isPure()) impureParserConsulted = true;
+
+        // The result of a contextual parser depends on the previous arguments, which differ between branches
+        if (parser instanceof ContextualArgumentParser) return parse(parser, position, slot);
+
+        int start = position * PARSE_CACHE_WAYS;
+        if (position >= cachedPositions) cachedPositions = position + 1;
+
+        for (int i = start; i < start + PARSE_CACHE_WAYS; i++) {
+
+            // Found a free way, parse the argument and remember the result
+            if (cachedParsers[i] == null) {
+                cachedParsers[i] = parser;
+                cachedResults[i] = parse(parser, position, slot) ? arguments[slot] : NO_MATCH;
+                cachedPrimitives[i] = primitives[slot];
+                return cachedResults[i] != NO_MATCH;
+            }
+
+            if (cachedParsers[i] == parser) {
+
+                if (cachedResults[i] == NO_MATCH) return false;
+
+                set(slot, cachedResults[i]);
+                primitives[slot] = cachedPrimitives[i];
+                return true;
+            }
+        }
+
+        // All ways are taken, this only happens with a lot of different types on the same position
+        return parse(parser, position, slot);
+    }
+
+    /**
+     * Run the parser on the token and store the result in the slot.
+     *
+     * @return - {@code true} if the argument matches or else {@code false}
+     */
+    private boolean parse(ArgumentParser<?> parser, int position, int slot) {
+
+        // Strings always match, remember the token until the handler needs it
+        if (parser instanceof StringParser) {
+            setPrimitive(slot, Primitive.TOKEN, position);
+            return true;
+        }
+
+        if (parser instanceof GreedyStringParser) {
+            setPrimitive(slot, Primitive.REST, position);
+            return true;
+        }
+
+        CharSequence argument = input.view(position);
+
+        if (parser instanceof IntArgumentParser) {
+            IntArgumentParser intParser = (IntArgumentParser) parser;
+            if (!intParser.matches(argument)) return false;
+            setPrimitive(slot, Primitive.INT, intParser.parseInt(argument));
+        }
+        else if (parser instanceof ShortArgumentParser) {
+            ShortArgumentParser shortParser = (ShortArgumentParser) parser;
+            if (!shortParser.matches(argument)) return false;
+            setPrimitive(slot, Primitive.SHORT, shortParser.parseShort(argument));
+        }
+        else if (parser instanceof LongArgumentParser) {
+            LongArgumentParser longParser = (LongArgumentParser) parser;
+            if (!longParser.matches(argument)) return false;
+            setPrimitive(slot, Primitive.LONG, longParser.parseLong(argument));
+        }
+        else if (parser instanceof DoubleArgumentParser) {
+            DoubleArgumentParser doubleParser = (DoubleArgumentParser) parser;
+            if (!doubleParser.matches(argument)) return false;
+            setPrimitive(slot, Primitive.DOUBLE, Double.doubleToRawLongBits(doubleParser.parseDouble(argument)));
+        }
+        else if (parser instanceof ContextualArgumentParser) {
+            context.set((CommandSender) arguments[0], position, slot - 1);
+            Object result = ((ContextualArgumentParser<?>) parser).parse(context, argument);
+            if (result == null) return false;
+            set(slot, result);
+        }
+        else {
+            Object result = parser.parse(argument);
+            if (result == null) return false;
+            set(slot, result);
+        }
+
+        return true;
+    }
+
+    private void setPrimitive(int slot, Primitive type, long value) {
+        set(slot, type);
+        primitives[slot] = value;
+    }
+
+    /**
+     * Get the value of the specified slot, unboxed values are boxed.
+     *
+     * @param slot - the slot
+     *
+     * @return - the value
+     */
+    public Object get(int slot) {
+
+        Object value = arguments[slot];
+
+        if (!(value instanceof Primitive)) return value;
+
+        switch ((Primitive) value) {
+            case INT: return (int) primitives[slot];
+            case SHORT: return (short) primitives[slot];
+            case LONG: return primitives[slot];
+            case TOKEN: return input.getString((int) primitives[slot]);
+            case REST: return new GreedyString(input.getRest((int) primitives[slot]));
+            default: return Double.longBitsToDouble(primitives[slot]);
+        }
+    }
+
+    /**
+     * Get the value of the specified slot as an {@code int}.
+     *
+     * @param slot - the slot
+     *
+     * @return - the value
+     */
+    public int getInt(int slot) {
+        return arguments[slot] instanceof Primitive ? (int) getLong(slot) : ((Number) arguments[slot]).intValue();
+    }
+
+    /**
+     * Get the value of the specified slot as a {@code short}.
+     *
+     * @param slot - the slot
+     *
+     * @return - the value
+     */
+    public short getShort(int slot) {
+        return arguments[slot] instanceof Primitive ? (short) getLong(slot) : ((Number) arguments[slot]).shortValue();
+    }
+
+    /**
+     * Get the value of the specified slot as a {@code long}.
+     *
+     * @param slot - the slot
+     *
+     * @return - the value
+     */
+    public long getLong(int slot) {
+
+        Object value = arguments[slot];
+
+        if (value == Primitive.DOUBLE) return (long) Double.longBitsToDouble(primitives[slot]);
+
+        return value instanceof Primitive ? primitives[slot] : ((Number) value).longValue();
+    }
+
+    /**
+     * Get the value of the specified slot as a {@code double}.
+     *
+     * @param slot - the slot
+     *
+     * @return - the value
+     */
+    public double getDouble(int slot) {
+
+        Object value = arguments[slot];
+
+        if (value == Primitive.DOUBLE) return Double.longBitsToDouble(primitives[slot]);
+
+        return value instanceof Primitive ? primitives[slot] : ((Number) value).doubleValue();
+    }
+
+    /**
+     * Make sure the frame has at least the specified amount of slots, and
+     * enough room in the parse cache for as many argument positions.
+     * This must not be called after an argument has been parsed.
+     *
+     * @param capacity - the amount of slots
+     */
+    void ensureCapacity(int capacity) {
+        if (arguments.length < capacity) {
+            int grown = Math.max(capacity, arguments.length * 2);
+            arguments = Arrays.copyOf(arguments, grown);
+            primitives = Arrays.copyOf(primitives, grown);
+            cachedParsers = new ArgumentParser<?>[grown * PARSE_CACHE_WAYS];
+            cachedResults = new Object[grown * PARSE_CACHE_WAYS];
+            cachedPrimitives = new long[grown * PARSE_CACHE_WAYS];
+        }
+    }
+}
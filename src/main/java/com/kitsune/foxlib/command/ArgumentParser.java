@@ -1,6 +1,120 @@
 package com.kitsune.foxlib.command;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses the arguments of a command into the type of a handler parameter.
+ *
+ * Parsers of primitive numbers, like {@link IntArgumentParser}, keep their values unboxed. The command tree first
+ * calls {@link #matches(CharSequence)} and only calls their primitive parse method, like {@link IntArgumentParser#parseInt(CharSequence)},
+ * if the argument matches, so an argument that doesn't match never has to throw and catch an exception.
+ * Numbers only accept a narrow set of arguments, so their parsers have a priority above {@link #PRIORITY_DEFAULT}
+ * and are tried before other types, the narrowest first.
+ *
+ * @param <T> - the type of the parsed values
+ */
 public interface ArgumentParser<T> {
 
+    /** The priority of parsers that don't override {@link #getPriority()} */
+    int PRIORITY_DEFAULT = 0;
+
+    /** The priorities of the primitive number parsers */
+    int PRIORITY_SHORT = 40;
+    int PRIORITY_INT = 30;
+    int PRIORITY_LONG = 20;
+    int PRIORITY_DOUBLE = 10;
+
+    /** The priority of the {@link String} parser, which matches every argument */
+    int PRIORITY_STRING = -100;
+
+    /** The priority of the {@link GreedyString} parser, which matches the rest of the line */
+    int PRIORITY_GREEDY = -200;
+
     T parse(String argument);
+
+    /**
+     * Parse an argument that's a view of the command line, parsers that can work on the view directly override this
+     * so the argument is never turned into a {@link String}. The view is reused, so it must not be kept.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value or {@code null} if the argument doesn't match
+     */
+    default T parse(CharSequence argument) {
+        return parse(argument.toString());
+    }
+
+    /**
+     * Get whether the argument can be parsed, this must not throw an exception for arguments that don't match.
+     * By default the argument is parsed, the primitive number parsers check it without parsing it.
+     *
+     * @param argument - the argument
+     *
+     * @return - {@code true} if the argument can be parsed or else {@code false}
+     */
+    default boolean matches(String argument) {
+        return parse(argument) != null;
+    }
+
+    /**
+     * Get whether an argument that's a view of the command line can be parsed. The view is reused, so it must not be kept.
+     * By default it's turned into a {@link String}, override this to check the view directly.
+     *
+     * @param argument - the argument
+     *
+     * @return - {@code true} if the argument can be parsed or else {@code false}
+     */
+    default boolean matches(CharSequence argument) {
+        return matches(argument.toString());
+    }
+
+    /**
+     * Get the suggestions for an argument that's being typed, used for tab completion.
+     *
+     * @param prefix - the part of the argument that has been typed so far
+     *
+     * @return - the suggestions, by default none
+     */
+    @NotNull
+    default List<String> getSuggestions(@NotNull String prefix) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Get the priority of the parser, typed arguments are tried from the highest to the lowest priority so
+     * the result doesn't depend on the order the commands were registered in. Parsers that accept fewer arguments
+     * should have a higher priority, the built-in number parsers are above {@link #PRIORITY_DEFAULT}
+     * and the string parsers below it.
+     *
+     * @return - the priority
+     */
+    default int getPriority() {
+        return PRIORITY_DEFAULT;
+    }
+
+    /**
+     * Get whether an argument could be accepted by both this parser and the other one, used to report ambiguous
+     * commands when they're registered. By default parsers are assumed to overlap.
+     *
+     * @param other - the other parser
+     *
+     * @return - {@code true} if the parsers may accept the same argument or else {@code false}
+     */
+    default boolean overlaps(@NotNull ArgumentParser<?> other) {
+        return true;
+    }
+
+    /**
+     * Get whether the parser is pure: it always returns an equal, immutable value for the same argument and doesn't
+     * depend on the state of the server. Lines that are only matched by pure parsers, into numbers, strings or enum constants,
+     * are cached by the {@link CommandLineCache}, so the same value is passed to the handler every time. By default parsers aren't pure.
+     *
+     * @return - {@code true} if the parser is pure or else {@code false}
+     */
+    default boolean isPure() {
+        return false;
+    }
 }
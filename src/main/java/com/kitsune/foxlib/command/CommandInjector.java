@@ -0,0 +1,301 @@
+package com.kitsune.foxlib.command;
+
+import com.kitsune.foxlib.FoxLib;
+import com.kitsune.foxlib.util.Log;
+import net.md_5.bungee.api.ChatColor;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Injects the labels of registered commands into the server's {@link SimpleCommandMap}.
+ *
+ * Injections are queued while commands are registered and flushed together on the next tick,
+ * using one {@link SimpleCommandMap#registerAll(String, List)} per plugin and a single resync of the
+ * players' command trees. The reflective handles are resolved once, when the class is loaded.
+ * The injected commands are tracked per plugin, so they can be removed again when the plugin is unregistered.
+ *
+ * Scheduling the flush and resyncing the players are done by {@link #scheduleFlush(Plugin)} and {@link #syncCommands()},
+ * which can be overridden to inject into a command map that doesn't belong to a running server.
+ */
+public class CommandInjector {
+
+    /** The constructor of {@link PluginCommand}, which isn't public */
+    private static final Constructor<PluginCommand> PLUGIN_COMMAND_CONSTRUCTOR = resolvePluginCommandConstructor();
+
+    /** The commands of the command map by label, which isn't exposed by the api */
+    private static final Field KNOWN_COMMANDS_FIELD = resolveKnownCommandsField();
+
+    /** CraftServer#syncCommands, resolved when it's needed for the first time */
+    private static volatile MethodHandle syncCommands;
+    private static volatile boolean syncCommandsResolved;
+
+    private final SimpleCommandMap commandMap;
+    private final FoxCommandExecutor commandExecutor;
+
+    /** The queued commands, by the name of the plugin that registered them */
+    private final Map<String, List<Command>> queuedCommands;
+
+    /** The labels that have been queued or injected, prefixed with the plugin name */
+    private final Set<String> injectedLabels;
+
+    /** The injected commands, by the name of the plugin that registered them */
+    private final Map<String, List<Command>> injectedCommands;
+
+    /** Whether a flush has been scheduled */
+    private boolean flushScheduled;
+
+    /** Whether commands have been removed since the last resync */
+    private boolean syncNeeded;
+
+    /**
+     * Construct a new {@link CommandInjector}.
+     *
+     * @param commandMap - the command map to inject the commands into
+     * @param commandExecutor - the executor of the injected commands
+     */
+    public CommandInjector(@NotNull SimpleCommandMap commandMap, @NotNull FoxCommandExecutor commandExecutor) {
+        this.commandMap = commandMap;
+        this.commandExecutor = commandExecutor;
+        this.queuedCommands = new LinkedHashMap<>();
+        this.injectedLabels = new HashSet<>();
+        this.injectedCommands = new HashMap<>();
+    }
+
+    /**
+     * Get the command map of the server.
+     *
+     * @return - the command map
+     *
+     * @throws ReflectiveOperationException - if the command map can't be accessed
+     */
+    static SimpleCommandMap getServerCommandMap() throws ReflectiveOperationException {
+
+        // Get commandmap field and make sure it's accessible
+        Field commandMapField = Bukkit.getPluginManager().getClass().getDeclaredField("commandMap");
+        commandMapField.setAccessible(true);
+
+        return (SimpleCommandMap) commandMapField.get(Bukkit.getPluginManager());
+    }
+
+    /**
+     * Queue the label of the command to be injected, unless the plugin already has a command with that label.
+     *
+     * @param plugin - the plugin that's registering the command
+     * @param registeredCommand - the command that's being injected
+     */
+    public synchronized void queue(@NotNull JavaPlugin plugin, @NotNull RegisteredCommand registeredCommand) {
+
+        String commandLabel = registeredCommand.getLabel();
+
+        // Make sure command isn't registered already
+        if (!injectedLabels.add(plugin.getName() + ":" + commandLabel) || plugin.getCommand(commandLabel) != null) {
+            return;
+        }
+
+        if (PLUGIN_COMMAND_CONSTRUCTOR == null) {
+            Log.error("Fox Command API", "Failed to inject command " + registeredCommand.getPath() + " into command map!");
+            return;
+        }
+
+        try {
+
+            // Create new plugin command instance
+            PluginCommand command = PLUGIN_COMMAND_CONSTRUCTOR.newInstance(commandLabel, plugin);
+
+            // Set the command's properties
+            command.setDescription(ChatColor.translateAlternateColorCodes('&', registeredCommand.getDescription()));
+            command.setUsage(ChatColor.translateAlternateColorCodes('&', registeredCommand.getUsage()));
+            command.setExecutor(commandExecutor);
+            command.setTabCompleter(commandExecutor);
+
+            queuedCommands.computeIfAbsent(plugin.getName(), key -> new ArrayList<>()).add(command);
+
+        } catch (ReflectiveOperationException e) {
+
+            // Log error
+            Log.error("Fox Command API", "Failed to inject command " + registeredCommand.getPath() + " into command map!");
+            e.printStackTrace();
+            return;
+        }
+
+        scheduleFlush(plugin);
+    }
+
+    /**
+     * Inject all the queued commands into the command map and resync the players' command trees.
+     */
+    public synchronized void flush() {
+
+        flushScheduled = false;
+
+        if (!queuedCommands.isEmpty()) {
+
+            for (Map.Entry<String, List<Command>> entry : queuedCommands.entrySet()) {
+                commandMap.registerAll(entry.getKey(), entry.getValue());
+                injectedCommands.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
+            }
+
+            Log.info("Fox Command API", "Injected {} commands into the command map", queuedCommands.values().stream().mapToInt(List::size).sum());
+            queuedCommands.clear();
+
+            syncNeeded = true;
+        }
+
+        if (syncNeeded) {
+            syncNeeded = false;
+            syncCommands();
+        }
+    }
+
+    /**
+     * Remove the commands injected for the plugin from the command map, the players' command trees
+     * are resynced on the next {@link #flush()}.
+     *
+     * Only the entries of the plugin's own commands are looked up, so this doesn't depend on the size of the command map.
+     *
+     * @param pluginName - the name of the plugin
+     */
+    public synchronized void uninject(@NotNull String pluginName) {
+
+        String prefix = pluginName.toLowerCase(Locale.ENGLISH).trim();
+
+        List<Command> queued = queuedCommands.remove(pluginName);
+
+        if (queued != null) {
+            for (Command command : queued) {
+                injectedLabels.remove(pluginName + ":" + command.getName());
+            }
+        }
+
+        List<Command> commands = injectedCommands.remove(pluginName);
+        if (commands == null) return;
+
+        Map<String, Command> knownCommands = getKnownCommands();
+
+        for (Command command : commands) {
+
+            injectedLabels.remove(pluginName + ":" + command.getName());
+            command.unregister(commandMap);
+
+            // Unregistering doesn't remove the labels, only remove them if they haven't been taken over by another command
+            if (knownCommands != null) {
+                String label = command.getName().toLowerCase(Locale.ENGLISH);
+
+                knownCommands.remove(label, command);
+                knownCommands.remove(prefix + ":" + label, command);
+            }
+        }
+
+        syncNeeded = true;
+    }
+
+    /**
+     * Get the commands of the command map by label.
+     *
+     * @return - the commands or {@code null} if they can't be accessed
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private Map<String, Command> getKnownCommands() {
+
+        if (KNOWN_COMMANDS_FIELD == null) return null;
+
+        try {
+            return (Map<String, Command>) KNOWN_COMMANDS_FIELD.get(commandMap);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Flush the queue on the next tick, so all commands registered during this tick are injected together.
+     * This is called every time a command is queued.
+     *
+     * @param plugin - the plugin that's registering commands, used if FoxLib isn't enabled
+     */
+    protected void scheduleFlush(@NotNull Plugin plugin) {
+
+        if (flushScheduled) return;
+
+        Plugin owner = FoxLib.getInstance() != null && FoxLib.getInstance().isEnabled() ? FoxLib.getInstance() : plugin;
+
+        if (Bukkit.getServer() == null || !owner.isEnabled()) {
+            flush();
+            return;
+        }
+
+        flushScheduled = true;
+        Bukkit.getScheduler().runTask(owner, this::flush);
+    }
+
+    /**
+     * Send the updated command tree to all players, this only exists on CraftBukkit 1.13 and newer.
+     */
+    protected void syncCommands() {
+
+        if (Bukkit.getServer() == null) return;
+
+        if (!syncCommandsResolved) {
+            try {
+                syncCommands = MethodHandles.publicLookup().findVirtual(Bukkit.getServer().getClass(), "syncCommands", MethodType.methodType(void.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                syncCommands = null;
+            }
+            syncCommandsResolved = true;
+        }
+
+        if (syncCommands == null) return;
+
+        try {
+            syncCommands.invoke(Bukkit.getServer());
+        } catch (Throwable throwable) {
+            Log.warn("Fox Command API", "Failed to resync the command trees of the players!");
+            throwable.printStackTrace();
+        }
+    }
+
+    @Nullable
+    private static Field resolveKnownCommandsField() {
+        try {
+            Field field = SimpleCommandMap.class.getDeclaredField("knownCommands");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            Log.warn("Fox Command API", "Failed to find the known commands of the command map, unregistered commands will keep their labels!");
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Constructor<PluginCommand> resolvePluginCommandConstructor() {
+        try {
+            Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            Log.error("Fox Command API", "Failed to find the PluginCommand constructor!");
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The arguments of a command line, split into tokens that are stored as offsets into the line.
+ *
+ * Tokens are separated by spaces. A token that starts with a double or single quote runs until the matching
+ * closing quote and may contain spaces, a backslash escapes the next character inside quotes. Only a quote that's
+ * followed by a space or the end of the line closes the token, a quote that's never closed is just part of the token. Tokens are only turned into {@link String}s when they're passed to
+ * a handler, matching literals and parsing numbers is done on the line itself through a reusable {@link CharSequence} view.
+ *
+ * Every {@link ArgumentFrame} has its own input that's reused by every dispatch, so tokenizing doesn't allocate.
+ */
+public class CommandInput {
+
+    /** The initial amount of tokens an input has room for */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** The buffer the arguments are joined into when the line has already been split, like Bukkit does */
+    private final StringBuilder buffer;
+
+    /** The view of the token that's being parsed */
+    private final TokenView view;
+
+    /** The line */
+    private CharSequence line;
+
+    /** The start and end of the content of every token, without the quotes */
+    private int[] starts;
+    private int[] ends;
+
+    /** The start and end of every token as it was typed, including the quotes */
+    private int[] rawStarts;
+    private int[] rawEnds;
+
+    /** Whether a token contains escaped characters, so its content can't be used as it is */
+    private boolean[] escaped;
+
+    /** The amount of tokens */
+    private int size;
+
+    /**
+     * Construct a new, empty {@link CommandInput}.
+     */
+    public CommandInput() {
+        this.buffer = new StringBuilder();
+        this.view = new TokenView();
+        this.line = "";
+        this.starts = new int[INITIAL_CAPACITY];
+        this.ends = new int[INITIAL_CAPACITY];
+        this.rawStarts = new int[INITIAL_CAPACITY];
+        this.rawEnds = new int[INITIAL_CAPACITY];
+        this.escaped = new boolean[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Split the line into tokens.
+     *
+     * @param line - the arguments of the command, without the label
+     *
+     * @return - this input
+     */
+    public CommandInput tokenize(@NotNull CharSequence line) {
+
+        this.line = line;
+        this.size = 0;
+
+        int length = line.length();
+        int i = 0;
+
+        while (i < length) {
+
+            char c = line.charAt(i);
+
+            if (c == ' ') {
+                i++;
+                continue;
+            }
+
+            int end = (c == '"' || c == '\'') ? closingQuote(line, i) : -1;
+
+            // Quoted token, the content is between the quotes
+            if (end >= 0) {
+                add(i + 1, end, i, end + 1, hasEscapes(line, i + 1, end));
+                i = end + 1;
+                continue;
+            }
+
+            int start = i;
+            while (i < length && line.charAt(i) != ' ') i++;
+
+            add(start, i, start, i, false);
+        }
+
+        return this;
+    }
+
+    /**
+     * Tokenize the arguments that have been split on spaces, like Bukkit does. Every argument is a token,
+     * including empty ones, except that a quoted token may span several arguments. So the index of a token
+     * only differs from the index of its argument after a quoted token that contains spaces.
+     *
+     * @param args - the arguments
+     *
+     * @return - this input
+     */
+    public CommandInput tokenize(@NotNull String[] args) {
+
+        // The arguments are joined, so the tokens can still be stored as offsets into a single line
+        buffer.setLength(0);
+
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) buffer.append(' ');
+            buffer.append(args[i]);
+        }
+
+        this.line = buffer;
+        this.size = 0;
+
+        int offset = 0;
+
+        for (int i = 0; i < args.length; i++) {
+
+            String arg = args[i];
+            int start = offset;
+            offset += arg.length() + 1;
+
+            char first = arg.isEmpty() ? 0 : arg.charAt(0);
+            int end = (first == '"' || first == '\'') ? closingQuote(buffer, start) : -1;
+
+            if (end < 0) {
+                add(start, start + arg.length(), start, start + arg.length(), false);
+                continue;
+            }
+
+            add(start + 1, end, start, end + 1, hasEscapes(buffer, start + 1, end));
+
+            // The closing quote ends an argument, skip the arguments the token spans
+            while (offset < end + 1) {
+                offset += args[++i].length() + 1;
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Forget the line, so the input doesn't keep it after the dispatch.
+     */
+    void clear() {
+        this.line = "";
+        this.size = 0;
+    }
+
+    /**
+     * Split a line into tokens and turn them all into {@link String}s, this is used for the paths of commands.
+     *
+     * @param line - the line
+     *
+     * @return - the tokens
+     */
+    public static String[] split(@NotNull CharSequence line) {
+
+        CommandInput input = new CommandInput().tokenize(line);
+        String[] tokens = new String[input.size()];
+
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = input.getString(i);
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Get the amount of tokens.
+     *
+     * @return - the amount of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the line the tokens are stored in.
+     *
+     * @return - the line
+     */
+    public CharSequence getLine() {
+        return line;
+    }
+
+    /**
+     * Get the start of the content of the token.
+     *
+     * @param token - the index of the token
+     *
+     * @return - the start (inclusive)
+     */
+    public int getStart(int token) {
+        return starts[token];
+    }
+
+    /**
+     * Get the end of the content of the token.
+     *
+     * @param token - the index of the token
+     *
+     * @return - the end (exclusive)
+     */
+    public int getEnd(int token) {
+        return ends[token];
+    }
+
+    /**
+     * Get the start of the token as it was typed, including the quotes.
+     *
+     * @param token - the index of the token
+     *
+     * @return - the start (inclusive)
+     */
+    public int getRawStart(int token) {
+        return rawStarts[token];
+    }
+
+    /**
+     * Get the end of the token as it was typed, including the quotes.
+     *
+     * @param token - the index of the token
+     *
+     * @return - the end (exclusive)
+     */
+    public int getRawEnd(int token) {
+        return rawEnds[token];
+    }
+
+    /**
+     * Get whether the token contains escaped characters, its content in the line still contains the backslashes.
+     *
+     * @param token - the index of the token
+     *
+     * @return - {@code true} if the token contains escaped characters or else {@code false}
+     */
+    public boolean isEscaped(int token) {
+        return escaped[token];
+    }
+
+    /**
+     * Get a view of the token, without the quotes. The view is reused for every token,
+     * so it's only valid until this method is called again.
+     *
+     * @param token - the index of the token
+     *
+     * @return - the view
+     */
+    public CharSequence view(int token) {
+
+        // Escaped characters have to be removed, which needs a copy
+        if (escaped[token]) return getString(token);
+
+        view.set(line, starts[token], ends[token]);
+        return view;
+    }
+
+    /**
+     * Get the content of the token as a {@link String}, without the quotes and the escaping backslashes.
+     *
+     * @param token - the index of the token
+     *
+     * @return - the token
+     */
+    public String getString(int token) {
+
+        if (!escaped[token]) return line.subSequence(starts[token], ends[token]).toString();
+
+        StringBuilder unescaped = new StringBuilder(ends[token] - starts[token]);
+
+        for (int i = starts[token]; i < ends[token]; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < ends[token]) c = line.charAt(++i);
+            unescaped.append(c);
+        }
+
+        return unescaped.toString();
+    }
+
+    /**
+     * Get the rest of the line from the token on, as it was typed. If the rest is a single quoted token its content is returned.
+     *
+     * @param token - the index of the first token
+     *
+     * @return - the rest of the line
+     */
+    public String getRest(int token) {
+
+        if (token == size - 1) return getString(token);
+
+        return line.subSequence(rawStarts[token], rawEnds[size - 1]).toString();
+    }
+
+    /**
+     * Find the quote that closes the quote at the specified index, skipping escaped characters.
+     * The closing quote has to be followed by a space or the end of the line.
+     *
+     * @return - the index of the closing quote or {@code -1} if the quote isn't closed
+     */
+    private static int closingQuote(CharSequence line, int open) {
+
+        char quote = line.charAt(open);
+
+        for (int i = open + 1; i < line.length(); i++) {
+
+            char c = line.charAt(i);
+
+            if (c == '\\') i++;
+            else if (c == quote && (i + 1 == line.length() || line.charAt(i + 1) == ' ')) return i;
+        }
+
+        return -1;
+    }
+
+    private static boolean hasEscapes(CharSequence line, int start, int end) {
+
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == '\\') return true;
+        }
+
+        return false;
+    }
+
+    private void add(int start, int end, int rawStart, int rawEnd, boolean escapes) {
+
+        if (size == starts.length) {
+            int grown = size * 2;
+            starts = Arrays.copyOf(starts, grown);
+            ends = Arrays.copyOf(ends, grown);
+            rawStarts = Arrays.copyOf(rawStarts, grown);
+            rawEnds = Arrays.copyOf(rawEnds, grown);
+            escaped = Arrays.copyOf(escaped, grown);
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        rawStarts[size] = rawStart;
+        rawEnds[size] = rawEnd;
+        escaped[size] = escapes;
+        size++;
+    }
+
+    /**
+     * A {@link CharSequence} that's a region of another one, without copying it.
+     */
+    private static final class TokenView implements CharSequence {
+
+        private CharSequence line;
+        private int start;
+        private int end;
+
+        private void set(CharSequence line, int start, int end) {
+            this.line = line;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return line.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return line.subSequence(start + from, start + to);
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return line.subSequence(start, end).toString();
+        }
+    }
+}
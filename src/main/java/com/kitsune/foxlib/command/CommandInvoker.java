@@ -0,0 +1,110 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes the handler of a {@link RegisteredCommand}.
+ */
+@FunctionalInterface
+public interface CommandInvoker {
+
+    /**
+     * Invoke the command handler.
+     *
+     * The first slot of the frame is the command sender, followed by the parsed arguments.
+     * The frame may have more slots than the handler has parameters, any trailing slots are ignored.
+     *
+     * @param frame - the frame that holds the arguments to pass to the handler
+     *
+     * @throws Throwable - anything the handler throws
+     */
+    void invoke(@NotNull ArgumentFrame frame) throws Throwable;
+
+    /**
+     * Create a {@link CommandInvoker} that directly calls the specified method.
+     *
+     * The method is resolved into a {@link MethodHandle} once, which is then adapted to read its
+     * arguments straight from the argument frame. Unlike {@link Method#invoke(Object, Object...)} this
+     * doesn't check access or box the arguments into an array on every call. The handle is stored as a
+     * constant of a class that's defined for this invoker (see {@link InvokerClassLoader}), so the JIT can
+     * inline the handler like it does for the invokers that are generated at compile time (see {@link FoxCommandRegistrar}).
+     *
+     * @param method - the method
+     * @param instance - the instance to invoke the method on, ignored for static methods
+     *
+     * @return - the command invoker
+     *
+     * @throws IllegalAccessException - if the method can't be accessed
+     */
+    static CommandInvoker of(@NotNull Method method, @NotNull Object instance) throws IllegalAccessException {
+
+        // Make sure non public handlers can be invoked
+        method.setAccessible(true);
+
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(instance);
+        }
+
+        // Read every parameter from its slot in the frame
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        MethodHandle[] getters = new MethodHandle[parameterTypes.length];
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            getters[i] = MethodHandles.insertArguments(slotGetter(parameterTypes[i]), 1, i).asType(MethodType.methodType(parameterTypes[i], ArgumentFrame.class));
+        }
+
+        handle = MethodHandles.filterArguments(handle, 0, getters);
+
+        // Ignore the return value and collapse all the frame parameters into one
+        handle = handle.asType(handle.type().changeReturnType(void.class));
+        handle = MethodHandles.permuteArguments(handle, InvokerClassLoader.INVOKER_TYPE, new int[parameterTypes.length]);
+
+        return InvokerClassLoader.define(handle);
+    }
+
+    /**
+     * Get the {@link ArgumentFrame} getter for the parameter type, numbers are read unboxed.
+     *
+     * @param type - the parameter type
+     *
+     * @return - a method handle of the getter, which takes the frame and the slot
+     *
+     * @throws IllegalAccessException - if the getter can't be accessed
+     */
+    static MethodHandle slotGetter(@NotNull Class<?> type) throws IllegalAccessException {
+
+        String name = "get";
+        Class<?> returnType = Object.class;
+
+        if (type == int.class || type == Integer.class) {
+            name = "getInt";
+            returnType = int.class;
+        }
+        else if (type == short.class || type == Short.class) {
+            name = "getShort";
+            returnType = short.class;
+        }
+        else if (type == long.class || type == Long.class) {
+            name = "getLong";
+            returnType = long.class;
+        }
+        else if (type == double.class || type == Double.class) {
+            name = "getDouble";
+            returnType = double.class;
+        }
+
+        try {
+            return MethodHandles.publicLookup().findVirtual(ArgumentFrame.class, name, MethodType.methodType(returnType, int.class));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("ArgumentFrame#" + name + " doesn't exist!", e);
+        }
+    }
+}
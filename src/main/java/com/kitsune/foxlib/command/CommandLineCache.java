@@ -0,0 +1,210 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the command that recently dispatched command lines resolved to, together with their parsed arguments,
+ * so a line that's sent again doesn't have to be matched against the tree and parsed again.
+ *
+ * Lines are normalized by their tokens, so extra spaces don't matter but quotes do. Every entry belongs to the version
+ * of the tree it was resolved in and is ignored once the tree has changed, so the cache never has to be cleared.
+ * The cache has a fixed amount of entries, a line replaces the entry that has the same index.
+ *
+ * A line is only cached the second time it's seen in a row at its index, the first time only its hash is remembered.
+ * That way lines that are only sent once, like chat commands with a message, don't allocate an entry or evict a line
+ * that's sent all the time. Only lines that didn't consult a parser that isn't {@link ArgumentParser#isPure() pure},
+ * not even one that didn't match, are cached. So a line that didn't match a player who was offline is matched again
+ * once they're online. The arguments have to be numbers, strings or enum constants, so an entry doesn't keep anything else alive.
+ */
+public class CommandLineCache {
+
+    /** The amount of entries, a power of two */
+    private static final int CAPACITY = 1024;
+
+    /** The entries by the low bits of their hash */
+    private final AtomicReferenceArray<Entry> entries;
+
+    /** The hash of the last line that was stored at each index */
+    private final AtomicIntegerArray probes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * A resolved command line, the entry is immutable so it can be shared by all threads.
+     */
+    private static final class Entry {
+
+        private final int hash;
+        private final String label;
+
+        /** The tokens of the line as they were typed, separated by a single space */
+        private final String line;
+
+        /** The root of the version of the tree the line was resolved in */
+        private final FoxCommandNode<?> root;
+
+        private final RegisteredCommand registeredCommand;
+
+        /** The parsed strings and the markers of the unboxed arguments by their slot, the sender slot is empty */
+        private final Object[] values;
+
+        /** The unboxed arguments by their slot */
+        private final long[] primitives;
+
+        private Entry(int hash, String label, String line, FoxCommandNode<?> root, RegisteredCommand registeredCommand, Object[] values, long[] primitives) {
+            this.hash = hash;
+            this.label = label;
+            this.line = line;
+            this.root = root;
+            this.registeredCommand = registeredCommand;
+            this.values = values;
+            this.primitives = primitives;
+        }
+    }
+
+    /**
+     * Construct a new, empty {@link CommandLineCache}.
+     */
+    public CommandLineCache() {
+        this.entries = new AtomicReferenceArray<>(CAPACITY);
+        this.probes = new AtomicIntegerArray(CAPACITY);
+    }
+
+    /**
+     * Look up the command the line resolved to and load its arguments into the frame.
+     *
+     * @param root - the root of the current version of the tree
+     * @param label - the label of the command
+     * @param input - the tokenized arguments
+     * @param frame - the frame to load the arguments into
+     *
+     * @return - the command or {@code null} if the line isn't cached
+     */
+    @Nullable
+    RegisteredCommand load(@NotNull FoxCommandNode<?> root, @NotNull String label, @NotNull CommandInput input, @NotNull ArgumentFrame frame) {
+
+        int hash = hash(label, input);
+        Entry entry = entries.get(hash & (CAPACITY - 1));
+
+        if (entry == null || entry.hash != hash || entry.root != root || !entry.label.equals(label) || !matches(entry.line, input)) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        frame.load(entry.values, entry.primitives, entry.values.length);
+        return entry.registeredCommand;
+    }
+
+    /**
+     * Remember the command the line resolved to and the arguments that have been parsed for it,
+     * if the line has been stored before.
+     *
+     * @param root - the root of the version of the tree the line was resolved in
+     * @param label - the label of the command
+     * @param input - the tokenized arguments
+     * @param frame - the frame that holds the parsed arguments
+     * @param registeredCommand - the command
+     */
+    void store(@NotNull FoxCommandNode<?> root, @NotNull String label, @NotNull CommandInput input, @NotNull ArgumentFrame frame, @NotNull RegisteredCommand registeredCommand) {
+
+        // Impure parsers may match differently later, even the ones that only ruled out a branch, so the line has to be matched every time
+        if (frame.isImpureParserConsulted()) return;
+
+        int hash = hash(label, input);
+        int index = hash & (CAPACITY - 1);
+
+        // The first time the line is seen only its hash is remembered, so this doesn't allocate
+        if (probes.get(index) != hash) {
+            probes.set(index, hash);
+            return;
+        }
+
+        Class<?>[] parameterTypes = registeredCommand.getParameterTypes();
+
+        // Other values may hold on to players or worlds
+        if (!frame.isShareable(parameterTypes.length)) return;
+
+        StringBuilder line = new StringBuilder(input.getLine().length());
+
+        for (int i = 0; i < input.size(); i++) {
+            if (i > 0) line.append(' ');
+            line.append(input.getLine(), input.getRawStart(i), input.getRawEnd(i));
+        }
+
+        Object[] values = new Object[parameterTypes.length];
+        long[] primitives = new long[parameterTypes.length];
+        frame.export(parameterTypes.length, values, primitives);
+
+        entries.set(index, new Entry(hash, label, line.toString(), root, registeredCommand, values, primitives));
+    }
+
+    /**
+     * Get the amount of dispatches that used a cached line.
+     *
+     * @return - the amount of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the amount of dispatches that had to be matched against the tree.
+     *
+     * @return - the amount of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Check whether the tokens of the input, separated by a single space, are equal to the line.
+     */
+    private static boolean matches(String line, CommandInput input) {
+
+        CharSequence inputLine = input.getLine();
+        int position = 0;
+
+        for (int i = 0; i < input.size(); i++) {
+
+            if (i > 0 && (position >= line.length() || line.charAt(position++) != ' ')) return false;
+
+            for (int j = input.getRawStart(i), end = input.getRawEnd(i); j < end; j++) {
+                if (position >= line.length() || line.charAt(position++) != inputLine.charAt(j)) return false;
+            }
+        }
+
+        return position == line.length();
+    }
+
+    /**
+     * Compute the hash of the label and the tokens of the input, separated by a single space.
+     */
+    private static int hash(String label, CommandInput input) {
+
+        CharSequence line = input.getLine();
+        int hash = label.hashCode();
+
+        for (int i = 0; i < input.size(); i++) {
+
+            hash = 31 * hash + ' ';
+
+            for (int j = input.getRawStart(i), end = input.getRawEnd(i); j < end; j++) {
+                hash = 31 * hash + line.charAt(j);
+            }
+        }
+
+        // Mix all the bits into the low bits the entries are indexed with
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+}
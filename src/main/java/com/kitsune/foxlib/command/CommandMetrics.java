@@ -0,0 +1,199 @@
+package com.kitsune.foxlib.command;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the dispatches of a {@link RegisteredCommand} and keeps a histogram of their latency.
+ *
+ * Recording is lock-free and doesn't allocate, so the metrics can stay enabled under load.
+ * The latency histogram uses power of two buckets, bucket {@code n} counts the dispatches
+ * that took less than {@code 2^n} nanoseconds but at least {@code 2^(n-1)}.
+ */
+public class CommandMetrics {
+
+    /** The amount of latency buckets, one for every possible bit length of a long */
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final LongAdder invocations;
+    private final LongAdder parseFailures;
+    private final LongAdder permissionDenials;
+    private final LongAdder invalidSenderTypes;
+    private final LongAdder concurrencyRejections;
+    private final LongAdder throttleRejections;
+    private final LongAdder handlerFailures;
+
+    /** The total latency of all invocations, in nanoseconds */
+    private final LongAdder totalLatency;
+
+    /** The latency histogram */
+    private final AtomicLongArray latencyBuckets;
+
+    /**
+     * Construct new, empty {@link CommandMetrics}.
+     */
+    public CommandMetrics() {
+        this.invocations = new LongAdder();
+        this.parseFailures = new LongAdder();
+        this.permissionDenials = new LongAdder();
+        this.invalidSenderTypes = new LongAdder();
+        this.concurrencyRejections = new LongAdder();
+        this.throttleRejections = new LongAdder();
+        this.handlerFailures = new LongAdder();
+        this.totalLatency = new LongAdder();
+        this.latencyBuckets = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Record a successful invocation.
+     *
+     * @param latency - the time the dispatch took, in nanoseconds
+     */
+    void recordInvocation(long latency) {
+        invocations.increment();
+        totalLatency.add(latency);
+        latencyBuckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, latency)));
+    }
+
+    void recordParseFailure() {
+        parseFailures.increment();
+    }
+
+    void recordPermissionDenial() {
+        permissionDenials.increment();
+    }
+
+    void recordInvalidSenderType() {
+        invalidSenderTypes.increment();
+    }
+
+    void recordConcurrencyRejection() {
+        concurrencyRejections.increment();
+    }
+
+    void recordThrottleRejection() {
+        throttleRejections.increment();
+    }
+
+    void recordHandlerFailure() {
+        handlerFailures.increment();
+    }
+
+    /**
+     * Record the result of a dispatch that resolved to this command.
+     *
+     * @param result - the result
+     * @param latency - the time the dispatch took, in nanoseconds
+     */
+    void record(FoxCommandResult result, long latency) {
+        switch (result) {
+            case SUCCESS: recordInvocation(latency); break;
+            case INVALID_COMMAND: recordParseFailure(); break;
+            case INSUFFICIENT_PERMISSIONS: recordPermissionDenial(); break;
+            case INVALID_SENDER_TYPE: recordInvalidSenderType(); break;
+            case CONCURRENCY_LIMIT_REACHED: recordConcurrencyRejection(); break;
+            case ON_COOLDOWN:
+            case RATE_LIMITED: recordThrottleRejection(); break;
+            case EXECUTION_FAILED: recordHandlerFailure(); break;
+        }
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    public long getPermissionDenials() {
+        return permissionDenials.sum();
+    }
+
+    public long getInvalidSenderTypes() {
+        return invalidSenderTypes.sum();
+    }
+
+    public long getConcurrencyRejections() {
+        return concurrencyRejections.sum();
+    }
+
+    /**
+     * Get the amount of dispatches that have been rejected because of a cooldown or rate limit.
+     *
+     * @return - the amount of rejections
+     */
+    public long getThrottleRejections() {
+        return throttleRejections.sum();
+    }
+
+    /**
+     * Get the amount of invocations in which the handler threw an exception.
+     *
+     * @return - the amount of failures
+     */
+    public long getHandlerFailures() {
+        return handlerFailures.sum();
+    }
+
+    /**
+     * Get the mean latency of the successful invocations.
+     *
+     * @return - the mean latency in nanoseconds, or {@code 0} if the command hasn't been invoked
+     */
+    public long getMeanLatency() {
+        long count = invocations.sum();
+        return count == 0 ? 0 : totalLatency.sum() / count;
+    }
+
+    /**
+     * Get an estimate of the latency percentile of the successful invocations.
+     *
+     * The estimate is the upper bound of the histogram bucket the percentile falls in,
+     * so it's at most twice the real value.
+     *
+     * @param percentile - the percentile, between {@code 0} and {@code 1}
+     *
+     * @return - the latency in nanoseconds, or {@code 0} if the command hasn't been invoked
+     */
+    public long getLatencyPercentile(double percentile) {
+
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencyBuckets.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target && counts[i] > 0) return i >= Long.SIZE - 1 ? Long.MAX_VALUE : 1L << i;
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Reset all the counters and the histogram.
+     */
+    public void reset() {
+        invocations.reset();
+        parseFailures.reset();
+        permissionDenials.reset();
+        invalidSenderTypes.reset();
+        concurrencyRejections.reset();
+        throttleRejections.reset();
+        handlerFailures.reset();
+        totalLatency.reset();
+
+        for (int i = 0; i < BUCKETS; i++) {
+            latencyBuckets.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.kitsune.foxlib.command;
+
+import com.kitsune.foxlib.FoxLib;
+import com.kitsune.foxlib.util.Log;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the handlers of asynchronous {@link FoxCommand}s off the server thread.
+ *
+ * When the runtime supports virtual threads every handler gets its own virtual thread, otherwise
+ * a fixed pool of platform threads is used. In both cases the amount of handlers that can run or wait
+ * at the same time is bounded, when the bound is reached new invocations are rejected instead of queued.
+ */
+public class CommandScheduler {
+
+    /** The maximum amount of handlers that can run at the same time when virtual threads are used */
+    private static final int MAX_VIRTUAL_CONCURRENCY = 256;
+
+    /** The maximum amount of handlers that can wait for a platform thread */
+    private static final int MAX_QUEUED = 512;
+
+    /** The executor that runs the handlers */
+    private final ExecutorService executor;
+
+    /** Bounds the amount of handlers when virtual threads are used, {@code null} when platform threads are used */
+    private final Semaphore virtualPermits;
+
+    /**
+     * Construct a new {@link CommandScheduler}, which uses virtual threads if the runtime supports them.
+     */
+    public CommandScheduler() {
+        this(createVirtualThreadExecutor());
+    }
+
+    /**
+     * Construct a new {@link CommandScheduler} that uses a fixed pool of platform threads.
+     *
+     * @param threads - the amount of threads
+     * @param maxQueued - the maximum amount of tasks that can wait for a thread
+     */
+    public CommandScheduler(int threads, int maxQueued) {
+        this.executor = createThreadPool(threads, maxQueued);
+        this.virtualPermits = null;
+    }
+
+    private CommandScheduler(@Nullable ExecutorService virtualExecutor) {
+
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.virtualPermits = new Semaphore(MAX_VIRTUAL_CONCURRENCY);
+        }
+        else {
+            this.executor = createThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), MAX_QUEUED);
+            this.virtualPermits = null;
+        }
+    }
+
+    /**
+     * Run the handler of the command asynchronously.
+     *
+     * @param registeredCommand - the command
+     * @param arguments - the frame that holds the sender and the parsed arguments, detached from the dispatch
+     *
+     * @return - {@code true} if the handler has been scheduled or {@code false} if a concurrency limit has been reached
+     */
+    boolean submit(@NotNull RegisteredCommand registeredCommand, @NotNull ArgumentFrame arguments) {
+        return submit(() -> {
+            try {
+                registeredCommand.getInvoker().invoke(arguments);
+            } catch (Throwable throwable) {
+                Log.error("Command Scheduler", "Unhandled exception executing /{} in {}", registeredCommand.getPath(), registeredCommand);
+                throwable.printStackTrace();
+            }
+        }, registeredCommand.getConcurrencyPermits());
+    }
+
+    /**
+     * Run the task asynchronously, unless a concurrency limit has been reached.
+     *
+     * @param task - the task
+     * @param permits - limits how many tasks that share it can run at the same time, {@code null} if there's no limit
+     *
+     * @return - {@code true} if the task has been scheduled or {@code false} if a concurrency limit has been reached
+     */
+    public boolean submit(@NotNull Runnable task, @Nullable Semaphore permits) {
+
+        // Make sure the task itself isn't running too often
+        if (permits != null && !permits.tryAcquire()) return false;
+
+        // Make sure the scheduler isn't full
+        if (virtualPermits != null && !virtualPermits.tryAcquire()) {
+            if (permits != null) permits.release();
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    Log.error("Command Scheduler", "Unhandled exception in asynchronous task {}", task);
+                    throwable.printStackTrace();
+                } finally {
+                    if (virtualPermits != null) virtualPermits.release();
+                    if (permits != null) permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (virtualPermits != null) virtualPermits.release();
+            if (permits != null) permits.release();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Stop accepting new handlers and wait a few seconds for the running ones to finish.
+     */
+    public void shutdown() {
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                Log.warn("Command Scheduler", "Asynchronous commands didn't finish in time!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run the task on the server thread, use this to call the Bukkit API from an asynchronous command.
+     *
+     * If this is called on the server thread, or FoxLib isn't running as a plugin, the task is run immediately.
+     *
+     * @param task - the task
+     * @param <T> - the type of the result
+     *
+     * @return - a future that completes with the result of the task
+     */
+    public static <T> CompletableFuture<T> callSync(@NotNull Callable<T> task) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = () -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        };
+
+        if (FoxLib.getInstance() == null || Bukkit.isPrimaryThread()) {
+            runnable.run();
+        }
+        else {
+            Bukkit.getScheduler().runTask(FoxLib.getInstance(), runnable);
+        }
+
+        return future;
+    }
+
+    /**
+     * Run the task on the server thread, use this to call the Bukkit API from an asynchronous command.
+     *
+     * @param task - the task
+     *
+     * @return - a future that completes when the task has been run
+     */
+    public static CompletableFuture<Void> runSync(@NotNull Runnable task) {
+        return callSync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Create a fixed pool of daemon threads that rejects tasks once its queue is full.
+     *
+     * @param threads - the amount of threads
+     * @param maxQueued - the maximum amount of tasks that can wait for a thread
+     *
+     * @return - the executor
+     */
+    private static ExecutorService createThreadPool(int threads, int maxQueued) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueued), runnable -> {
+            Thread thread = new Thread(runnable, "FoxLib Command Worker #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create an executor that starts a virtual thread for every task, if the runtime supports it.
+     *
+     * @return - the executor or {@code null} if virtual threads aren't supported
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
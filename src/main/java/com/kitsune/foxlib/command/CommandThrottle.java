@@ -0,0 +1,248 @@
+package com.kitsune.foxlib.command;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces the {@link RateLimit}s of commands for every player.
+ *
+ * A player's state is a single array with two timestamps per command, one for its cooldown and one for its
+ * rate limit, indexed by {@link RegisteredCommand#getIndex()}. It's updated using compare and swap, so checking
+ * the limits doesn't lock or allocate. The state is forgotten when the player quits.
+ */
+public class CommandThrottle {
+
+    /** The amount of timestamps of a command, the cooldown comes first */
+    private static final int SLOTS_PER_COMMAND = 2;
+
+    /** The clock the timestamps are read from, in nanoseconds */
+    private final LongSupplier clock;
+
+    /** The origin of the timestamps, so the timestamp of a limit that has never been used is always in the past */
+    private final long origin;
+
+    /** The state of the players by their unique id */
+    private final Map<UUID, SenderState> senderStates;
+
+    /**
+     * The timestamps of the limits of a player.
+     */
+    private static final class SenderState {
+
+        private final AtomicLongArray timestamps;
+
+        /** Whether the state has been replaced by a larger copy */
+        private volatile boolean retired;
+
+        private SenderState(int capacity) {
+            this.timestamps = new AtomicLongArray(capacity);
+        }
+    }
+
+    /**
+     * Construct a new, empty {@link CommandThrottle}.
+     */
+    public CommandThrottle() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Construct a new, empty {@link CommandThrottle} that reads the time from the clock, used to test the limits.
+     *
+     * @param clock - the clock, in nanoseconds
+     */
+    public CommandThrottle(@NotNull LongSupplier clock) {
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.senderStates = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Take a token from the player's buckets of the cooldown and the rate limit of the command.
+     * Both limits are checked before a token is taken from either, so a use that's rejected by
+     * one limit never costs a token of the other one.
+     *
+     * Commands that aren't registered don't have an index and aren't throttled.
+     *
+     * @param player - the player
+     * @param registeredCommand - the command
+     *
+     * @return - the limit that has been reached or {@code null} if the player can run the command
+     */
+    @Nullable
+    public RateLimit tryAcquire(@NotNull Player player, @NotNull RegisteredCommand registeredCommand) {
+
+        RateLimit cooldown = registeredCommand.getCooldown();
+        RateLimit rateLimit = registeredCommand.getRateLimit();
+        int index = registeredCommand.getIndex();
+
+        if ((cooldown == null && rateLimit == null) || index < 0) return null;
+
+        UUID uniqueId = player.getUniqueId();
+        int slot = index * SLOTS_PER_COMMAND;
+        long now = now();
+
+        while (true) {
+
+            SenderState state = getState(uniqueId, slot + 1);
+
+            // The time a bucket is full again, it has a token as long as that's at most the tolerance ahead
+            long cooldownFull = state.timestamps.get(slot);
+            long rateFull = state.timestamps.get(slot + 1);
+
+            if (rateLimit != null && now < rateFull - rateLimit.getTolerance()) return rateLimit;
+            if (cooldown != null && now < cooldownFull - cooldown.getTolerance()) return cooldown;
+
+            long cooldownUpdated = cooldown != null ? Math.max(cooldownFull, now) + cooldown.getInterval() : cooldownFull;
+            long rateUpdated = rateLimit != null ? Math.max(rateFull, now) + rateLimit.getInterval() : rateFull;
+
+            if (cooldown != null && !state.timestamps.compareAndSet(slot, cooldownFull, cooldownUpdated)) continue;
+
+            if (rateLimit != null && !state.timestamps.compareAndSet(slot + 1, rateFull, rateUpdated)) {
+
+                // Another use took a token meanwhile, give the cooldown back and check both limits again
+                if (cooldown != null) state.timestamps.addAndGet(slot, -cooldown.getInterval());
+                continue;
+            }
+
+            // The state may have been copied before the update, make sure the copy has it
+            while (state.retired) {
+
+                state = senderStates.get(uniqueId);
+                if (state == null) break;
+
+                state.timestamps.accumulateAndGet(slot, cooldownUpdated, Math::max);
+                state.timestamps.accumulateAndGet(slot + 1, rateUpdated, Math::max);
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Give back the tokens taken by {@link #tryAcquire(Player, RegisteredCommand)}, when the command couldn't be run after all.
+     *
+     * @param player - the player
+     * @param registeredCommand - the command
+     */
+    public void release(@NotNull Player player, @NotNull RegisteredCommand registeredCommand) {
+
+        int index = registeredCommand.getIndex();
+        if (index < 0) return;
+
+        SenderState state = senderStates.get(player.getUniqueId());
+        int slot = index * SLOTS_PER_COMMAND;
+
+        if (state == null || state.timestamps.length() <= slot + 1) return;
+
+        // Taking a token moved the time the bucket is full by an interval, so moving it back gives the token back
+        if (registeredCommand.getCooldown() != null) state.timestamps.addAndGet(slot, -registeredCommand.getCooldown().getInterval());
+        if (registeredCommand.getRateLimit() != null) state.timestamps.addAndGet(slot + 1, -registeredCommand.getRateLimit().getInterval());
+    }
+
+    /**
+     * Get the time until the player gets a new token of the limit.
+     *
+     * @param player - the player
+     * @param registeredCommand - the command the limit belongs to
+     * @param limit - the cooldown or the rate limit of the command
+     *
+     * @return - the time until the next token in nanoseconds, {@code 0} if the player has a token
+     */
+    public long getWait(@NotNull Player player, @NotNull RegisteredCommand registeredCommand, @NotNull RateLimit limit) {
+
+        int index = registeredCommand.getIndex();
+        if (index < 0) return 0;
+
+        SenderState state = senderStates.get(player.getUniqueId());
+        int slot = index * SLOTS_PER_COMMAND + (limit.isCooldown() ? 0 : 1);
+
+        if (state == null || state.timestamps.length() <= slot) return 0;
+
+        return Math.max(0, state.timestamps.get(slot) - limit.getTolerance() - now());
+    }
+
+    private long now() {
+        return clock.getAsLong() - origin;
+    }
+
+    /**
+     * Get the state of the player, making sure it has room for the slot.
+     *
+     * @param uniqueId - the unique id of the player
+     * @param slot - the slot
+     *
+     * @return - the state
+     */
+    private SenderState getState(UUID uniqueId, int slot) {
+
+        SenderState state = senderStates.get(uniqueId);
+
+        return state != null && state.timestamps.length() > slot ? state : grow(uniqueId, slot);
+    }
+
+    /**
+     * Replace the state of the player with a copy that has room for the slot, this only happens
+     * when the player runs a command that has a higher index than the commands the player ran before.
+     *
+     * @param uniqueId - the unique id of the player
+     * @param slot - the slot
+     *
+     * @return - the state
+     */
+    private SenderState grow(UUID uniqueId, int slot) {
+        return senderStates.compute(uniqueId, (key, existing) -> {
+
+            if (existing != null && existing.timestamps.length() > slot) return existing;
+
+            // Indices are reused, so doubling the state never makes it much larger than the amount of commands
+            SenderState grown = new SenderState(Math.max(slot + 1, existing != null ? existing.timestamps.length() * 2 : 0));
+
+            if (existing != null) {
+
+                // Retire the state before copying it, so an update that the copy misses is applied to the copy
+                existing.retired = true;
+
+                for (int i = 0; i < existing.timestamps.length(); i++) {
+                    grown.timestamps.set(i, existing.timestamps.get(i));
+                }
+            }
+
+            return grown;
+        });
+    }
+
+    /**
+     * Forget the timestamps of the command index for every player, called before the index is reused.
+     *
+     * @param index - the index
+     */
+    void forget(int index) {
+
+        int slot = index * SLOTS_PER_COMMAND;
+
+        for (SenderState state : senderStates.values()) {
+
+            if (state.timestamps.length() <= slot + 1) continue;
+
+            state.timestamps.set(slot, 0);
+            state.timestamps.set(slot + 1, 0);
+        }
+    }
+
+    /**
+     * Forget the state of the player.
+     *
+     * @param player - the player
+     */
+    public void invalidate(@NotNull Player player) {
+        senderStates.remove(player.getUniqueId());
+    }
+}
@@ -0,0 +1,152 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the records of a trace file written by the {@link CommandTraceRecorder}.
+ */
+public class CommandTraceReader implements AutoCloseable {
+
+    private static final FoxCommandResult[] RESULTS = FoxCommandResult.values();
+    private static final CommandTraceRecord.SenderType[] SENDER_TYPES = CommandTraceRecord.SenderType.values();
+
+    private final DataInputStream input;
+
+    /** The labels of the file, by their index */
+    private final List<String> labels;
+
+    /** The version of the format of the file */
+    private final int version;
+
+    private long previousTimestamp;
+
+    /**
+     * Open a trace file.
+     *
+     * @param file - the file
+     *
+     * @throws IOException - if the file can't be read or isn't a trace
+     */
+    public CommandTraceReader(@NotNull File file) throws IOException {
+
+        this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        this.labels = new ArrayList<>();
+
+        try {
+
+            if (input.readInt() != CommandTraceRecorder.MAGIC) throw new IOException(file + " isn't a command trace");
+
+            this.version = input.readUnsignedByte();
+            if (version < 1 || version > CommandTraceRecorder.VERSION) throw new IOException(file + " has an unsupported version " + version);
+
+            this.previousTimestamp = input.readLong();
+
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read all the records of the trace files, in the order of their names. A file that ends in the middle of
+     * a record, because it was still being written, is read up to that record.
+     *
+     * @param files - the files
+     *
+     * @return - the records
+     *
+     * @throws IOException - if a file can't be read or isn't a trace
+     */
+    public static List<CommandTraceRecord> readAll(@NotNull File... files) throws IOException {
+
+        File[] sorted = files.clone();
+        Arrays.sort(sorted);
+
+        List<CommandTraceRecord> records = new ArrayList<>();
+
+        for (File file : sorted) {
+            try (CommandTraceReader reader = new CommandTraceReader(file)) {
+
+                CommandTraceRecord record;
+                while ((record = reader.next()) != null) records.add(record);
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return - the record or {@code null} if the end of the file has been reached
+     *
+     * @throws IOException - if the file can't be read
+     */
+    @Nullable
+    public CommandTraceRecord next() throws IOException {
+
+        try {
+
+            long timestamp = previousTimestamp + readVarLong();
+            CommandTraceRecord.SenderType senderType = SENDER_TYPES[input.readUnsignedByte()];
+
+            // The first version didn't tell players apart
+            int senderId = version >= 2 ? (int) readVarLong() : 0;
+
+            int labelIndex = (int) readVarLong();
+            if (labelIndex == labels.size()) labels.add(readString());
+
+            String label = labels.get(labelIndex);
+
+            String[] args = new String[(int) readVarLong()];
+            for (int i = 0; i < args.length; i++) args[i] = readString();
+
+            FoxCommandResult result = RESULTS[input.readUnsignedByte()];
+            long latency = readVarLong();
+
+            previousTimestamp = timestamp;
+            return new CommandTraceRecord(timestamp, senderType, senderId, label, args, result, latency);
+
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[(int) readVarLong()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new IOException("Malformed number in command trace");
+    }
+}
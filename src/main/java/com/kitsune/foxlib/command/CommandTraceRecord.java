@@ -0,0 +1,104 @@
+package com.kitsune.foxlib.command;
+
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A command that has been dispatched, as it's written to a trace by the {@link CommandTraceRecorder}.
+ */
+public final class CommandTraceRecord {
+
+    /**
+     * The kinds of command senders that are told apart in a trace.
+     */
+    public enum SenderType {
+        PLAYER, CONSOLE, BLOCK, OTHER;
+
+        /**
+         * Get the type of the command sender.
+         *
+         * @param commandSender - the command sender
+         *
+         * @return - the type
+         */
+        public static SenderType of(@NotNull CommandSender commandSender) {
+            if (commandSender instanceof Player) return PLAYER;
+            if (commandSender instanceof ConsoleCommandSender) return CONSOLE;
+            if (commandSender instanceof BlockCommandSender) return BLOCK;
+            return OTHER;
+        }
+    }
+
+    /** The time the command was dispatched, in milliseconds since the epoch */
+    private final long timestamp;
+
+    private final SenderType senderType;
+
+    /** The id of the player in the trace, {@code 0} for other senders */
+    private final int senderId;
+
+    private final String label;
+    private final String[] args;
+    private final FoxCommandResult result;
+
+    /** The time the dispatch took, in nanoseconds */
+    private final long latency;
+
+    /**
+     * Construct a new {@link CommandTraceRecord}.
+     *
+     * @param timestamp - the time the command was dispatched, in milliseconds since the epoch
+     * @param senderType - the type of the command sender
+     * @param senderId - the id of the player in the trace, {@code 0} for other senders
+     * @param label - the label of the command
+     * @param args - the arguments of the command
+     * @param result - the result of the dispatch
+     * @param latency - the time the dispatch took, in nanoseconds
+     */
+    public CommandTraceRecord(long timestamp, @NotNull SenderType senderType, int senderId, @NotNull String label, @NotNull String[] args, @NotNull FoxCommandResult result, long latency) {
+        this.timestamp = timestamp;
+        this.senderType = senderType;
+        this.senderId = senderId;
+        this.label = label;
+        this.args = args;
+        this.result = result;
+        this.latency = latency;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public SenderType getSenderType() {
+        return senderType;
+    }
+
+    /**
+     * Get the id of the player in the trace. Players don't keep their id between recordings
+     * and the id doesn't tell who the player is, it only tells the records of different players apart.
+     *
+     * @return - the id of the player, {@code 0} for other senders
+     */
+    public int getSenderId() {
+        return senderId;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+
+    public FoxCommandResult getResult() {
+        return result;
+    }
+
+    public long getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,350 @@
+package com.kitsune.foxlib.command;
+
+import com.kitsune.foxlib.util.Log;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the commands that are dispatched to a set of rotating binary files, so the real command mix
+ * of a server can be replayed against the command tree later on, see {@link CommandTraceReader}.
+ *
+ * Recording doesn't block the dispatching thread: records are queued in a bounded buffer and written
+ * by a background thread, if the buffer is full the record is dropped and counted. A new file is started
+ * when the current one reaches the maximum size, only the most recent files are kept, including the files of
+ * earlier recordings in the same directory.
+ *
+ * A file starts with {@link #MAGIC}, {@link #VERSION} and the time it was created. Every record holds the time since
+ * the previous record, the sender type, the id of the player, the label, the arguments, the result and the latency.
+ * Players get an id when they first dispatch a command while recording, so a replay can tell them apart without
+ * the trace holding their names. Numbers are variable length, labels are written once per file and referred to
+ * by their index after that.
+ */
+public class CommandTraceRecorder implements AutoCloseable {
+
+    /** The first bytes of a trace file */
+    static final int MAGIC = 0x46435452;
+
+    /** The version of the format */
+    static final int VERSION = 2;
+
+    /** The start of the names of trace files */
+    private static final String FILE_PREFIX = "trace-";
+
+    /** The extension of trace files */
+    public static final String EXTENSION = ".fctrace";
+
+    /** The amount of records that can be waiting to be written */
+    private static final int BUFFER_SIZE = 16384;
+
+    /** The size of the output buffer of a file */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /** The records waiting to be written */
+    private final BlockingQueue<CommandTraceRecord> buffer;
+
+    /** The amount of records that have been written */
+    private final LongAdder recorded = new LongAdder();
+
+    /** The amount of records that have been dropped because the buffer was full */
+    private final LongAdder dropped = new LongAdder();
+
+    private final File directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    /** The prefix of the names of the files, the time the recorder was started */
+    private final String filePrefix;
+
+    /** The files that have been written, including the files of earlier recordings, the oldest first */
+    private final Deque<File> files;
+
+    /** The ids of the players that have dispatched a command, by their unique id */
+    private final Map<UUID, Integer> senderIds;
+
+    /** The sequence number of the next file */
+    private int nextSequence;
+
+    /** The thread that writes the records */
+    private final Thread writer;
+
+    /** Whether the recorder has been closed, records are ignored after that */
+    private volatile boolean closed;
+
+    // The state of the current file, only used by the writer thread
+    private DataOutputStream output;
+    private long fileSize;
+    private long previousTimestamp;
+    private final Map<String, Integer> labels;
+
+    /**
+     * Construct a new {@link CommandTraceRecorder} and start writing.
+     *
+     * @param directory - the directory to write the files to
+     * @param maxFileSize - the size in bytes at which a new file is started
+     * @param maxFiles - the amount of files that are kept
+     *
+     * @throws IOException - if the directory can't be created
+     */
+    public CommandTraceRecorder(@NotNull File directory, long maxFileSize, int maxFiles) throws IOException {
+
+        if (maxFileSize <= 0 || maxFiles <= 0) throw new IllegalArgumentException("The maximum file size and amount of files must be positive");
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create the trace directory " + directory);
+        }
+
+        this.buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.filePrefix = FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-";
+        this.files = new ArrayDeque<>();
+        this.senderIds = new ConcurrentHashMap<>();
+        this.labels = new HashMap<>();
+
+        // The files of earlier recordings count towards the maximum, their names sort by the time they were created
+        File[] existingFiles = directory.listFiles((parent, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(EXTENSION));
+
+        if (existingFiles != null) {
+            Arrays.sort(existingFiles);
+            files.addAll(Arrays.asList(existingFiles));
+        }
+
+        this.writer = new Thread(this::write, "FoxLib Command Trace");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a dispatched command to be written.
+     *
+     * @param commandSender - the command sender
+     * @param label - the label of the command
+     * @param args - the arguments of the command, the array must not be changed afterwards
+     * @param result - the result of the dispatch
+     * @param latency - the time the dispatch took, in nanoseconds
+     */
+    public void record(@NotNull CommandSender commandSender, @NotNull String label, @NotNull String[] args, @NotNull FoxCommandResult result, long latency) {
+
+        if (closed) return;
+
+        int senderId = commandSender instanceof Player ? getSenderId(((Player) commandSender).getUniqueId()) : 0;
+        CommandTraceRecord record = new CommandTraceRecord(System.currentTimeMillis(), CommandTraceRecord.SenderType.of(commandSender), senderId, label, args, result, latency);
+
+        if (!buffer.offer(record)) dropped.increment();
+    }
+
+    /**
+     * Get the id of a player in this recording, the first player gets {@code 1}.
+     */
+    private int getSenderId(UUID uniqueId) {
+
+        Integer senderId = senderIds.get(uniqueId);
+        if (senderId != null) return senderId;
+
+        synchronized (senderIds) {
+            return senderIds.computeIfAbsent(uniqueId, key -> senderIds.size() + 1);
+        }
+    }
+
+    /**
+     * Stop recording, write the queued records and close the current file.
+     */
+    @Override
+    public void close() {
+
+        closed = true;
+        writer.interrupt();
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the amount of records that have been written.
+     *
+     * @return - the amount of records
+     */
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    /**
+     * Get the amount of records that have been dropped because they couldn't be written fast enough.
+     *
+     * @return - the amount of records
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the directory the files are written to.
+     *
+     * @return - the directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Write the queued records until the recorder is closed, flushing the file whenever the buffer is empty for a second.
+     */
+    private void write() {
+
+        try {
+
+            try {
+
+                while (true) {
+
+                    CommandTraceRecord record = buffer.poll(1, TimeUnit.SECONDS);
+
+                    if (record == null) {
+                        if (output != null) output.flush();
+                        continue;
+                    }
+
+                    writeRecord(record);
+                }
+
+            } catch (InterruptedException e) {
+
+                // Closed, write the records that are left
+                CommandTraceRecord record;
+                while ((record = buffer.poll()) != null) writeRecord(record);
+            }
+
+        } catch (IOException e) {
+            Log.error("Command Trace", "Failed to write the command trace, recording stopped: {}", e.getMessage());
+            closed = true;
+        } finally {
+            closeOutput();
+        }
+    }
+
+    private void closeOutput() {
+
+        if (output == null) return;
+
+        try {
+            output.close();
+        } catch (IOException e) {
+            Log.error("Command Trace", "Failed to close the command trace: {}", e.getMessage());
+        }
+
+        output = null;
+    }
+
+    private void writeRecord(CommandTraceRecord record) throws IOException {
+
+        if (output == null || fileSize >= maxFileSize) rotate(record.getTimestamp());
+
+        writeVarLong(record.getTimestamp() - previousTimestamp);
+        previousTimestamp = record.getTimestamp();
+
+        writeByte(record.getSenderType().ordinal());
+        writeVarLong(record.getSenderId());
+
+        // Labels are written once per file, after that only their index
+        Integer label = labels.get(record.getLabel());
+
+        if (label != null) {
+            writeVarLong(label);
+        } else {
+            writeVarLong(labels.size());
+            writeString(record.getLabel());
+            labels.put(record.getLabel(), labels.size());
+        }
+
+        writeVarLong(record.getArgs().length);
+        for (String arg : record.getArgs()) writeString(arg);
+
+        writeByte(record.getResult().ordinal());
+        writeVarLong(record.getLatency());
+
+        recorded.increment();
+    }
+
+    /**
+     * Close the current file and start a new one, deleting the oldest file if there are too many.
+     */
+    private void rotate(long timestamp) throws IOException {
+
+        closeOutput();
+
+        File file;
+
+        // Skip the files of a recording that was started in the same second
+        do {
+            file = new File(directory, filePrefix + String.format("%04d", nextSequence++) + EXTENSION);
+        } while (file.exists());
+
+        files.addLast(file);
+
+        while (files.size() > maxFiles) {
+            File oldest = files.removeFirst();
+            if (!oldest.delete()) Log.warn("Command Trace", "Failed to delete the old trace file {}", oldest.getName());
+        }
+
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), OUTPUT_BUFFER_SIZE));
+        fileSize = 0;
+        labels.clear();
+
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(timestamp);
+        fileSize += 13;
+
+        previousTimestamp = timestamp;
+    }
+
+    private void writeByte(int value) throws IOException {
+        output.writeByte(value);
+        fileSize++;
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        output.write(bytes);
+        fileSize += bytes.length;
+    }
+
+    /**
+     * Write a number using 7 bits per byte, the high bit marks that another byte follows. Negative numbers take ten bytes.
+     */
+    private void writeVarLong(long value) throws IOException {
+
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        writeByte((int) value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An {@link ArgumentParser} whose result depends on the dispatch, like the command sender or the previous arguments.
+ *
+ * The results of contextual parsers aren't reused when the dispatch backtracks, and lines that contain them
+ * aren't cached unless the parser overrides {@link #isPure()}.
+ *
+ * @param <T> - the type of the parsed argument
+ */
+public interface ContextualArgumentParser<T> extends ArgumentParser<T> {
+
+    /**
+     * Parse an argument. The argument may be a view of the command line that's reused, so it must not be kept.
+     *
+     * @param context - the context of the dispatch
+     * @param argument - the argument
+     *
+     * @return - the parsed value or {@code null} if the argument doesn't match
+     */
+    @Nullable
+    T parse(@NotNull ParseContext context, @NotNull CharSequence argument);
+
+    /**
+     * Get the suggestions for an argument that's being typed by the sender of the context.
+     *
+     * @param context - the context, it doesn't have any previous arguments
+     * @param prefix - the part of the argument that has been typed so far
+     *
+     * @return - the suggestions, by default those of {@link #getSuggestions(String)}
+     */
+    @NotNull
+    default List<String> getSuggestions(@NotNull ParseContext context, @NotNull String prefix) {
+        return getSuggestions(prefix);
+    }
+
+    /**
+     * Parse an argument without a sender.
+     */
+    @Override
+    default T parse(String argument) {
+        return parse(new ParseContext(null, 0), argument);
+    }
+
+    /**
+     * Parse an argument without a sender.
+     */
+    @Override
+    default T parse(CharSequence argument) {
+        return parse(new ParseContext(null, 0), argument);
+    }
+}
@@ -0,0 +1,40 @@
+package com.kitsune.foxlib.command;
+
+/**
+ * An {@link ArgumentParser} that parses arguments to a {@code double} without boxing them.
+ */
+public interface DoubleArgumentParser extends ArgumentParser<Double> {
+
+    /**
+     * Parse the argument, this is only called if {@link #matches(String)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    double parseDouble(String argument);
+
+    /**
+     * Parse a view of the command line, this is only called if {@link #matches(CharSequence)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    default double parseDouble(CharSequence argument) {
+        return parseDouble(argument.toString());
+    }
+
+    @Override
+    boolean matches(String argument);
+
+    @Override
+    default Double parse(String argument) {
+        return matches(argument) ? parseDouble(argument) : null;
+    }
+
+    @Override
+    default int getPriority() {
+        return PRIORITY_DOUBLE;
+    }
+}
@@ -11,6 +11,10 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 public @interface FoxCommand {
 
+    /** The description and usage of commands that don't define them, the help index leaves them out */
+    String NO_DESCRIPTION = "No description defined.";
+    String NO_USAGE = "No usage defined.";
+
     String path();
 
     String[] aliases() default {};
@@ -19,9 +23,46 @@ public @interface FoxCommand {
 
     String noPermissionsMessage() default "&cInsufficient permissions!";
 
-    String description() default "No description defined.";
+    String description() default NO_DESCRIPTION;
+
+    String usage() default NO_USAGE;
+
+    /**
+     * Whether to run the handler off the server thread, use {@link CommandScheduler#callSync(java.util.concurrent.Callable)}
+     * to get back on the server thread for calls to the Bukkit API.
+     */
+    boolean async() default false;
+
+    /**
+     * The maximum amount of handlers of an asynchronous command that can run at the same time, {@code 0} for no limit.
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * The time in milliseconds a player has to wait between two uses of the command, {@code 0} for no cooldown.
+     */
+    long cooldown() default 0;
+
+    /**
+     * The message sent when the command is on cooldown, {@code {time}} is replaced by the remaining time.
+     */
+    String cooldownMessage() default "&cYou can use this command again in {time}!";
+
+    /**
+     * The amount of times a player can use the command in {@link #rateLimitPeriod()}, {@code 0} for no limit.
+     * The uses can be spread over the period or happen all at once.
+     */
+    int rateLimit() default 0;
+
+    /**
+     * The period of the {@link #rateLimit()} in milliseconds.
+     */
+    long rateLimitPeriod() default 1000;
 
-    String usage() default "No usage defined.";
+    /**
+     * The message sent when the rate limit is reached, {@code {time}} is replaced by the time until the command can be used again.
+     */
+    String rateLimitMessage() default "&cYou're using this command too often, try again in {time}!";
 
 
 }
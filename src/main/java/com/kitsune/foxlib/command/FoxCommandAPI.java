@@ -1,28 +1,41 @@
 package com.kitsune.foxlib.command;
 
+import com.kitsune.foxlib.FoxLib;
 import com.kitsune.foxlib.command.parser.DoubleParser;
+import com.kitsune.foxlib.command.parser.EnumParser;
+import com.kitsune.foxlib.command.parser.GreedyStringParser;
 import com.kitsune.foxlib.command.parser.IntegerParser;
+import com.kitsune.foxlib.command.parser.LongParser;
 import com.kitsune.foxlib.command.parser.MaterialParser;
+import com.kitsune.foxlib.command.parser.OfflinePlayerParser;
+import com.kitsune.foxlib.command.parser.PlayerParser;
 import com.kitsune.foxlib.command.parser.ShortParser;
 import com.kitsune.foxlib.command.parser.StringParser;
 import com.kitsune.foxlib.util.Log;
-import net.md_5.bungee.api.ChatColor;
 import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
 import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.PluginCommand;
 import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FoxCommandAPI {
 
@@ -32,9 +45,9 @@ public class FoxCommandAPI {
     private static FoxCommandAPI instance;
 
     /**
-     * The command map
+     * Injects the commands into the command map, {@code null} if commands aren't injected
      */
-    private final SimpleCommandMap commandMap;
+    private final CommandInjector commandInjector;
 
     /**
      * The registered commands
@@ -46,11 +59,47 @@ public class FoxCommandAPI {
      */
     private final FoxCommandTree commandTree;
 
+    /**
+     * The registered commands, in the order they have been registered. This is an unmodifiable snapshot
+     * that's replaced whenever commands are registered or unregistered
+     */
+    private volatile List<RegisteredCommand> registeredCommands;
+
+    /**
+     * The indices that have been given to registered commands, the lowest free index is given to the next command
+     */
+    private final BitSet usedIndices;
+
+    /**
+     * The registered commands, by the name of the plugin that registered them
+     */
+    private final Map<String, List<RegisteredCommand>> commandsByPlugin;
+
     /**
      * The command executor
      */
     private final FoxCommandExecutor commandExecutor;
 
+    /**
+     * The permissions of the players
+     */
+    private final PermissionCache permissionCache;
+
+    /**
+     * The scheduler that runs asynchronous commands
+     */
+    private final CommandScheduler commandScheduler;
+
+    /**
+     * The cooldowns and rate limits of the players
+     */
+    private final CommandThrottle commandThrottle;
+
+    /**
+     * The players by name and unique id, used by the player parsers
+     */
+    private final PlayerIndex playerIndex;
+
     /**
      * Whether to inject the commands into the command map, this is used to run unit tests
      */
@@ -60,10 +109,17 @@ public class FoxCommandAPI {
      * Private constructor because singletons don't need a public one
      */
     private FoxCommandAPI(SimpleCommandMap commandMap, boolean injectCommands) {
-        this.argumentParsers = new HashMap<>();
+        this.argumentParsers = new ConcurrentHashMap<>();
         this.commandTree = new FoxCommandTree();
+        this.registeredCommands = Collections.emptyList();
+        this.usedIndices = new BitSet();
+        this.commandsByPlugin = new ConcurrentHashMap<>();
         this.commandExecutor = new FoxCommandExecutor(this);
-        this.commandMap = commandMap;
+        this.permissionCache = new PermissionCache();
+        this.commandScheduler = new CommandScheduler();
+        this.commandThrottle = new CommandThrottle();
+        this.playerIndex = new PlayerIndex();
+        this.commandInjector = commandMap != null ? new CommandInjector(commandMap, commandExecutor) : null;
         this.injectCommands = injectCommands;
     }
 
@@ -79,7 +135,7 @@ public class FoxCommandAPI {
 
         // Return if inject commands is false and the instance already exists
         if(instance != null) {
-            Log.info("FoxCommandAPI", "Instance isn't null!");
+            Log.debug("FoxCommandAPI", "Instance isn't null!");
             return;
         }
 
@@ -87,12 +143,11 @@ public class FoxCommandAPI {
 
 
             if(injectCommands){
-                // Get commandmap field and make sure it's accessible
-                Field commandMapField = Bukkit.getPluginManager().getClass().getDeclaredField("commandMap");
-                commandMapField.setAccessible(true);
-
                 // Initialise instance
-                instance = new FoxCommandAPI((SimpleCommandMap) commandMapField.get(Bukkit.getPluginManager()), true);
+                instance = new FoxCommandAPI(CommandInjector.getServerCommandMap(), true);
+
+                // Keep the per player state up to date
+                Bukkit.getPluginManager().registerEvents(new FoxCommandListener(instance), FoxLib.getInstance());
             }
             else {
 
@@ -103,7 +158,14 @@ public class FoxCommandAPI {
 
             // Register base argument parsers
             instance.registerArgumentParser(String.class, new StringParser());
+            instance.registerArgumentParser(GreedyString.class, new GreedyStringParser());
             instance.registerArgumentParser(Material.class, new MaterialParser());
+            instance.registerEnumParser(GameMode.class);
+
+            // Players are looked up in the index, which has to know the players that are already online
+            instance.playerIndex.load();
+            instance.registerArgumentParser(Player.class, new PlayerParser(instance.playerIndex));
+            instance.registerArgumentParser(OfflinePlayer.class, new OfflinePlayerParser(instance.playerIndex));
 
             DoubleParser doubleParser = new DoubleParser();
             instance.registerArgumentParser(double.class, doubleParser);
@@ -117,7 +179,11 @@ public class FoxCommandAPI {
             instance.registerArgumentParser(short.class, shortParser);
             instance.registerArgumentParser(Short.class, shortParser);
 
-        } catch (IllegalAccessException | NoSuchFieldException e) {
+            LongParser longParser = new LongParser();
+            instance.registerArgumentParser(long.class, longParser);
+            instance.registerArgumentParser(Long.class, longParser);
+
+        } catch (ReflectiveOperationException e) {
             Log.error("Fox Command API", "Failed to get CommandMap!");
             e.printStackTrace();
         }
@@ -131,6 +197,106 @@ public class FoxCommandAPI {
      */
     public boolean registerCommandsFromClass(JavaPlugin plugin, Object instance) {
 
+        // Nothing is registered unless all the commands of the class are valid
+        List<RegisteredCommand> commandsToRegister = createCommands(instance);
+        if (commandsToRegister == null) return false;
+
+        synchronized (this) {
+            assignIndices(commandsToRegister);
+            commandTree.replaceFoxCommands(Collections.emptyList(), commandsToRegister);
+            registerCommands(plugin, commandsToRegister);
+        }
+
+        return true;
+    }
+
+    /**
+     * Replace all the commands registered by the plugin with the commands in the classes, dispatches either
+     * see all the old commands or all the new ones. This is meant to be used when a plugin reloads.
+     *
+     * @param plugin - the plugin that's registering the commands
+     * @param instances - the classes to register the commands from
+     *
+     * @return - {@code true} if the commands have been replaced or else {@code false}, in which case the old commands are kept
+     */
+    public boolean replaceCommandsFromClass(JavaPlugin plugin, Object... instances) {
+
+        List<RegisteredCommand> commandsToRegister = new ArrayList<>();
+
+        for (Object instance : instances) {
+            List<RegisteredCommand> commands = createCommands(instance);
+            if (commands == null) return false;
+
+            commandsToRegister.addAll(commands);
+        }
+
+        synchronized (this) {
+
+            List<RegisteredCommand> commandsToRemove = getRegisteredCommands(plugin);
+
+            assignIndices(commandsToRegister);
+            commandTree.replaceFoxCommands(commandsToRemove, commandsToRegister);
+            unregisterCommands(plugin, commandsToRemove);
+            registerCommands(plugin, commandsToRegister);
+            flushInjector();
+        }
+
+        return true;
+    }
+
+    /**
+     * Unregister all the commands registered by the plugin and remove their labels from the command map.
+     *
+     * @param plugin - the plugin
+     *
+     * @return - the amount of commands that have been unregistered
+     */
+    public synchronized int unregisterCommands(Plugin plugin) {
+
+        List<RegisteredCommand> commandsToRemove = getRegisteredCommands(plugin);
+        if (commandsToRemove.isEmpty()) return 0;
+
+        commandTree.removeFoxCommands(commandsToRemove);
+        unregisterCommands(plugin, commandsToRemove);
+        flushInjector();
+
+        Log.info("Fox Command API", "Unregistered {} commands of {}", commandsToRemove.size(), getPluginName(plugin));
+        return commandsToRemove.size();
+    }
+
+    /**
+     * Create the commands of a class, without registering them.
+     *
+     * @param instance - the class to create the commands from
+     *
+     * @return - the commands or {@code null} if one of them isn't valid
+     */
+    @Nullable
+    private List<RegisteredCommand> createCommands(Object instance) {
+
+        List<RegisteredCommand> commands = new ArrayList<>();
+
+        // Use the registration table generated at compile time if there is one
+        FoxCommandRegistrar<Object> registrar = getGeneratedRegistrar(instance.getClass());
+
+        if (registrar != null) {
+
+            for (RegisteredCommand commandToRegister : registrar.createCommands(instance)) {
+
+                // Custom parser types are only known at runtime
+                for (int i = 1; i < commandToRegister.getParameterTypes().length; i++) {
+                    if (!hasArgumentParser(commandToRegister.getParameterTypes()[i])) {
+                        Log.warn("Fox Command API", "Argument Parser for type \"" + commandToRegister.getParameterTypes()[i] + "\" required by " + commandToRegister + " hasn't been registered!");
+                        return null;
+                    }
+                }
+
+                commands.add(commandToRegister);
+            }
+
+            return commands;
+        }
+
         for (Method method : instance.getClass().getDeclaredMethods()) {
 
             // Get the fox command annotation
@@ -142,7 +308,7 @@ public class FoxCommandAPI {
             // Make sure method has a command executor as first param
             if (method.getParameters().length < 1 || !CommandSender.class.isAssignableFrom(method.getParameters()[0].getType())) {
                 Log.error("Fox Command API", instance.getClass().getName() + "#" + method.getName() + " doesn't have a valid first param. (Make sure it implements CommandSender!)");
-                return false;
+                return null;
             }
 
             for (Parameter parameter : method.getParameters()) {
@@ -152,26 +318,154 @@ public class FoxCommandAPI {
 
                 if(!hasArgumentParser(parameter.getType())){
                     Log.warn("Fox Command API", "Argument Parser for type \"" + parameter.getType() + "\" required by " + instance.getClass().getName() + "#" + method.getName() + " hasn't been registered!");
-                    return false;
+                    return null;
                 }
 
             }
-            
-            RegisteredCommand commandToRegister = new RegisteredCommand(foxCommand, method, instance);
 
-            // Add to command tree
-            commandTree.addFoxCommand(commandToRegister);
+            // A greedy argument takes the rest of the line, so nothing can follow it
+            int greedyIndex = Arrays.asList(method.getParameterTypes()).indexOf(GreedyString.class);
+
+            if (greedyIndex >= 0 && greedyIndex != method.getParameterCount() - 1) {
+                Log.error("Fox Command API", instance.getClass().getName() + "#" + method.getName() + " has a GreedyString parameter that isn't the last parameter!");
+                return null;
+            }
+
+            try {
+                commands.add(new RegisteredCommand(foxCommand, method, instance));
+            } catch (IllegalAccessException e) {
+                Log.error("Fox Command API", "Failed to create an invoker for " + instance.getClass().getName() + "#" + method.getName() + "!");
+                e.printStackTrace();
+                return null;
+            }
+        }
+
+        return commands;
+    }
+
+    /**
+     * Keep track of the commands that have been added to the command tree and inject them into the command map.
+     *
+     * @param plugin - the plugin that's registering the commands
+     * @param commandsToRegister - the commands
+     */
+    private void registerCommands(JavaPlugin plugin, List<RegisteredCommand> commandsToRegister) {
+
+        List<RegisteredCommand> commands = new ArrayList<>(registeredCommands.size() + commandsToRegister.size());
+        commands.addAll(registeredCommands);
+        commands.addAll(commandsToRegister);
+        registeredCommands = Collections.unmodifiableList(commands);
+
+        commandsByPlugin.computeIfAbsent(getPluginName(plugin), key -> new CopyOnWriteArrayList<>()).addAll(commandsToRegister);
+
+        for (RegisteredCommand commandToRegister : commandsToRegister) {
 
             // Inject command into command map
             if(injectCommands) {
-                injectCommand(plugin, foxCommand);
+                commandInjector.queue(plugin, commandToRegister);
             }
 
             // Log update
-            Log.info("Fox Command API", "Registered \"/" + foxCommand.path() + "\" to " + commandToRegister.toString());
+            Log.info("Fox Command API", "Registered \"/{}\" to {}", commandToRegister.getPath(), commandToRegister);
         }
+    }
 
-        return true;
+    /**
+     * Forget the commands that have been removed from the command tree and remove their labels from the command map.
+     *
+     * @param plugin - the plugin that registered the commands
+     * @param commandsToRemove - the commands
+     */
+    private void unregisterCommands(Plugin plugin, List<RegisteredCommand> commandsToRemove) {
+
+        Set<RegisteredCommand> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(commandsToRemove);
+
+        List<RegisteredCommand> commands = new ArrayList<>(registeredCommands.size());
+
+        for (RegisteredCommand registeredCommand : registeredCommands) {
+            if (!removed.contains(registeredCommand)) commands.add(registeredCommand);
+        }
+
+        registeredCommands = Collections.unmodifiableList(commands);
+        commandsByPlugin.remove(getPluginName(plugin));
+
+        // The indices are free once the commands have been removed from the tree
+        for (RegisteredCommand commandToRemove : commandsToRemove) {
+            usedIndices.clear(commandToRemove.getIndex());
+            commandToRemove.setIndex(-1);
+        }
+
+        if (injectCommands && plugin != null) {
+            commandInjector.uninject(plugin.getName());
+        }
+    }
+
+    /**
+     * Give the commands the lowest free indices, before they're added to the command tree.
+     * The cached permissions and the cooldowns of a reused index belong to the command that had it before, so they're forgotten.
+     *
+     * @param commandsToRegister - the commands
+     */
+    private void assignIndices(List<RegisteredCommand> commandsToRegister) {
+
+        for (RegisteredCommand commandToRegister : commandsToRegister) {
+
+            int index = usedIndices.nextClearBit(0);
+            usedIndices.set(index);
+
+            permissionCache.forget(index);
+            commandThrottle.forget(index);
+            commandToRegister.setIndex(index);
+        }
+    }
+
+    /**
+     * Apply the changes to the command map right away, so the old labels are never missing for a tick.
+     */
+    private void flushInjector() {
+        if (injectCommands) commandInjector.flush();
+    }
+
+    /**
+     * Get the key of the plugin in the commands by plugin map.
+     *
+     * @param plugin - the plugin, may be {@code null} when running unit tests
+     *
+     * @return - the name of the plugin or an empty string
+     */
+    private static String getPluginName(@Nullable Plugin plugin) {
+        return plugin != null ? plugin.getName() : "";
+    }
+
+    /**
+     * Get the registration table that has been generated at compile time for the class.
+     *
+     * @param type - the class
+     *
+     * @return - the registration table or {@code null} if none has been generated
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private FoxCommandRegistrar<Object> getGeneratedRegistrar(@NotNull Class<?> type) {
+
+        // Nested classes are joined with an underscore, see FoxCommandRegistrar
+        String name = type.getName();
+        String packagePrefix = name.substring(0, name.lastIndexOf('.') + 1);
+        String registrarName = packagePrefix + name.substring(packagePrefix.length()).replace('$', '_') + FoxCommandRegistrar.SUFFIX;
+
+        try {
+            Class<?> registrarClass = Class.forName(registrarName, true, type.getClassLoader());
+
+            if (!FoxCommandRegistrar.class.isAssignableFrom(registrarClass)) return null;
+
+            return (FoxCommandRegistrar<Object>) registrarClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            Log.warn("Fox Command API", "Failed to load the generated commands of " + name + ", falling back to reflection!");
+            return null;
+        }
     }
 
     /**
@@ -184,15 +478,28 @@ public class FoxCommandAPI {
      */
     public boolean registerArgumentParser (Class<?> type, ArgumentParser<?> argumentParser){
 
-        // Make sure argument parser hasn't been registered yet
-        if(argumentParsers.containsKey(type)){
-            Log.warn("Fox Command API", "Argument Parser for type \"" + type.getName() + "\" is already registered to " + argumentParsers.get(type).getClass().getName());
+        // Register the type, unless an argument parser has been registered already
+        ArgumentParser<?> existing = argumentParsers.putIfAbsent(type, argumentParser);
+
+        if(existing != null){
+            Log.warn("Fox Command API", "Argument Parser for type \"" + type.getName() + "\" is already registered to " + existing.getClass().getName());
             return false;
         }
 
-        // Register the type
-        Log.info("Fox Command API", "Registered Argument Parser for type " + type.getName() + " to " + argumentParser.getClass().getName());
-        return argumentParsers.put(type, argumentParser) == null;
+        Log.info("Fox Command API", "Registered Argument Parser for type {} to {}", type.getName(), argumentParser.getClass().getName());
+        return true;
+    }
+
+    /**
+     * Register an {@link EnumParser} for the specified enum, which parses its constants ignoring case.
+     *
+     * @param type - the enum class
+     * @param <E> - the type of the enum
+     *
+     * @return - {@code true} if the argument parser has been registered successfully or else {@code false}
+     */
+    public <E extends Enum<E>> boolean registerEnumParser (Class<E> type){
+        return registerArgumentParser(type, new EnumParser<>(type));
     }
 
     /**
@@ -220,56 +527,85 @@ public class FoxCommandAPI {
     }
 
     /**
-     * Inject the {@link FoxCommand} into the command map.
-     *
-     * @param plugin - the {@link JavaPlugin} that's registering the command
-     * @param foxCommand - the fox command that's being injected
+     * Inject the commands that have been registered since the last flush into the command map right away,
+     * instead of on the next tick.
      */
-    private void injectCommand(@NotNull JavaPlugin plugin, @NotNull FoxCommand foxCommand) {
-
-        // Create the command label using the fox command
-        String commandLabel = foxCommand.path().split(" ")[0];
-
-        PluginCommand pluginCommand = plugin.getCommand(commandLabel);
-
-        // Make sure command isn't registered already
-        if (pluginCommand != null) {
-            return;
-        }
+    public void flushCommands () {
+        if (commandInjector != null) commandInjector.flush();
+    }
 
-        // Add the command to the command map
-        try {
+    /**
+     * Get the {@link FoxCommandTree}
+     *
+     * @return - the fox command tree
+     */
+    public FoxCommandTree getCommandTree () {
+        return commandTree;
+    }
 
-            // Get the plugin command constructor and make sure it's accessible
-            Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
-            constructor.setAccessible(true);
+    /**
+     * Get the registered commands
+     *
+     * @return - an unmodifiable snapshot of the registered commands
+     */
+    public List<RegisteredCommand> getRegisteredCommands () {
+        return registeredCommands;
+    }
 
-            // Create new plugin command instance
-            PluginCommand command = constructor.newInstance(commandLabel, plugin);
+    /**
+     * Get the commands registered by the plugin
+     *
+     * @param plugin - the plugin
+     *
+     * @return - a copy of the commands registered by the plugin
+     */
+    public List<RegisteredCommand> getRegisteredCommands (Plugin plugin) {
+        return new ArrayList<>(commandsByPlugin.getOrDefault(getPluginName(plugin), Collections.emptyList()));
+    }
 
-            // Set the command's properties
-            command.setDescription(ChatColor.translateAlternateColorCodes('&', foxCommand.description()));
-            command.setUsage(ChatColor.translateAlternateColorCodes('&', foxCommand.usage()));
-            command.setExecutor(commandExecutor);
+    /**
+     * Get the {@link PermissionCache}
+     *
+     * @return - the permission cache
+     */
+    public PermissionCache getPermissionCache () {
+        return permissionCache;
+    }
 
-            // Register the command to the command map
-            commandMap.register(plugin.getName(), command);
+    /**
+     * Get the {@link FoxCommandExecutor}
+     *
+     * @return - the command executor
+     */
+    public FoxCommandExecutor getCommandExecutor () {
+        return commandExecutor;
+    }
 
-        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+    /**
+     * Get the {@link CommandScheduler}
+     *
+     * @return - the command scheduler
+     */
+    public CommandScheduler getCommandScheduler () {
+        return commandScheduler;
+    }
 
-            // Log error
-            Log.error("Fox Command API", "Failed to inject command " + foxCommand.path() + " into command map!");
-            e.printStackTrace();
-        }
+    /**
+     * Get the {@link CommandThrottle}
+     *
+     * @return - the command throttle
+     */
+    public CommandThrottle getCommandThrottle () {
+        return commandThrottle;
     }
 
     /**
-     * Get the {@link FoxCommandTree}
+     * Get the {@link PlayerIndex}
      *
-     * @return - the fox command tree
+     * @return - the player index
      */
-    public FoxCommandTree getCommandTree () {
-        return commandTree;
+    public PlayerIndex getPlayerIndex () {
+        return playerIndex;
     }
 
     public static FoxCommandAPI getInstance() {
@@ -1,15 +1,23 @@
 package com.kitsune.foxlib.command;
 
+import net.md_5.bungee.api.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class FoxCommandExecutor implements CommandExecutor {
+import java.util.List;
+
+public class FoxCommandExecutor implements CommandExecutor, TabCompleter {
 
     /** Reference to the fox command api */
     private final FoxCommandAPI foxCommandAPI;
 
+    /** Records the dispatched commands, {@code null} if they aren't recorded */
+    private volatile CommandTraceRecorder traceRecorder;
+
     /**
      * Construct a new {@link FoxCommandAPI}.
      *
@@ -19,12 +27,81 @@ public class FoxCommandExecutor implements CommandExecutor {
         this.foxCommandAPI = foxCommandAPI;
     }
 
+    /**
+     * Execute the command through the command tree. Bukkit only passes the arguments after splitting the line on spaces,
+     * the raw line isn't available here, so they're tokenized by {@link CommandInput#tokenize(String[])}.
+     */
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
 
         FoxCommandTree commandTree = foxCommandAPI.getCommandTree();
+        CommandTraceRecorder recorder = traceRecorder;
 
         // Execute the command
-        return commandTree.execute(sender, command.getName(), args) != FoxCommandResult.INVALID_COMMAND;
+        long start = recorder != null ? System.nanoTime() : 0;
+        FoxCommandResult result = commandTree.execute(sender, command.getName(), args);
+
+        if (recorder != null) {
+            recorder.record(sender, command.getName(), args, result, System.nanoTime() - start);
+        }
+
+        if (result != FoxCommandResult.INVALID_COMMAND) return true;
+
+        // Suggest the commands the sender may have meant, Bukkit sends the usage of the command after this
+        List<String> corrections = commandTree.getCorrections(sender, command.getName(), args);
+
+        if (!corrections.isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "Unknown command, did you mean " + ChatColor.YELLOW
+                    + String.join(ChatColor.RED + ", " + ChatColor.YELLOW, corrections) + ChatColor.RED + "?");
+        }
+
+        return false;
+    }
+
+    /**
+     * Start recording the dispatched commands, replacing the current recorder.
+     *
+     * @param recorder - the recorder
+     */
+    public synchronized void startRecording(@NotNull CommandTraceRecorder recorder) {
+
+        CommandTraceRecorder previous = traceRecorder;
+        traceRecorder = recorder;
+
+        if (previous != null) previous.close();
+    }
+
+    /**
+     * Stop recording the dispatched commands and close the recorder.
+     *
+     * @return - the recorder that has been stopped or {@code null} if commands weren't recorded
+     */
+    @Nullable
+    public synchronized CommandTraceRecorder stopRecording() {
+
+        CommandTraceRecorder recorder = traceRecorder;
+        traceRecorder = null;
+
+        if (recorder != null) recorder.close();
+        return recorder;
+    }
+
+    /**
+     * Get the recorder of the dispatched commands.
+     *
+     * @return - the recorder or {@code null} if commands aren't recorded
+     */
+    @Nullable
+    public CommandTraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+
+        FoxCommandTree commandTree = foxCommandAPI.getCommandTree();
+
+        // Complete the command, returning an empty list instead of null so Bukkit doesn't suggest player names
+        return commandTree.complete(sender, command.getName(), args);
     }
 }
@@ -0,0 +1,68 @@
+package com.kitsune.foxlib.command;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+
+/**
+ * Keeps the per player state of the {@link FoxCommandAPI} up to date and unregisters the commands of disabled plugins.
+ */
+public class FoxCommandListener implements Listener {
+
+    /** Reference to the fox command api */
+    private final FoxCommandAPI foxCommandAPI;
+
+    /**
+     * Construct a new {@link FoxCommandListener}.
+     *
+     * @param foxCommandAPI - the {@link FoxCommandAPI} instance
+     */
+    public FoxCommandListener(FoxCommandAPI foxCommandAPI) {
+        this.foxCommandAPI = foxCommandAPI;
+    }
+
+    /**
+     * Index the player before other plugins handle the join, so their commands can find the player.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        foxCommandAPI.getPlayerIndex().add(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        foxCommandAPI.getPermissionCache().invalidate(event.getPlayer());
+        foxCommandAPI.getCommandThrottle().invalidate(event.getPlayer());
+        foxCommandAPI.getPlayerIndex().remove(event.getPlayer());
+    }
+
+    /**
+     * The server sends the command list to a player whenever the commands the player can use might have changed,
+     * this happens on join, when the player is opped or deopped and when permission plugins update the player.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerCommandSend(PlayerCommandSendEvent event) {
+        foxCommandAPI.getPermissionCache().invalidate(event.getPlayer());
+    }
+
+    /**
+     * Permissions can be world specific, so forget them when the player changes worlds.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        foxCommandAPI.getPermissionCache().invalidate(event.getPlayer());
+    }
+
+    /**
+     * Unregister the commands of plugins that are disabled, so they don't keep the plugin's classes loaded.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        foxCommandAPI.unregisterCommands(event.getPlugin());
+    }
+}
@@ -1,68 +1,187 @@
 package com.kitsune.foxlib.command;
 
+import com.kitsune.foxlib.util.BKTree;
+import com.kitsune.foxlib.util.CaseInsensitiveIndex;
 import com.kitsune.foxlib.util.Log;
+import com.kitsune.foxlib.util.PrefixIndex;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.swing.text.html.Option;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
+/**
+ * A node of the {@link FoxCommandTree}, either a literal argument or an argument of a type that's parsed.
+ *
+ * Nodes are immutable, adding a child or a command creates a copy of the node, and a {@link Builder} makes several
+ * changes to a subtree at once. The tree copies every node on the path to a change and publishes the new root, so a dispatch always sees a consistent tree
+ * without any locking. Nodes don't know their parent, as a node can be shared by several versions of the tree.
+ */
 public class FoxCommandNode<T> {
 
     @Nullable
-    private String requiredArg;
+    private final String requiredArg;
     @Nullable
-    private Class<T> requiredClass;
+    private final Class<T> requiredClass;
 
-    private FoxCommandNode<?> parent;
-    private List<FoxCommandNode<?>> children;
+    /** The parser of the required class, {@code null} for literal nodes */
+    @Nullable
+    private final ArgumentParser<?> argumentParser;
+
+    /** The path to the node, used for debugging */
+    private final String path;
+
+    private final List<FoxCommandNode<?>> children;
+
+    /** The literal child nodes, indexed by their case-folded required arg */
+    private final CaseInsensitiveIndex<FoxCommandNode<?>> literalChildren;
+
+    /** The typed child nodes, from the highest to the lowest priority of their parser */
+    private final List<FoxCommandNode<?>> typedChildren;
+
+    /** The required args of the literal child nodes, used to suggest the closest ones to a mistyped argument */
+    private final BKTree literalNames;
+
+    /** The literal child nodes sorted by their required arg, built when it's first needed */
+    @Nullable
+    private volatile PrefixIndex<FoxCommandNode<?>> literalPrefixIndex;
 
     /** The registered command */
     @Nullable
-    private RegisteredCommand registeredCommand;
+    private final RegisteredCommand registeredCommand;
+
+    /** A command of the subtree for every distinct permission in it, built when it's first needed */
+    @Nullable
+    private volatile RegisteredCommand[] permissionSummary;
 
     /**
-     * Construct a new {@link FoxCommandNode}.
+     * Construct a new {@link FoxCommandNode} without any child nodes.
      *
-     * @param parent - the parent of this node
+     * @param path - the path to the node
+     * @param requiredArg - the literal argument, {@code null} for typed nodes
+     * @param requiredClass - the type of the argument, {@code null} for literal nodes
+     * @param argumentParser - the parser of the type, {@code null} for literal nodes
      */
-    public FoxCommandNode(FoxCommandNode<?> parent, @Nullable RegisteredCommand registeredCommand, @Nullable String requiredArg, @Nullable Class<T> requiredClass) {
-        this.parent = parent;
-        this.children = new ArrayList<>();
+    private FoxCommandNode(String path, @Nullable String requiredArg, @Nullable Class<T> requiredClass, @Nullable ArgumentParser<?> argumentParser) {
+        this(path, requiredArg, requiredClass, argumentParser, null, Collections.emptyList(), new CaseInsensitiveIndex<>(), BKTree.EMPTY, Collections.emptyList());
+    }
 
-        this.registeredCommand = registeredCommand;
+    /**
+     * Construct a new {@link FoxCommandNode}, the lists and the index are never modified after this.
+     */
+    private FoxCommandNode(String path, @Nullable String requiredArg, @Nullable Class<T> requiredClass, @Nullable ArgumentParser<?> argumentParser,
+                           @Nullable RegisteredCommand registeredCommand, List<FoxCommandNode<?>> children,
+                           CaseInsensitiveIndex<FoxCommandNode<?>> literalChildren, BKTree literalNames, List<FoxCommandNode<?>> typedChildren) {
+        this.path = path;
         this.requiredArg = requiredArg;
         this.requiredClass = requiredClass;
+        this.argumentParser = argumentParser;
+        this.registeredCommand = registeredCommand;
+        this.children = children;
+        this.literalChildren = literalChildren;
+        this.literalNames = literalNames;
+        this.typedChildren = typedChildren;
+    }
+
+    /**
+     * Construct a new detached {@link FoxCommandNode}.
+     *
+     * @param parent - the parent of this node, only used for the path of the node
+     *
+     * @deprecated nodes are immutable and don't know their parent, use {@link #literal(FoxCommandNode, String)} or
+     * {@link #typed(FoxCommandNode, Class, ArgumentParser)} and {@link #withRegisteredCommand(RegisteredCommand)}
+     */
+    @Deprecated
+    public FoxCommandNode(@Nullable FoxCommandNode<?> parent, @Nullable RegisteredCommand registeredCommand, @Nullable String requiredArg, @Nullable Class<T> requiredClass) {
+        this((parent != null ? parent.getPath() : "Root") + (requiredArg != null ? "." + requiredArg : requiredClass != null ? ".<" + requiredClass.getSimpleName() + ">" : ""),
+                requiredArg, requiredClass, requiredClass != null ? FoxCommandAPI.getInstance().getArgumentParser(requiredClass) : null,
+                registeredCommand, Collections.emptyList(), new CaseInsensitiveIndex<>(), BKTree.EMPTY, Collections.emptyList());
     }
 
     /**
-     * Construct a new {@link FoxCommandNode} of the specified type
-     * @param parent - the parent of this node
+     * Construct a new detached {@link FoxCommandNode} of the specified type.
+     *
+     * @deprecated use {@link #literal(FoxCommandNode, String)} or {@link #typed(FoxCommandNode, Class, ArgumentParser)}
      */
+    @Deprecated
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public static FoxCommandNode<?> newInstance (FoxCommandNode<?> parent, @Nullable RegisteredCommand registeredCommand, @Nullable String requiredArg, @Nullable Class<?> requiredClass){
-        return new FoxCommandNode<>(parent, registeredCommand, requiredArg, requiredClass);
+        return new FoxCommandNode(parent, registeredCommand, requiredArg, requiredClass);
     }
 
-    public Optional<FoxCommandNode<?>> getChild (String requiredArg) {
+    /**
+     * Create an empty root node.
+     *
+     * @return - the root node
+     */
+    public static FoxCommandNode<?> root () {
+        return new FoxCommandNode<>("Root", null, null, null);
+    }
 
-        // Loop through all child nodes
-        for (FoxCommandNode<?> child : children) {
+    /**
+     * Create an empty node that matches a literal argument, ignoring case.
+     *
+     * @param parent - the parent of the node
+     * @param requiredArg - the literal argument
+     *
+     * @return - the node
+     */
+    public static FoxCommandNode<?> literal (@NotNull FoxCommandNode<?> parent, @NotNull String requiredArg) {
+        return new FoxCommandNode<>(parent.getPath() + "." + requiredArg, requiredArg, null, null);
+    }
 
-            // Check whether the child node is a required arg and if it equals the specified argument
-            if(child.getRequiredArg() != null && child.getRequiredArg().equals(requiredArg)){
-                return Optional.of(child);
-            }
+    /**
+     * Create an empty node that matches an argument that can be parsed into the specified type.
+     *
+     * @param parent - the parent of the node
+     * @param requiredClass - the type
+     * @param argumentParser - the parser of the type
+     *
+     * @return - the node
+     */
+    public static <T> FoxCommandNode<T> typed (@NotNull FoxCommandNode<?> parent, @NotNull Class<T> requiredClass, @NotNull ArgumentParser<?> argumentParser) {
+        return new FoxCommandNode<>(parent.getPath() + ".<" + requiredClass.getSimpleName() + ">", null, requiredClass, argumentParser);
+    }
 
-        }
+    public Optional<FoxCommandNode<?>> getChild (String requiredArg) {
+        return Optional.ofNullable(getLiteralChild(requiredArg));
+    }
 
-        return Optional.empty();
+    /**
+     * Get the literal child node that matches the specified argument, ignoring case.
+     *
+     * @param argument - the argument
+     *
+     * @return - the child node or {@code null} if no literal child matches
+     */
+    @Nullable
+    public FoxCommandNode<?> getLiteralChild (@NotNull CharSequence argument) {
+        return literalChildren.get(argument);
+    }
+
+    /**
+     * Get the literal child node that matches the region {@code [start, end)} of the sequence, ignoring case.
+     *
+     * @param sequence - the sequence that contains the argument
+     * @param start - the start of the argument (inclusive)
+     * @param end - the end of the argument (exclusive)
+     *
+     * @return - the child node or {@code null} if no literal child matches
+     */
+    @Nullable
+    public FoxCommandNode<?> getLiteralChild (@NotNull CharSequence sequence, int start, int end) {
+        return literalChildren.get(sequence, start, end);
     }
 
     public Optional<FoxCommandNode<?>> getChild (Class<?> requiredClass) {
 
-        // Loop through all the child nodes
-        for(FoxCommandNode<?> child : children){
+        // Loop through all the typed child nodes
+        for(FoxCommandNode<?> child : typedChildren){
 
             // Check whether the child node is the required class
             if(child.getRequiredClass() != null && child.getRequiredClass().equals(requiredClass)){
@@ -73,17 +192,171 @@ public class FoxCommandNode<T> {
         return Optional.empty();
     }
 
-    public FoxCommandNode<?> addChild (FoxCommandNode<?> node) {
+    /**
+     * Create a copy of this node with the child added, replacing the child that matches the same argument.
+     *
+     * @param child - the child node
+     *
+     * @return - the copy
+     */
+    public FoxCommandNode<T> withChild (@NotNull FoxCommandNode<?> child) {
+
+        FoxCommandNode<?> existing = child.getRequiredArg() != null ? getLiteralChild(child.getRequiredArg()) : getChild(child.getRequiredClass()).orElse(null);
+
+        List<FoxCommandNode<?>> newChildren = replace(children, existing, child);
+
+        // Only the index or the list the child belongs to has to be copied, the other one can be shared
+        if (child.getRequiredArg() != null) {
+            CaseInsensitiveIndex<FoxCommandNode<?>> newLiteralChildren = new CaseInsensitiveIndex<>(literalChildren);
+            newLiteralChildren.put(existing != null ? existing.getRequiredArg() : child.getRequiredArg(), child);
+
+            // Replacing a child doesn't change the names, a new name only copies its path in the tree of names
+            BKTree newLiteralNames = existing != null ? literalNames : literalNames.with(child.getRequiredArg());
+
+            return new FoxCommandNode<>(path, requiredArg, requiredClass, argumentParser, registeredCommand, newChildren, newLiteralChildren, newLiteralNames, typedChildren);
+        }
+
+        List<FoxCommandNode<?>> newTypedChildren = existing != null ? replace(typedChildren, existing, child) : insert(typedChildren, child);
+
+        return new FoxCommandNode<>(path, requiredArg, requiredClass, argumentParser, registeredCommand, newChildren, literalChildren, literalNames, newTypedChildren);
+    }
+
+    /**
+     * Create a copy of this node without the child.
+     *
+     * @param child - the child node
+     *
+     * @return - the copy, or this node if the child isn't a child of this node
+     */
+    public FoxCommandNode<T> withoutChild (@NotNull FoxCommandNode<?> child) {
+
+        FoxCommandNode<?> existing = child.getRequiredArg() != null ? getLiteralChild(child.getRequiredArg()) : getChild(child.getRequiredClass()).orElse(null);
+        if (existing != child) return this;
+
+        List<FoxCommandNode<?>> newChildren = remove(children, child);
+
+        if (child.getRequiredArg() != null) {
+            CaseInsensitiveIndex<FoxCommandNode<?>> newLiteralChildren = new CaseInsensitiveIndex<>(literalChildren);
+            newLiteralChildren.remove(child.getRequiredArg());
+
+            // Names can't be removed from the tree of names, it's built again from the remaining ones
+            List<String> newLiteralNames = new ArrayList<>(newLiteralChildren.size());
+            for (FoxCommandNode<?> literalChild : newLiteralChildren.values()) newLiteralNames.add(literalChild.getRequiredArg());
+
+            return new FoxCommandNode<>(path, requiredArg, requiredClass, argumentParser, registeredCommand, newChildren, newLiteralChildren, BKTree.of(newLiteralNames), typedChildren);
+        }
+
+        return new FoxCommandNode<>(path, requiredArg, requiredClass, argumentParser, registeredCommand, newChildren, literalChildren, literalNames, remove(typedChildren, child));
+    }
+
+    /**
+     * Get whether the node doesn't run a command and doesn't have any child nodes, so it can be pruned.
+     *
+     * @return - {@code true} if the node is empty or else {@code false}
+     */
+    public boolean isEmpty () {
+        return registeredCommand == null && children.isEmpty();
+    }
+
+    /**
+     * Create a copy of this node that runs the specified command.
+     *
+     * @param registeredCommand - the command
+     *
+     * @return - the copy
+     */
+    public FoxCommandNode<T> withRegisteredCommand (@Nullable RegisteredCommand registeredCommand) {
+        return new FoxCommandNode<>(path, requiredArg, requiredClass, argumentParser, registeredCommand, children, literalChildren, literalNames, typedChildren);
+    }
+
+    /**
+     * Create a builder that makes several changes to a copy of this node and its subtree.
+     *
+     * @return - the builder
+     */
+    public Builder toBuilder () {
+        return new Builder(this);
+    }
+
+    /**
+     * Create an unmodifiable copy of the list with the node replaced, or added if it's {@code null}.
+     *
+     * @param nodes - the list
+     * @param existing - the node to replace or {@code null}
+     * @param replacement - the node to put in its place
+     *
+     * @return - the copy
+     */
+    private static List<FoxCommandNode<?>> replace (List<FoxCommandNode<?>> nodes, @Nullable FoxCommandNode<?> existing, FoxCommandNode<?> replacement) {
+
+        List<FoxCommandNode<?>> copy = new ArrayList<>(nodes.size() + 1);
+
+        for (FoxCommandNode<?> node : nodes) {
+            copy.add(node == existing ? replacement : node);
+        }
+
+        if (existing == null) copy.add(replacement);
+
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Create an unmodifiable copy of the list of typed nodes with the node inserted in priority order.
+     * Nodes with the same priority are ordered by the name of their type, so the order never depends on
+     * the order the commands were registered in.
+     *
+     * @param nodes - the list
+     * @param inserted - the node to insert
+     *
+     * @return - the copy
+     */
+    private static List<FoxCommandNode<?>> insert (List<FoxCommandNode<?>> nodes, FoxCommandNode<?> inserted) {
+
+        List<FoxCommandNode<?>> copy = new ArrayList<>(nodes.size() + 1);
+        int index = 0;
 
-        // Make sure this node doesn't contain the child
-        if(children.contains(node)) {
-            throw new IllegalStateException("Node already contains child " + node);
+        while (index < nodes.size() && compareTyped(nodes.get(index), inserted) <= 0) {
+            index++;
         }
 
-        // Add the node
-        children.add(node);
+        copy.addAll(nodes.subList(0, index));
+        copy.add(inserted);
+        copy.addAll(nodes.subList(index, nodes.size()));
+
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Compare two typed nodes, the node that has to be tried first is the lowest.
+     */
+    private static int compareTyped (FoxCommandNode<?> first, FoxCommandNode<?> second) {
+        return compareTyped(first.getArgumentParser(), first.getRequiredClass(), second.getArgumentParser(), second.getRequiredClass());
+    }
+
+    private static int compareTyped (ArgumentParser<?> firstParser, Class<?> firstClass, ArgumentParser<?> secondParser, Class<?> secondClass) {
 
-        return node;
+        int priority = Integer.compare(secondParser.getPriority(), firstParser.getPriority());
+
+        return priority != 0 ? priority : firstClass.getName().compareTo(secondClass.getName());
+    }
+
+    /**
+     * Create an unmodifiable copy of the list without the node.
+     *
+     * @param nodes - the list
+     * @param removed - the node to remove
+     *
+     * @return - the copy
+     */
+    private static List<FoxCommandNode<?>> remove (List<FoxCommandNode<?>> nodes, FoxCommandNode<?> removed) {
+
+        List<FoxCommandNode<?>> copy = new ArrayList<>(nodes.size());
+
+        for (FoxCommandNode<?> node : nodes) {
+            if (node != removed) copy.add(node);
+        }
+
+        return Collections.unmodifiableList(copy);
     }
 
     public void print (String spacing) {
@@ -114,6 +387,11 @@ public class FoxCommandNode<T> {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return requiredArg != null ? requiredArg.hashCode() : Objects.hashCode(requiredClass);
+    }
+
     public String getRequiredArg() {
         return requiredArg;
     }
@@ -122,8 +400,14 @@ public class FoxCommandNode<T> {
         return requiredClass;
     }
 
-    public FoxCommandNode<?> getParent() {
-        return parent;
+    /**
+     * Get the parser of the required class, it's resolved when the node is created.
+     *
+     * @return - the parser or {@code null} if this is a literal node
+     */
+    @Nullable
+    public ArgumentParser<?> getArgumentParser() {
+        return argumentParser;
     }
 
     @Nullable
@@ -131,12 +415,93 @@ public class FoxCommandNode<T> {
         return registeredCommand;
     }
 
+    /**
+     * Get the child nodes.
+     *
+     * @return - an unmodifiable list of the child nodes
+     */
     public List<FoxCommandNode<?>> getChildren() {
         return children;
     }
 
-    public void setRegisteredCommand(RegisteredCommand registeredCommand) {
-        this.registeredCommand = registeredCommand;
+    /**
+     * Get the literal child nodes sorted by their required arg, used to find the child nodes that start with a prefix.
+     *
+     * @return - the literal prefix index
+     */
+    public PrefixIndex<FoxCommandNode<?>> getLiteralPrefixIndex() {
+
+        PrefixIndex<FoxCommandNode<?>> index = literalPrefixIndex;
+
+        // Building the index twice in a race is harmless, both are the same
+        if (index == null) {
+            index = new PrefixIndex<>(literalChildren.values(), FoxCommandNode::getRequiredArg);
+            literalPrefixIndex = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * Get a command of the subtree of this node for every distinct permission the commands in the subtree require,
+     * a sender can run a command in the subtree if it's allowed to run any of them. If a command in the subtree
+     * doesn't require a permission, that's the only command. The summary is built from the summaries of the
+     * child nodes, which are shared by the versions of the tree, so it's built once per node.
+     *
+     * @return - the commands, empty if the subtree doesn't contain any command
+     */
+    RegisteredCommand[] getPermissionSummary() {
+
+        RegisteredCommand[] summary = permissionSummary;
+
+        // Building the summary twice in a race is harmless, both are the same
+        if (summary == null) {
+            summary = buildPermissionSummary();
+            permissionSummary = summary;
+        }
+
+        return summary;
+    }
+
+    private RegisteredCommand[] buildPermissionSummary() {
+
+        Map<String, RegisteredCommand> commandsByPermission = new LinkedHashMap<>();
+
+        if (registeredCommand != null) {
+            if (registeredCommand.getPermission().isEmpty()) return new RegisteredCommand[]{registeredCommand};
+            commandsByPermission.put(registeredCommand.getPermission(), registeredCommand);
+        }
+
+        for (FoxCommandNode<?> child : children) {
+            for (RegisteredCommand command : child.getPermissionSummary()) {
+                if (command.getPermission().isEmpty()) return new RegisteredCommand[]{command};
+                commandsByPermission.putIfAbsent(command.getPermission(), command);
+            }
+        }
+
+        return commandsByPermission.values().toArray(new RegisteredCommand[0]);
+    }
+
+    /**
+     * Get the required args of the literal child nodes that are within an edit distance of the argument, ignoring case.
+     * The child nodes are found using {@link #getLiteralChild(CharSequence)}.
+     *
+     * @param argument - the argument
+     * @param maxDistance - the maximum edit distance
+     *
+     * @return - the required args and their distance, the closest first
+     */
+    public List<BKTree.Match> getSimilarLiteralNames(@NotNull String argument, int maxDistance) {
+        return literalNames.find(argument, maxDistance);
+    }
+
+    /**
+     * Get the typed child nodes, these are the nodes that have to be matched using an {@link ArgumentParser}.
+     *
+     * @return - an unmodifiable list of the typed child nodes
+     */
+    public List<FoxCommandNode<?>> getTypedChildren() {
+        return typedChildren;
     }
 
     /**
@@ -145,6 +510,285 @@ public class FoxCommandNode<T> {
      * @return - the path to the node
      */
     public String getPath() {
-        return parent == null ? "Root" : parent.getPath() + "." + (requiredClass == null ? requiredArg : "<" + requiredClass.getSimpleName() + ">");
+        return path;
+    }
+
+    /**
+     * A mutable copy of a node, used to make several changes to the tree and build the new version once.
+     *
+     * Builders of the child nodes are only created for the nodes that are changed, and building copies each changed
+     * node once, however many children are added to it, so adding a class of commands costs the same as a single copy
+     * of the nodes on their paths. The nodes of unchanged subtrees are shared with the node the builder was created from.
+     * Child nodes that are left without a command and without child nodes are pruned when the node is built.
+     */
+    public static final class Builder {
+
+        /** The node this builder was created from, {@code null} for a new node */
+        @Nullable
+        private final FoxCommandNode<?> source;
+
+        private final String path;
+        @Nullable
+        private final String requiredArg;
+        @Nullable
+        private final Class<?> requiredClass;
+        @Nullable
+        private final ArgumentParser<?> argumentParser;
+
+        @Nullable
+        private RegisteredCommand registeredCommand;
+
+        /** The builders of the child nodes in the order they were added, created when the first child is requested */
+        @Nullable
+        private List<Builder> children;
+
+        /** The builders of the literal child nodes, indexed by their case-folded required arg */
+        @Nullable
+        private CaseInsensitiveIndex<Builder> literalChildren;
+
+        /** The required args of the literal child nodes that have been added */
+        private final List<String> addedNames = new ArrayList<>();
+
+        /** Whether the command of this node has been changed */
+        private boolean changed;
+
+        private Builder(@NotNull FoxCommandNode<?> source) {
+            this.source = source;
+            this.path = source.path;
+            this.requiredArg = source.requiredArg;
+            this.requiredClass = source.requiredClass;
+            this.argumentParser = source.argumentParser;
+            this.registeredCommand = source.registeredCommand;
+        }
+
+        private Builder(String path, @Nullable String requiredArg, @Nullable Class<?> requiredClass, @Nullable ArgumentParser<?> argumentParser) {
+            this.source = null;
+            this.path = path;
+            this.requiredArg = requiredArg;
+            this.requiredClass = requiredClass;
+            this.argumentParser = argumentParser;
+            this.changed = true;
+        }
+
+        /**
+         * Create the builders of the child nodes, unless they've already been created.
+         */
+        private void initChildren () {
+
+            if (children != null) return;
+
+            List<FoxCommandNode<?>> sourceChildren = source != null ? source.children : Collections.emptyList();
+
+            children = new ArrayList<>(sourceChildren.size() + 1);
+            literalChildren = new CaseInsensitiveIndex<>();
+
+            for (FoxCommandNode<?> child : sourceChildren) {
+
+                Builder builder = new Builder(child);
+                children.add(builder);
+
+                if (child.getRequiredArg() != null) literalChildren.put(child.getRequiredArg(), builder);
+            }
+        }
+
+        /**
+         * Get the builder of the literal child node that matches the argument, ignoring case.
+         *
+         * @param argument - the argument
+         *
+         * @return - the builder or {@code null} if no literal child matches
+         */
+        @Nullable
+        public Builder getLiteralChild (@NotNull String argument) {
+            initChildren();
+            return literalChildren.get(argument);
+        }
+
+        /**
+         * Get the builder of the literal child node that matches the argument, adding the child if it doesn't exist.
+         *
+         * @param argument - the argument
+         *
+         * @return - the builder
+         */
+        public Builder literalChild (@NotNull String argument) {
+
+            Builder child = getLiteralChild(argument);
+
+            if (child == null) {
+                child = new Builder(path + "." + argument, argument, null, null);
+                children.add(child);
+                literalChildren.put(argument, child);
+                addedNames.add(argument);
+            }
+
+            return child;
+        }
+
+        /**
+         * Get the builder of the typed child node of the type.
+         *
+         * @param type - the type
+         *
+         * @return - the builder or {@code null} if there's no child of the type
+         */
+        @Nullable
+        public Builder getTypedChild (@NotNull Class<?> type) {
+
+            initChildren();
+
+            for (int i = 0; i < children.size(); i++) {
+                if (type.equals(children.get(i).requiredClass)) return children.get(i);
+            }
+
+            return null;
+        }
+
+        /**
+         * Get the builder of the typed child node of the type, adding the child if it doesn't exist.
+         *
+         * @param type - the type
+         * @param argumentParser - the parser of the type, used if the child is added
+         *
+         * @return - the builder
+         */
+        public Builder typedChild (@NotNull Class<?> type, @NotNull ArgumentParser<?> argumentParser) {
+
+            Builder child = getTypedChild(type);
+
+            if (child == null) {
+                child = new Builder(path + ".<" + type.getSimpleName() + ">", null, type, argumentParser);
+                children.add(child);
+            }
+
+            return child;
+        }
+
+        /**
+         * Get the builders of the typed child nodes, in the order they were added.
+         *
+         * @return - the builders
+         */
+        public List<Builder> getTypedChildren () {
+
+            initChildren();
+
+            List<Builder> typedChildren = new ArrayList<>();
+
+            for (Builder child : children) {
+                if (child.requiredClass != null) typedChildren.add(child);
+            }
+
+            return typedChildren;
+        }
+
+        /**
+         * Set the command of the node.
+         *
+         * @param registeredCommand - the command, {@code null} to remove it
+         *
+         * @return - this builder
+         */
+        public Builder setRegisteredCommand (@Nullable RegisteredCommand registeredCommand) {
+
+            if (registeredCommand != this.registeredCommand) {
+                this.registeredCommand = registeredCommand;
+                this.changed = true;
+            }
+
+            return this;
+        }
+
+        @Nullable
+        public RegisteredCommand getRegisteredCommand () {
+            return registeredCommand;
+        }
+
+        @Nullable
+        public Class<?> getRequiredClass () {
+            return requiredClass;
+        }
+
+        @Nullable
+        public ArgumentParser<?> getArgumentParser () {
+            return argumentParser;
+        }
+
+        public String getPath () {
+            return path;
+        }
+
+        /**
+         * Build the node.
+         *
+         * @return - the node, which is the node the builder was created from if nothing changed in its subtree
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public FoxCommandNode<?> build () {
+
+            // None of the child nodes has been requested, so only the command may have changed
+            if (children == null) {
+                if (!changed) return source;
+
+                return source != null
+                        ? new FoxCommandNode(path, requiredArg, requiredClass, argumentParser, registeredCommand, source.children, source.literalChildren, source.literalNames, source.typedChildren)
+                        : new FoxCommandNode(path, requiredArg, requiredClass, argumentParser, registeredCommand, Collections.emptyList(), new CaseInsensitiveIndex<>(), BKTree.EMPTY, Collections.emptyList());
+            }
+
+            boolean childrenChanged = false;
+            boolean namesRemoved = false;
+
+            List<FoxCommandNode<?>> newChildren = new ArrayList<>(children.size());
+
+            for (Builder child : children) {
+
+                FoxCommandNode<?> built = child.build();
+                if (built != child.source) childrenChanged = true;
+
+                // Prune the child if it's empty
+                if (built.isEmpty()) {
+                    if (built.getRequiredArg() != null && child.source != null) namesRemoved = true;
+                    continue;
+                }
+
+                newChildren.add(built);
+            }
+
+            if (!changed && !childrenChanged) return source;
+
+            CaseInsensitiveIndex<FoxCommandNode<?>> newLiteralChildren = new CaseInsensitiveIndex<>();
+            List<FoxCommandNode<?>> newTypedChildren = new ArrayList<>();
+            List<String> literalNames = new ArrayList<>();
+
+            for (FoxCommandNode<?> child : newChildren) {
+
+                if (child.getRequiredArg() != null) {
+                    newLiteralChildren.put(child.getRequiredArg(), child);
+                    literalNames.add(child.getRequiredArg());
+                }
+                else {
+                    newTypedChildren.add(child);
+                }
+            }
+
+            newTypedChildren.sort(FoxCommandNode::compareTyped);
+
+            // Names can't be removed from the tree of names, so it's only built again if a name has been removed
+            BKTree newLiteralNames;
+
+            if (source == null || namesRemoved) {
+                newLiteralNames = BKTree.of(literalNames);
+            }
+            else {
+                newLiteralNames = source.literalNames;
+
+                for (String name : addedNames) {
+                    if (newLiteralChildren.containsKey(name)) newLiteralNames = newLiteralNames.with(name);
+                }
+            }
+
+            return new FoxCommandNode(path, requiredArg, requiredClass, argumentParser, registeredCommand, Collections.unmodifiableList(newChildren),
+                    newLiteralChildren, newLiteralNames, Collections.unmodifiableList(newTypedChildren));
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A registration table that's generated at compile time for a class with {@link FoxCommand} methods.
+ *
+ * The table is named after the class followed by {@link #SUFFIX}, in the same package. For nested classes
+ * the names of the enclosing classes are joined with an underscore, so {@code Outer.Inner} becomes
+ * {@code Outer_Inner_FoxCommands}. The invokers of the commands call the handlers directly, so registering
+ * a class with a table doesn't need any reflection.
+ *
+ * @param <T> - the class the table has been generated for
+ */
+public interface FoxCommandRegistrar<T> {
+
+    /** The suffix of the name of a generated table */
+    String SUFFIX = "_FoxCommands";
+
+    /**
+     * Create the commands of the instance.
+     *
+     * @param instance - the instance to invoke the handlers on
+     *
+     * @return - the commands, in the order they're declared in
+     */
+    @NotNull
+    List<RegisteredCommand> createCommands(@NotNull T instance);
+}
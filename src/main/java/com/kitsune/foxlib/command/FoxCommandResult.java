@@ -2,6 +2,6 @@ package com.kitsune.foxlib.command;
 
 public enum FoxCommandResult {
 
-    SUCCESS, INVALID_COMMAND, INSUFFICIENT_PERMISSIONS, INVALID_SENDER_TYPE
+    SUCCESS, INVALID_COMMAND, INSUFFICIENT_PERMISSIONS, INVALID_SENDER_TYPE, CONCURRENCY_LIMIT_REACHED, ON_COOLDOWN, RATE_LIMITED, EXECUTION_FAILED
 
 }
@@ -1,94 +1,289 @@
 package com.kitsune.foxlib.command;
 
-import com.google.common.base.Strings;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Queues;
-import com.kitsune.foxlib.FoxLib;
+import com.kitsune.foxlib.util.BKTree;
 import com.kitsune.foxlib.util.Log;
+import com.kitsune.foxlib.util.PrefixIndex;
 import com.kitsune.foxlib.util.ReflectionUtil;
 import net.md_5.bungee.api.ChatColor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Queue;
-
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The tree of all registered commands.
+ *
+ * The tree is made of immutable {@link FoxCommandNode}s. Adding commands copies the nodes on their paths and
+ * publishes the new root through an {@link AtomicReference}, so commands can be dispatched and completed
+ * from any thread, without locking, while commands are registered.
+ *
+ * Literal arguments are matched before typed ones, and typed arguments are tried in the priority order of their
+ * parsers, so the command an input resolves to doesn't depend on the order the commands were registered in.
+ * Commands that may match the same input are reported when they're added. A node only has a single parent in a version
+ * of the tree, so a dispatch visits every node at most once, even when it backtracks, and the frame parses every argument
+ * at most once per parser. So a dispatch never takes longer than walking the subtree of its label.
+ * Lines that are sent over and over again, by command blocks for example, are resolved once per version of the tree.
+ */
 public class FoxCommandTree {
 
-    private FoxCommandNode<?> root;
+    /** The maximum amount of corrections suggested for a mistyped argument */
+    private static final int MAX_CORRECTIONS = 3;
+
+    /** The root of the current version of the tree */
+    private final AtomicReference<FoxCommandNode<?>> root;
+
+    /** The amount of dispatches that couldn't be attributed to any command */
+    private final LongAdder unresolvedDispatches = new LongAdder();
+
+    /** The commands that recently dispatched lines resolved to */
+    private final CommandLineCache lineCache = new CommandLineCache();
+
+    /** The help index of the most recent version of the tree it has been requested for */
+    private volatile HelpIndex helpIndex;
+
+    /**
+     * A literal child that may be what a mistyped argument was meant to be.
+     */
+    private static final class Correction {
+
+        private final FoxCommandNode<?> child;
+        private final int distance;
+
+        private Correction(FoxCommandNode<?> child, int distance) {
+            this.child = child;
+            this.distance = distance;
+        }
+    }
 
     public FoxCommandTree() {
-        this.root = new FoxCommandNode<>(null, null, null, null);
+        this.root = new AtomicReference<>(FoxCommandNode.root());
     }
 
     public void addFoxCommand(RegisteredCommand registeredCommand) {
+        replaceFoxCommands(Collections.emptyList(), Collections.singletonList(registeredCommand));
+    }
 
-        // Get the fox command
-        FoxCommand foxCommand = registeredCommand.getFoxCommand();
+    /**
+     * Remove the commands from the tree, nodes that are left without a command or child nodes are pruned.
+     *
+     * @param registeredCommands - the commands to remove
+     */
+    public void removeFoxCommands(Collection<RegisteredCommand> registeredCommands) {
+        replaceFoxCommands(registeredCommands, Collections.emptyList());
+    }
 
-        // Determine paths and add them to the tree
-        List<String[]> requiredPaths = new ArrayList<>(Collections.singleton(foxCommand.path().split(" ")));
+    /**
+     * Remove and add commands in a single new version of the tree, so a dispatch either sees
+     * all the removed commands or all the added ones.
+     *
+     * Only the nodes on the paths of these commands are copied, each of them once, so the cost doesn't depend on the rest
+     * of the tree. Add the commands of a class in one call rather than one by one, as every call copies the nodes again.
+     *
+     * @param removedCommands - the commands to remove
+     * @param addedCommands - the commands to add
+     */
+    public void replaceFoxCommands(Collection<RegisteredCommand> removedCommands, Collection<RegisteredCommand> addedCommands) {
 
-        // Add aliases to required args list
-        for (String alias : foxCommand.aliases()) {
-            requiredPaths.add(alias.split(" "));
+        // Resolve the parsers of the parameters of the added commands, skipping the command sender
+        List<ArgumentParser<?>[]> addedParsers = new ArrayList<>(addedCommands.size());
+
+        for (RegisteredCommand registeredCommand : addedCommands) {
+
+            Class<?>[] parameterTypes = registeredCommand.getParameterTypes();
+            ArgumentParser<?>[] argumentParsers = new ArgumentParser<?>[parameterTypes.length];
+
+            for (int i = 1; i < parameterTypes.length; i++) {
+                argumentParsers[i] = FoxCommandAPI.getInstance().getArgumentParser(parameterTypes[i]);
+            }
+
+            addedParsers.add(argumentParsers);
         }
 
-        // Add all the paths to the command tree
-        for (String[] requiredPath : requiredPaths) {
+        // The ambiguities found while adding the commands, reported once the tree has been published
+        List<String> ambiguities = new ArrayList<>();
 
-            // Store previous parent
-            FoxCommandNode<?> previousParent = null;
+        // Changes are made one at a time, so every changed node is copied once and the tree never has to be built again
+        synchronized (root) {
 
-            // Loop through all sub arguments in command
-            for (int j = 0; j < requiredPath.length; j++) {
+            FoxCommandNode.Builder updated = root.get().toBuilder();
 
-                String arg = requiredPath[j];
-                FoxCommandNode<?> parent = (j == 0) ? root : previousParent;
+            for (RegisteredCommand registeredCommand : removedCommands) {
+                for (String[] requiredPath : getRequiredPaths(registeredCommand)) {
+                    removePath(updated, requiredPath, 0, registeredCommand);
+                }
+            }
+
+            int index = 0;
 
-                // Check whether the node already exists, if so set the previous parent to it and return
-                FoxCommandNode<?> childNode = parent.getChild(arg).orElse(null);
-                if (childNode != null) {
+            for (RegisteredCommand registeredCommand : addedCommands) {
 
-                    // Set the previous parent
-                    previousParent = childNode;
-                } else {
+                ArgumentParser<?>[] argumentParsers = addedParsers.get(index++);
 
-                    // Set the previous parent
-                    previousParent = parent.addChild(new FoxCommandNode<>(parent, null, arg, null));
+                for (String[] requiredPath : getRequiredPaths(registeredCommand)) {
+                    insertPath(updated, requiredPath, 0, registeredCommand, argumentParsers, ambiguities);
                 }
+            }
+
+            root.set(updated.build());
+        }
+
+        for (String ambiguity : ambiguities) {
+            Log.warn("Command Tree", ambiguity);
+        }
+    }
+
+    /**
+     * Get the literal arguments of the path and the aliases of the command.
+     *
+     * @param registeredCommand - the command
+     *
+     * @return - the paths
+     */
+    private static List<String[]> getRequiredPaths(RegisteredCommand registeredCommand) {
 
+        // Determine paths and add them to the tree
+        List<String[]> requiredPaths = new ArrayList<>(Collections.singleton(CommandInput.split(registeredCommand.getPath())));
 
-                // If this is the last node in the path, add the required parameters
-                if (j == requiredPath.length - 1) {
+        // Add aliases to required args list
+        for (String alias : registeredCommand.getAliases()) {
+            requiredPaths.add(CommandInput.split(alias));
+        }
 
-                    // Add the parameters to the command tree
-                    for (Parameter parameter : registeredCommand.getMethod().getParameters()) {
+        return requiredPaths;
+    }
 
-                        // Skip the first parameter, since this is the command sender
-                        if (parameter.equals(registeredCommand.getMethod().getParameters()[0])) continue;
+    /**
+     * Add the remaining literal arguments of the path and the parameters of the command to the node.
+     *
+     * @param node - the builder of the node
+     * @param requiredPath - the literal arguments of the path
+     * @param index - the index of the next literal argument
+     * @param registeredCommand - the command
+     * @param argumentParsers - the parsers of the parameters of the command
+     * @param ambiguities - the list the ambiguities with other commands are added to
+     */
+    private static void insertPath(FoxCommandNode.Builder node, String[] requiredPath, int index, RegisteredCommand registeredCommand,
+                                   ArgumentParser<?>[] argumentParsers, List<String> ambiguities) {
 
-                        // Make sure the type isn't already registered
-                        childNode = previousParent.getChild(parameter.getType()).orElse(null);
+        // If this is the last node in the path, add the required parameters
+        if (index == requiredPath.length) {
+            insertParameters(node, 1, registeredCommand, argumentParsers, ambiguities);
+            return;
+        }
 
-                        if (childNode != null) {
-                            previousParent = childNode;
-                            continue;
-                        }
+        // Reuse the node if it already exists
+        insertPath(node.literalChild(requiredPath[index]), requiredPath, index + 1, registeredCommand, argumentParsers, ambiguities);
+    }
 
-                        previousParent = previousParent.addChild(FoxCommandNode.newInstance(previousParent, null, null, parameter.getType()));
-                    }
+    /**
+     * Add the remaining parameters of the command to the node.
+     *
+     * @param node - the builder of the node
+     * @param parameter - the index of the next parameter
+     * @param registeredCommand - the command
+     * @param argumentParsers - the parsers of the parameters of the command
+     * @param ambiguities - the list the ambiguities with other commands are added to
+     */
+    private static void insertParameters(FoxCommandNode.Builder node, int parameter, RegisteredCommand registeredCommand,
+                                         ArgumentParser<?>[] argumentParsers, List<String> ambiguities) {
 
-                    // Set the registered command
-                    previousParent.setRegisteredCommand(registeredCommand);
-                }
+        Class<?>[] parameterTypes = registeredCommand.getParameterTypes();
+
+        // Set the registered command, replacing the command that matches exactly the same arguments
+        if (parameter == parameterTypes.length) {
+
+            RegisteredCommand existing = node.getRegisteredCommand();
+
+            if (existing != null && existing != registeredCommand) {
+                ambiguities.add(registeredCommand + " replaces " + existing + ", they match the same arguments at " + node.getPath());
             }
+
+            node.setRegisteredCommand(registeredCommand);
+            return;
+        }
+
+        // Reuse the node if the type is already registered
+        FoxCommandNode.Builder child = node.getTypedChild(parameterTypes[parameter]);
+
+        if (child == null) {
+            findAmbiguities(node, parameterTypes[parameter], argumentParsers[parameter], registeredCommand, ambiguities);
+            child = node.typedChild(parameterTypes[parameter], argumentParsers[parameter]);
+        }
+
+        insertParameters(child, parameter + 1, registeredCommand, argumentParsers, ambiguities);
+    }
+
+    /**
+     * Find the typed siblings of a new node that have the same priority and may accept the same arguments.
+     * The order between them is only decided by the names of their types, which is unlikely to be intended.
+     *
+     * @param node - the parent of the new node
+     * @param type - the type of the new node
+     * @param parser - the parser of the new node
+     * @param registeredCommand - the command the new node is added for
+     * @param ambiguities - the list the ambiguities are added to
+     */
+    private static void findAmbiguities(FoxCommandNode.Builder node, Class<?> type, ArgumentParser<?> parser, RegisteredCommand registeredCommand, List<String> ambiguities) {
+
+        for (FoxCommandNode.Builder sibling : node.getTypedChildren()) {
+
+            ArgumentParser<?> siblingParser = sibling.getArgumentParser();
+
+            if (siblingParser.getPriority() != parser.getPriority() || !parser.overlaps(siblingParser)) continue;
+
+            ambiguities.add("<" + type.getSimpleName() + "> of " + registeredCommand + " and <" + sibling.getRequiredClass().getSimpleName()
+                    + "> at " + node.getPath() + " may match the same arguments, give their parsers a different priority");
+        }
+    }
+
+    /**
+     * Remove the command from the remaining literal arguments of the path of the node,
+     * nodes that are left empty are pruned when the tree is built.
+     *
+     * @param node - the builder of the node
+     * @param requiredPath - the literal arguments of the path
+     * @param index - the index of the next literal argument
+     * @param registeredCommand - the command
+     */
+    private static void removePath(FoxCommandNode.Builder node, String[] requiredPath, int index, RegisteredCommand registeredCommand) {
+
+        if (index == requiredPath.length) {
+            removeParameters(node, 1, registeredCommand);
+            return;
         }
+
+        FoxCommandNode.Builder child = node.getLiteralChild(requiredPath[index]);
+        if (child != null) removePath(child, requiredPath, index + 1, registeredCommand);
+    }
+
+    /**
+     * Remove the command from the remaining parameters of the node.
+     *
+     * @param node - the builder of the node
+     * @param parameter - the index of the next parameter
+     * @param registeredCommand - the command
+     */
+    private static void removeParameters(FoxCommandNode.Builder node, int parameter, RegisteredCommand registeredCommand) {
+
+        Class<?>[] parameterTypes = registeredCommand.getParameterTypes();
+
+        // Only remove the command if it hasn't been replaced by another one
+        if (parameter == parameterTypes.length) {
+            if (node.getRegisteredCommand() == registeredCommand) node.setRegisteredCommand(null);
+            return;
+        }
+
+        FoxCommandNode.Builder child = node.getTypedChild(parameterTypes[parameter]);
+        if (child != null) removeParameters(child, parameter + 1, registeredCommand);
     }
 
     /**
@@ -101,137 +296,535 @@ public class FoxCommandTree {
      */
     public FoxCommandResult execute(CommandSender commandSender, String name, String[] args) {
 
-        // Get the command node
-        FoxCommandNode<?> commandNode = root.getChild(name).orElse(null);
+        // Get the command node from the current version of the tree
+        FoxCommandNode<?> currentRoot = root.get();
+        FoxCommandNode<?> commandNode = currentRoot.getLiteralChild(name);
 
         // Make sure the command node isn't null
-        if (commandNode == null) return FoxCommandResult.INVALID_COMMAND;
+        if (commandNode == null) {
+            unresolvedDispatches.increment();
+            return FoxCommandResult.INVALID_COMMAND;
+        }
+
+        // The frame needs a slot for the sender and at most one for every argument, quoted arguments only lower the amount of tokens
+        ArgumentFrame frame = ArgumentFrame.acquire(args.length + 1);
+
+        try {
+            frame.getInput().tokenize(args);
+            return dispatch(commandSender, currentRoot, name, commandNode, frame);
+        } finally {
+            frame.release();
+        }
+    }
 
-        // Match the arguments
-        if (commandNode.getRegisteredCommand() != null && args.length == 0) {
-            try {
+    /**
+     * Execute the command by traversing the command tree, using the raw arguments of the command line.
+     *
+     * Bukkit splits the line on spaces before it reaches a {@link FoxCommandExecutor}, so commands run by the server always
+     * go through {@link #execute(CommandSender, String, String[])}, which joins the arguments into a single line again.
+     * This is for callers that have the line themselves, like a console or a script that dispatches commands directly.
+     *
+     * @param commandSender - the command sender
+     * @param name          - the name of the command
+     * @param arguments     - the arguments of the command, without the label
+     * @return - a {@link FoxCommandResult} that describes whether the command was executed successfully or not
+     */
+    public FoxCommandResult execute(CommandSender commandSender, String name, CharSequence arguments) {
 
-                String permission = commandNode.getRegisteredCommand().getFoxCommand().permission();
+        // Get the command node from the current version of the tree
+        FoxCommandNode<?> currentRoot = root.get();
+        FoxCommandNode<?> commandNode = currentRoot.getLiteralChild(name);
 
-                // Add op permission check
-                if ((permission.equalsIgnoreCase("op") && commandSender.isOp()) || permission.equalsIgnoreCase("") || commandSender.hasPermission(permission)) {
+        // Make sure the command node isn't null
+        if (commandNode == null) {
+            unresolvedDispatches.increment();
+            return FoxCommandResult.INVALID_COMMAND;
+        }
 
-                    // Make sure the command can be run by the command sender's type
-                    if (!ReflectionUtil.canBeCastTo(commandSender, commandNode.getRegisteredCommand().getMethod().getParameterTypes()[0])) {
-                        commandSender.sendMessage(ChatColor.RED + "Command cannot be run by " + commandSender.getClass().getSimpleName());
-                        return FoxCommandResult.INVALID_SENDER_TYPE;
-                    }
+        ArgumentFrame frame = ArgumentFrame.acquire(1);
 
-                    commandNode.getRegisteredCommand().getMethod().invoke(commandNode.getRegisteredCommand().getInstance(), commandSender);
-                    return FoxCommandResult.SUCCESS;
-                } else {
-                    commandSender.sendMessage(ChatColor.translateAlternateColorCodes('&', commandNode.getRegisteredCommand().getFoxCommand().noPermissionsMessage()));
-                    return FoxCommandResult.INSUFFICIENT_PERMISSIONS;
-                }
+        try {
+            frame.ensureCapacity(frame.getInput().tokenize(arguments).size() + 1);
+            return dispatch(commandSender, currentRoot, name, commandNode, frame);
+        } finally {
+            frame.release();
+        }
+    }
 
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                e.printStackTrace();
-            }
-        } else {
+    /**
+     * Match the tokenized arguments of the frame against the subtree of the command and invoke it.
+     *
+     * A line that has been resolved in the same version of the tree before skips the matching
+     * and parsing, only the checks of the command and its invocation are left.
+     *
+     * @param commandSender - the command sender
+     * @param currentRoot   - the root of the version of the tree the command node is from
+     * @param name          - the name of the command
+     * @param commandNode   - the node of the command label
+     * @param frame         - the frame that holds the tokenized arguments
+     * @return - the {@link FoxCommandResult}
+     */
+    private FoxCommandResult dispatch(CommandSender commandSender, FoxCommandNode<?> currentRoot, String name, FoxCommandNode<?> commandNode, ArgumentFrame frame) {
 
-            Log.info("Command Tree", "Command: /" + commandNode.getRequiredArg() + " " + String.join(" ", args));
-            List<Object> parsedArgs = new ArrayList<>();
-            parsedArgs.add(commandSender);
+        CommandInput input = frame.getInput();
 
-            return traverseTree(commandSender, commandNode, Lists.newLinkedList(Arrays.asList(args)), parsedArgs);
+        if (Log.isEnabled(Log.Level.DEBUG)) {
+            Log.debug("Command Tree", "Command: /{} {}", commandNode.getRequiredArg(), input.getLine().toString());
         }
 
-        return FoxCommandResult.INVALID_COMMAND;
+        long start = System.nanoTime();
+
+        RegisteredCommand cachedCommand = lineCache.load(currentRoot, name, input, frame);
+        frame.set(0, commandSender);
+
+        FoxCommandResult result;
+
+        if (cachedCommand != null) {
+            result = invoke(commandSender, cachedCommand, frame);
+        }
+        else {
+            result = traverseTree(commandSender, commandNode, input, 0, frame, 1);
+
+            // Only pure parsers depend on nothing but the line, the permissions are checked when the command is invoked
+            // So a line that only consulted pure parsers can be reused, even if this sender wasn't allowed to run it
+            if (frame.getResolvedCommand() != null) {
+                lineCache.store(currentRoot, name, input, frame, frame.getResolvedCommand());
+            }
+        }
+
+        recordMetrics(frame, result, System.nanoTime() - start);
+        return result;
     }
 
     /**
      * Traverse the command tree
+     *
+     * @param commandSender - the command sender
+     * @param node          - the node that has been matched
+     * @param input         - the tokenized arguments of the command
+     * @param cursor        - the index of the next token that has to be matched
+     * @param frame         - the frame that holds the parsed arguments
+     * @param slot          - the frame slot of the next parsed argument
      */
-    private FoxCommandResult traverseTree(CommandSender commandSender, FoxCommandNode<?> node, LinkedList<String> args, List<Object> parsedArgs) {
+    private FoxCommandResult traverseTree(CommandSender commandSender, FoxCommandNode<?> node, CommandInput input, int cursor, ArgumentFrame frame, int slot) {
+
+        frame.reach(node, cursor);
 
         // Check if all args have been parsed
-        if (args.isEmpty()) {
+        if (cursor == input.size()) {
 
             if (node.getRegisteredCommand() == null) {
                 return FoxCommandResult.INVALID_COMMAND;
             }
 
             // Execute command
-            try {
+            return invoke(commandSender, node.getRegisteredCommand(), frame);
+        }
 
-                // Get the permission
-                String permission = node.getRegisteredCommand().getFoxCommand().permission();
+        // Try to match a literal child first, on the line itself so the token doesn't have to be copied
+        // This is a constant string so it's got a higher priority than
+        // the parsed arguments
+        FoxCommandNode<?> literalChild = input.isEscaped(cursor) ? null : node.getLiteralChild(input.getLine(), input.getStart(cursor), input.getEnd(cursor));
+        if (literalChild != null) {
 
-                // Add op permission check
-                if ((permission.equalsIgnoreCase("op") && commandSender.isOp()) || permission.equalsIgnoreCase("") || commandSender.hasPermission(permission)) {
+            if (Log.isEnabled(Log.Level.DEBUG)) {
+                Log.debug("Command Tree", "Matches required argument: {}", literalChild.getRequiredArg());
+            }
 
-                    // Make sure the command can be run by the command sender's type
-                    if (!ReflectionUtil.canBeCastTo(commandSender, node.getRegisteredCommand().getMethod().getParameterTypes()[0])) {
-                        commandSender.sendMessage(ChatColor.RED + "Command cannot be run by " + commandSender.getClass().getSimpleName());
-                        return FoxCommandResult.INVALID_SENDER_TYPE;
-                    }
+            // Argument matches, use the child to continue in the tree
+            FoxCommandResult result = traverseTree(commandSender, literalChild, input, cursor + 1, frame, slot);
+            if (result != FoxCommandResult.INVALID_COMMAND) return result;
+        }
 
-                    // Execute the command with the parsed arguments
-                    node.getRegisteredCommand().getMethod().invoke(node.getRegisteredCommand().getInstance(), parsedArgs.toArray());
-                    return FoxCommandResult.SUCCESS;
-                } else {
+        // Loop through all the typed children, by index so the dispatch doesn't allocate an iterator
+        List<FoxCommandNode<?>> typedChildren = node.getTypedChildren();
 
-                    // Send the no permission message to the player
-                    if (!node.getRegisteredCommand().getFoxCommand().noPermissionsMessage().equals(""))
-                        commandSender.sendMessage(ChatColor.translateAlternateColorCodes('&', node.getRegisteredCommand().getFoxCommand().noPermissionsMessage()));
-                    return FoxCommandResult.INSUFFICIENT_PERMISSIONS;
-                }
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                e.printStackTrace();
+        for (int i = 0, size = typedChildren.size(); i < size; i++) {
+
+            FoxCommandNode<?> child = typedChildren.get(i);
+
+            // Try to parse the argument into the slot, the frame remembers the result in case another branch needs it
+            // If the argument doesn't match, continue
+            if (!frame.parse(cursor, child.getArgumentParser(), slot)) continue;
+
+            // A greedy argument takes all the remaining tokens
+            int next = child.getRequiredClass() == GreedyString.class ? input.size() : cursor + 1;
+
+            // Argument matches, continue using the child
+            // If this branch fails, the slot is simply overwritten by the next sibling
+            FoxCommandResult result = traverseTree(commandSender, child, input, next, frame, slot + 1);
+            if (result == FoxCommandResult.INVALID_COMMAND) continue;
+            return result;
+        }
+
+        // Return invalid command
+        return FoxCommandResult.INVALID_COMMAND;
+    }
+
+    /**
+     * Get the tab completions for the last argument of a command.
+     *
+     * Only literal arguments and types that lead to a command the sender is allowed to run are suggested.
+     *
+     * @param commandSender - the command sender
+     * @param name          - the name of the command
+     * @param args          - the arguments of the command, the last one is the argument that's being completed
+     * @return - the completions
+     */
+    public List<String> complete(CommandSender commandSender, String name, String[] args) {
+
+        // Get the command node from the current version of the tree
+        FoxCommandNode<?> commandNode = root.get().getLiteralChild(name);
+
+        if (commandNode == null || args.length == 0) return Collections.emptyList();
+
+        // Find all the nodes the completed arguments can lead to
+        List<FoxCommandNode<?>> nodes = Collections.singletonList(commandNode);
+
+        for (int i = 0; i < args.length - 1 && !nodes.isEmpty(); i++) {
+            nodes = match(commandSender, nodes, i, args[i]);
+        }
+
+        // Complete the last argument using the literal and typed children of the nodes
+        String prefix = args[args.length - 1];
+        Set<String> completions = new LinkedHashSet<>();
+
+        for (FoxCommandNode<?> node : nodes) {
+
+            PrefixIndex<FoxCommandNode<?>> literalIndex = node.getLiteralPrefixIndex();
+
+            for (int i = literalIndex.from(prefix), to = literalIndex.to(prefix); i < to; i++) {
+                if (canRunAny(commandSender, literalIndex.getValue(i))) completions.add(literalIndex.getName(i));
+            }
+
+            for (FoxCommandNode<?> child : node.getTypedChildren()) {
+                if (canRunAny(commandSender, child)) completions.addAll(getSuggestions(commandSender, child.getArgumentParser(), args.length - 1, prefix));
             }
         }
 
-        // Get the arg that needs to be parsed
-        String arg = args.getFirst();
+        return new ArrayList<>(completions);
+    }
+
+    /**
+     * Get the commands the sender may have meant when the arguments didn't match any command.
+     *
+     * The arguments are matched until one doesn't match any child node, the literal children
+     * within a small edit distance of that argument are suggested in its place if the sender is allowed
+     * to run a command below them. The literal children of every node are kept in a {@link com.kitsune.foxlib.util.BKTree},
+     * so only a fraction of them has to be compared to the argument.
+     *
+     * @param commandSender - the command sender
+     * @param name          - the name of the command
+     * @param args          - the arguments of the command
+     * @return - the corrected command lines, the closest first
+     */
+    public List<String> getCorrections(CommandSender commandSender, String name, String[] args) {
+
+        FoxCommandNode<?> commandNode = root.get().getLiteralChild(name);
+
+        if (commandNode == null) return Collections.emptyList();
 
-        // Loop through all the children
-        for (FoxCommandNode<?> child : node.getChildren()) {
+        List<FoxCommandNode<?>> nodes = Collections.singletonList(commandNode);
+        int position = 0;
 
-            // Create copy of these objects to modify them further down the recursion
-            List<Object> localParsedArgs = new ArrayList<>(parsedArgs);
-            LinkedList<String> localArgs = new LinkedList<>(args);
+        // Find the first argument that doesn't match
+        for (; position < args.length; position++) {
 
-            // Try to match the required arg first
-            // This is a constant string so it's got a higher priority than
-            // the parsed arguments
-            if (child.getRequiredArg() != null && child.getRequiredArg().equalsIgnoreCase(arg)) {
+            List<FoxCommandNode<?>> matches = match(commandSender, nodes, position, args[position]);
+            if (matches.isEmpty()) break;
 
-                Log.info("Command Tree", "Matches required argument: " + child.getRequiredArg());
+            nodes = matches;
+        }
+
+        if (position == args.length) return Collections.emptyList();
+
+        String argument = args[position];
+        int maxDistance = argument.length() <= 4 ? 1 : 2;
 
-                // Argument matches, use the child to continue in the tree
-                localArgs.remove();
+        StringBuilder prefix = new StringBuilder("/").append(name);
+        for (int i = 0; i < position; i++) prefix.append(' ').append(args[i]);
 
-                FoxCommandResult result = traverseTree(commandSender, child, localArgs, localParsedArgs);
-                if (result == FoxCommandResult.INVALID_COMMAND) continue;
-                return result;
+        // The similar literals of all the nodes are sorted together, so the closest are suggested whichever node they belong to
+        List<Correction> candidates = new ArrayList<>();
+
+        for (FoxCommandNode<?> node : nodes) {
+            for (BKTree.Match match : node.getSimilarLiteralNames(argument, maxDistance)) {
+                candidates.add(new Correction(node.getLiteralChild(match.getName()), match.getDistance()));
             }
+        }
 
-            // Try to parse the argument
-            if (child.getRequiredClass() == null) continue;
-            Object parsedArgument = FoxCommandAPI.getInstance().getArgumentParser(child.getRequiredClass()).parse(arg);
+        candidates.sort(Comparator.<Correction>comparingInt(candidate -> candidate.distance)
+                .thenComparing(candidate -> candidate.child.getRequiredArg(), String.CASE_INSENSITIVE_ORDER));
 
-            // If the argument doesn't match, continue
-            if (parsedArgument == null) continue;
+        Set<String> corrections = new LinkedHashSet<>();
 
-            // Argument matches, add the parsed argument to the list and continue using the child
-            localArgs.remove();
-            localParsedArgs.add(parsedArgument);
-            FoxCommandResult result = traverseTree(commandSender, child, localArgs, localParsedArgs);
-            if (result == FoxCommandResult.INVALID_COMMAND) continue;
-            return result;
+        for (Correction candidate : candidates) {
+
+            // The permissions of the candidates after the last correction don't have to be checked
+            if (corrections.size() == MAX_CORRECTIONS) break;
+
+            String correction = prefix + " " + candidate.child.getRequiredArg();
+            if (!corrections.contains(correction) && canRunAny(commandSender, candidate.child)) corrections.add(correction);
         }
 
-        // Return invalid command
-        return FoxCommandResult.INVALID_COMMAND;
+        return new ArrayList<>(corrections);
+    }
+
+    /**
+     * Find the child nodes of the nodes that match an argument.
+     *
+     * @param commandSender - the command sender
+     * @param nodes         - the nodes
+     * @param position      - the position of the argument
+     * @param argument      - the argument
+     * @return - the matching child nodes
+     */
+    private static List<FoxCommandNode<?>> match(CommandSender commandSender, List<FoxCommandNode<?>> nodes, int position, String argument) {
+
+        List<FoxCommandNode<?>> matches = new ArrayList<>();
+
+        for (FoxCommandNode<?> node : nodes) {
+
+            FoxCommandNode<?> literalChild = node.getLiteralChild(argument);
+            if (literalChild != null) matches.add(literalChild);
+
+            for (FoxCommandNode<?> child : node.getTypedChildren()) {
+                if (parse(commandSender, child.getArgumentParser(), position, argument) != null) matches.add(child);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Parse an argument that's being completed, contextual parsers get the sender but no previous arguments.
+     *
+     * @param commandSender - the command sender
+     * @param parser        - the parser
+     * @param position      - the position of the argument
+     * @param argument      - the argument
+     * @return - the parsed value or {@code null} if the argument doesn't match
+     */
+    private static Object parse(CommandSender commandSender, ArgumentParser<?> parser, int position, String argument) {
+
+        if (parser instanceof ContextualArgumentParser) {
+            return ((ContextualArgumentParser<?>) parser).parse(new ParseContext(commandSender, position), argument);
+        }
+
+        return parser.parse(argument);
+    }
+
+    /**
+     * Get the suggestions of the parser for the argument that's being completed.
+     *
+     * @param commandSender - the command sender
+     * @param parser        - the parser
+     * @param position      - the position of the argument
+     * @param prefix        - the part of the argument that has been typed so far
+     * @return - the suggestions
+     */
+    private static List<String> getSuggestions(CommandSender commandSender, ArgumentParser<?> parser, int position, String prefix) {
+
+        if (parser instanceof ContextualArgumentParser) {
+            return ((ContextualArgumentParser<?>) parser).getSuggestions(new ParseContext(commandSender, position), prefix);
+        }
+
+        return parser.getSuggestions(prefix);
+    }
+
+    /**
+     * Get whether the command sender is allowed to run any command in the subtree of the node.
+     * Only one command per distinct permission in the subtree is checked, see {@link FoxCommandNode#getPermissionSummary()}.
+     *
+     * @param commandSender - the command sender
+     * @param node          - the root of the subtree
+     * @return - {@code true} if the sender can run at least one command or else {@code false}
+     */
+    private static boolean canRunAny(CommandSender commandSender, FoxCommandNode<?> node) {
+
+        PermissionCache permissionCache = FoxCommandAPI.getInstance().getPermissionCache();
+
+        for (RegisteredCommand registeredCommand : node.getPermissionSummary()) {
+            if (permissionCache.hasPermission(commandSender, registeredCommand)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Check the permission and sender type of the command and invoke it.
+     *
+     * @param commandSender - the command sender
+     * @param registeredCommand - the command to invoke
+     * @param frame - the frame that holds the sender and the parsed arguments
+     *
+     * @return - the {@link FoxCommandResult} of the invocation
+     */
+    private FoxCommandResult invoke(CommandSender commandSender, RegisteredCommand registeredCommand, ArgumentFrame frame) {
+
+        frame.setResolvedCommand(registeredCommand);
+
+        if (!FoxCommandAPI.getInstance().getPermissionCache().hasPermission(commandSender, registeredCommand)) {
+
+            // Send the no permission message to the player
+            if (!registeredCommand.getNoPermissionsMessage().isEmpty())
+                commandSender.sendMessage(registeredCommand.getNoPermissionsMessage());
+            return FoxCommandResult.INSUFFICIENT_PERMISSIONS;
+        }
+
+        // Make sure the command can be run by the command sender's type
+        if (!ReflectionUtil.canBeCastTo(commandSender, registeredCommand.getSenderType())) {
+            commandSender.sendMessage(ChatColor.RED + "Command cannot be run by " + commandSender.getClass().getSimpleName());
+            return FoxCommandResult.INVALID_SENDER_TYPE;
+        }
+
+        // Only players are throttled, the console and command blocks can run commands as often as they like
+        if (commandSender instanceof Player) {
+
+            FoxCommandResult throttled = throttle((Player) commandSender, registeredCommand);
+            if (throttled != null) return throttled;
+        }
+
+        // Hand asynchronous commands to the scheduler, they need their own copy of the arguments
+        if (registeredCommand.isAsync()) {
+
+            ArgumentFrame arguments = frame.detach(registeredCommand.getParameterTypes().length);
+
+            if (!FoxCommandAPI.getInstance().getCommandScheduler().submit(registeredCommand, arguments)) {
+
+                // The command didn't run, so it doesn't count towards its limits
+                if (commandSender instanceof Player) FoxCommandAPI.getInstance().getCommandThrottle().release((Player) commandSender, registeredCommand);
+
+                commandSender.sendMessage(ChatColor.RED + "This command is busy, please try again later.");
+                return FoxCommandResult.CONCURRENCY_LIMIT_REACHED;
+            }
+
+            return FoxCommandResult.SUCCESS;
+        }
+
+        // Execute the command with the parsed arguments, an exception of the handler doesn't stop the dispatch
+        try {
+            registeredCommand.getInvoker().invoke(frame);
+        } catch (Throwable throwable) {
+            Log.error("Command Tree", "Unhandled exception executing /{} in {}", registeredCommand.getPath(), registeredCommand);
+            throwable.printStackTrace();
+            return FoxCommandResult.EXECUTION_FAILED;
+        }
+
+        return FoxCommandResult.SUCCESS;
+    }
+
+    /**
+     * Take a token from the cooldown and the rate limit of the command.
+     *
+     * @param player - the player
+     * @param registeredCommand - the command
+     *
+     * @return - the {@link FoxCommandResult} if the player has to wait or else {@code null}
+     */
+    @Nullable
+    private FoxCommandResult throttle(Player player, RegisteredCommand registeredCommand) {
+
+        if (registeredCommand.getCooldown() == null && registeredCommand.getRateLimit() == null) return null;
+
+        CommandThrottle commandThrottle = FoxCommandAPI.getInstance().getCommandThrottle();
+
+        RateLimit reached = commandThrottle.tryAcquire(player, registeredCommand);
+        if (reached == null) return null;
+
+        player.sendMessage(reached.getMessage(commandThrottle.getWait(player, registeredCommand, reached)));
+        return reached.isCooldown() ? FoxCommandResult.ON_COOLDOWN : FoxCommandResult.RATE_LIMITED;
+    }
+
+    /**
+     * Record the result of a dispatch in the metrics of the command it resolved to.
+     *
+     * Dispatches that didn't resolve to a command are attributed to the first command
+     * below the deepest node they reached, or to the unresolved counter if there's none.
+     *
+     * @param frame - the frame of the dispatch
+     * @param result - the result of the dispatch
+     * @param latency - the time the dispatch took, in nanoseconds
+     */
+    private void recordMetrics(ArgumentFrame frame, FoxCommandResult result, long latency) {
+
+        RegisteredCommand registeredCommand = frame.getResolvedCommand();
+
+        if (registeredCommand == null && frame.getDeepestNode() != null) {
+            registeredCommand = findCommand(frame.getDeepestNode());
+        }
+
+        if (registeredCommand == null) {
+            unresolvedDispatches.increment();
+            return;
+        }
+
+        registeredCommand.getMetrics().record(result, latency);
+    }
+
+    /**
+     * Find the first command in the subtree of the node.
+     *
+     * @param node - the root of the subtree
+     * @return - the command or {@code null} if the subtree doesn't contain any
+     */
+    private RegisteredCommand findCommand(FoxCommandNode<?> node) {
+
+        if (node.getRegisteredCommand() != null) return node.getRegisteredCommand();
+
+        List<FoxCommandNode<?>> children = node.getChildren();
+
+        for (int i = 0, size = children.size(); i < size; i++) {
+            RegisteredCommand registeredCommand = findCommand(children.get(i));
+            if (registeredCommand != null) return registeredCommand;
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the amount of dispatches that couldn't be attributed to any command.
+     *
+     * @return - the amount of unresolved dispatches
+     */
+    public long getUnresolvedDispatches() {
+        return unresolvedDispatches.sum();
     }
 
+    /**
+     * Get the help index of the current version of the tree, it's only built again after the tree has changed.
+     *
+     * @return - the help index
+     */
+    public HelpIndex getHelpIndex() {
+
+        FoxCommandNode<?> currentRoot = root.get();
+        HelpIndex index = helpIndex;
 
+        // Threads that see the change at the same time may both build the index, they're equal so either one can be kept
+        if (index == null || index.getRoot() != currentRoot) {
+            index = new HelpIndex(currentRoot);
+            helpIndex = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * Get the cache of resolved command lines.
+     *
+     * @return - the cache
+     */
+    public CommandLineCache getLineCache() {
+        return lineCache;
+    }
+
+    /**
+     * Get the root of the current version of the tree, it doesn't change when commands are added later.
+     *
+     * @return - the root node
+     */
     public FoxCommandNode<?> getRoot() {
-        return root;
+        return root.get();
     }
 }
@@ -0,0 +1,63 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The rest of the command line, including its spaces.
+ *
+ * A handler parameter of this type consumes all the remaining arguments, so it has to be the last parameter.
+ * This is meant for arguments like reasons and messages, which the handler would otherwise have to join again.
+ */
+public final class GreedyString implements CharSequence {
+
+    private final String value;
+
+    /**
+     * Construct a new {@link GreedyString}.
+     *
+     * @param value - the rest of the command line
+     */
+    public GreedyString(@NotNull String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the rest of the command line.
+     *
+     * @return - the rest of the command line
+     */
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public int length() {
+        return value.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return value.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return value.subSequence(start, end);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof GreedyString && value.equals(((GreedyString) obj).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return value;
+    }
+}
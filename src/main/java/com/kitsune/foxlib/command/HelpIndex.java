@@ -0,0 +1,221 @@
+package com.kitsune.foxlib.command;
+
+import net.md_5.bungee.api.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The help entries of all commands in a version of the {@link FoxCommandTree}, grouped by their label.
+ *
+ * The lines of the entries are built and colour translated once, when the index is built for a new version
+ * of the tree. A page only checks the permissions of the entries up to the end of that page, the permissions
+ * come from the {@link PermissionCache}, so showing help doesn't depend on the amount of commands a sender can't see.
+ */
+public class HelpIndex {
+
+    /** The root of the version of the tree the index has been built for */
+    private final FoxCommandNode<?> root;
+
+    /** The groups, sorted by their label */
+    private final List<Group> groups;
+
+    /** The groups by their lower case label and the labels of their aliases */
+    private final Map<String, Group> groupsByLabel;
+
+    /**
+     * The commands with the same label.
+     */
+    private static final class Group {
+
+        private final String header;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Group(String label) {
+            this.header = ChatColor.GOLD + "/" + label + " commands";
+        }
+    }
+
+    /**
+     * The help line of a command.
+     */
+    private static final class Entry {
+
+        private final RegisteredCommand registeredCommand;
+        private final String line;
+
+        private Entry(RegisteredCommand registeredCommand) {
+
+            String usage = registeredCommand.getUsage();
+            String description = registeredCommand.getDescription();
+
+            if (usage.isEmpty() || usage.equals(FoxCommand.NO_USAGE)) usage = "/" + registeredCommand.getPath();
+            if (description.equals(FoxCommand.NO_DESCRIPTION)) description = "";
+
+            this.registeredCommand = registeredCommand;
+            this.line = ChatColor.YELLOW + ChatColor.translateAlternateColorCodes('&', usage)
+                    + (description.isEmpty() ? "" : ChatColor.GRAY + " - " + ChatColor.translateAlternateColorCodes('&', description));
+        }
+    }
+
+    /**
+     * A page of help lines.
+     */
+    public static final class Page {
+
+        private final List<String> lines;
+        private final boolean hasNext;
+
+        private Page(List<String> lines, boolean hasNext) {
+            this.lines = lines;
+            this.hasNext = hasNext;
+        }
+
+        /**
+         * Get the lines of the page, the header of a group precedes its first entry on the page.
+         *
+         * @return - the lines, empty if the page is beyond the last one
+         */
+        public List<String> getLines() {
+            return lines;
+        }
+
+        /**
+         * Get whether the sender can see any entries after this page.
+         *
+         * @return - {@code true} if there's a next page or else {@code false}
+         */
+        public boolean hasNext() {
+            return hasNext;
+        }
+    }
+
+    /**
+     * Build the index of a version of the tree.
+     *
+     * @param root - the root of the tree
+     */
+    HelpIndex(@NotNull FoxCommandNode<?> root) {
+
+        this.root = root;
+
+        // Aliases put a command at several nodes, it only gets one entry
+        Set<RegisteredCommand> registeredCommands = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(root, registeredCommands);
+
+        Map<String, Group> groupsByMainLabel = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        // Overloads of a command usually share their usage, they only get one entry if they also share their permission
+        Set<String> lines = new HashSet<>();
+
+        for (RegisteredCommand registeredCommand : registeredCommands) {
+
+            Entry entry = new Entry(registeredCommand);
+
+            if (lines.add(entry.line + '\0' + registeredCommand.getPermission())) {
+                groupsByMainLabel.computeIfAbsent(registeredCommand.getLabel(), Group::new).entries.add(entry);
+            }
+        }
+
+        this.groups = new ArrayList<>(groupsByMainLabel.values());
+        this.groupsByLabel = new HashMap<>();
+
+        for (Group group : groups) {
+
+            group.entries.sort(Comparator.comparing(entry -> entry.registeredCommand.getPath(), String.CASE_INSENSITIVE_ORDER));
+
+            for (Entry entry : group.entries) {
+
+                groupsByLabel.putIfAbsent(entry.registeredCommand.getLabel().toLowerCase(Locale.ENGLISH), group);
+
+                for (String alias : entry.registeredCommand.getAliases()) {
+                    String[] aliasPath = CommandInput.split(alias);
+                    if (aliasPath.length > 0) groupsByLabel.putIfAbsent(aliasPath[0].toLowerCase(Locale.ENGLISH), group);
+                }
+            }
+        }
+    }
+
+    private static void collect(FoxCommandNode<?> node, Set<RegisteredCommand> registeredCommands) {
+
+        if (node.getRegisteredCommand() != null) registeredCommands.add(node.getRegisteredCommand());
+
+        List<FoxCommandNode<?>> children = node.getChildren();
+
+        for (int i = 0, size = children.size(); i < size; i++) {
+            collect(children.get(i), registeredCommands);
+        }
+    }
+
+    /**
+     * Get a page of the help lines of the commands the sender is allowed to run.
+     *
+     * @param commandSender - the command sender
+     * @param label - the label or alias of the commands to show, {@code null} for all commands
+     * @param page - the index of the page, starting at {@code 0}
+     * @param pageSize - the amount of entries per page
+     *
+     * @return - the page
+     */
+    @NotNull
+    public Page getPage(@NotNull CommandSender commandSender, @Nullable String label, int page, int pageSize) {
+
+        List<Group> shownGroups = groups;
+
+        if (label != null) {
+            Group group = groupsByLabel.get(label.toLowerCase(Locale.ENGLISH));
+            shownGroups = group != null ? Collections.singletonList(group) : Collections.emptyList();
+        }
+
+        PermissionCache permissionCache = FoxCommandAPI.getInstance().getPermissionCache();
+
+        int first = Math.max(page, 0) * pageSize;
+        int visible = 0;
+
+        List<String> lines = new ArrayList<>();
+
+        for (Group group : shownGroups) {
+
+            boolean headerShown = false;
+
+            for (Entry entry : group.entries) {
+
+                if (!permissionCache.hasPermission(commandSender, entry.registeredCommand)) continue;
+
+                // Stop once an entry after the page has been found, the rest doesn't have to be checked
+                if (visible++ >= first + pageSize) return new Page(lines, true);
+                if (visible <= first) continue;
+
+                if (!headerShown) {
+                    lines.add(group.header);
+                    headerShown = true;
+                }
+
+                lines.add(entry.line);
+            }
+        }
+
+        return new Page(lines, false);
+    }
+
+    /**
+     * Get the root of the version of the tree the index has been built for.
+     *
+     * @return - the root
+     */
+    FoxCommandNode<?> getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,40 @@
+package com.kitsune.foxlib.command;
+
+/**
+ * An {@link ArgumentParser} that parses arguments to a {@code int} without boxing them.
+ */
+public interface IntArgumentParser extends ArgumentParser<Integer> {
+
+    /**
+     * Parse the argument, this is only called if {@link #matches(String)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    int parseInt(String argument);
+
+    /**
+     * Parse a view of the command line, this is only called if {@link #matches(CharSequence)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    default int parseInt(CharSequence argument) {
+        return parseInt(argument.toString());
+    }
+
+    @Override
+    boolean matches(String argument);
+
+    @Override
+    default Integer parse(String argument) {
+        return matches(argument) ? parseInt(argument) : null;
+    }
+
+    @Override
+    default int getPriority() {
+        return PRIORITY_INT;
+    }
+}
@@ -0,0 +1,221 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * Defines a class that implements {@link CommandInvoker} by calling a single {@link MethodHandle}.
+ *
+ * The handle is held in a {@code static final} field of the class, which the JIT treats as a constant,
+ * so it can inline the handle and the handler behind it into {@link CommandInvoker#invoke(ArgumentFrame)}.
+ * A handle held in a field of an invoker instance isn't a constant and is called without inlining.
+ *
+ * Every invoker class gets its own loader, so the class can be unloaded once its command is unregistered.
+ * The static initializer of the class reads the handle from its loader through {@link Supplier#get()}.
+ */
+final class InvokerClassLoader extends ClassLoader implements Supplier<Object> {
+
+    /** The type of the handle that's called by the invoker */
+    static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, ArgumentFrame.class);
+
+    /** The name of the invoker class, it's the only class of the loader so the name doesn't have to be unique */
+    private static final String CLASS_NAME = "com/kitsune/foxlib/command/CommandInvoker$Generated";
+
+    /** The constant pool tags */
+    private static final int UTF8 = 1, CLASS = 7, FIELD_REF = 9, METHOD_REF = 10, INTERFACE_METHOD_REF = 11, NAME_AND_TYPE = 12;
+
+    /** The handle of the invoker class, read once by its static initializer */
+    private final MethodHandle handle;
+
+    private InvokerClassLoader(MethodHandle handle) {
+        super(CommandInvoker.class.getClassLoader());
+        this.handle = handle;
+    }
+
+    @Override
+    public Object get() {
+        return handle;
+    }
+
+    /**
+     * Create an invoker that calls the specified handle.
+     *
+     * @param handle - the handle, of the type {@link #INVOKER_TYPE}
+     *
+     * @return - the command invoker
+     */
+    @NotNull
+    static CommandInvoker define(@NotNull MethodHandle handle) {
+
+        if (!handle.type().equals(INVOKER_TYPE)) {
+            throw new IllegalArgumentException("The handle has to be of the type " + INVOKER_TYPE + " but is " + handle.type());
+        }
+
+        byte[] bytes = createClass();
+        Class<?> type = new InvokerClassLoader(handle).defineClass(CLASS_NAME.replace('/', '.'), bytes, 0, bytes.length);
+
+        try {
+            return (CommandInvoker) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create the invoker!", e);
+        }
+    }
+
+    /**
+     * Write the class file of the invoker class, which is the same for every handle:
+     *
+     * <pre>
+     * public final class CommandInvoker$Generated implements CommandInvoker {
+     *
+     *     private static final MethodHandle HANDLE = (MethodHandle) ((Supplier) CommandInvoker$Generated.class.getClassLoader()).get();
+     *
+     *     public void invoke(ArgumentFrame frame) throws Throwable {
+     *         HANDLE.invokeExact(frame);
+     *     }
+     * }
+     * </pre>
+     *
+     * @return - the class file
+     */
+    private static byte[] createClass() {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+
+            // The constant pool, entries are referenced by their index starting at 1
+            out.writeShort(36);
+            utf8(out, CLASS_NAME);                                          // 1
+            reference(out, CLASS, 1);                                       // 2
+            utf8(out, "java/lang/Object");                                  // 3
+            reference(out, CLASS, 3);                                       // 4
+            utf8(out, "com/kitsune/foxlib/command/CommandInvoker");         // 5
+            reference(out, CLASS, 5);                                       // 6
+            utf8(out, "HANDLE");                                            // 7
+            utf8(out, "Ljava/lang/invoke/MethodHandle;");                   // 8
+            reference(out, NAME_AND_TYPE, 7, 8);                            // 9
+            reference(out, FIELD_REF, 2, 9);                                // 10
+            utf8(out, "<init>");                                            // 11
+            utf8(out, "()V");                                               // 12
+            reference(out, NAME_AND_TYPE, 11, 12);                          // 13
+            reference(out, METHOD_REF, 4, 13);                              // 14
+            utf8(out, "<clinit>");                                          // 15
+            utf8(out, "invoke");                                            // 16
+            utf8(out, INVOKER_TYPE.toMethodDescriptorString());             // 17
+            utf8(out, "java/lang/invoke/MethodHandle");                     // 18
+            reference(out, CLASS, 18);                                      // 19
+            utf8(out, "invokeExact");                                       // 20
+            reference(out, NAME_AND_TYPE, 20, 17);                          // 21
+            reference(out, METHOD_REF, 19, 21);                             // 22
+            utf8(out, "java/lang/Class");                                   // 23
+            reference(out, CLASS, 23);                                      // 24
+            utf8(out, "getClassLoader");                                    // 25
+            utf8(out, "()Ljava/lang/ClassLoader;");                         // 26
+            reference(out, NAME_AND_TYPE, 25, 26);                          // 27
+            reference(out, METHOD_REF, 24, 27);                             // 28
+            utf8(out, "java/util/function/Supplier");                       // 29
+            reference(out, CLASS, 29);                                      // 30
+            utf8(out, "get");                                               // 31
+            utf8(out, "()Ljava/lang/Object;");                              // 32
+            reference(out, NAME_AND_TYPE, 31, 32);                          // 33
+            reference(out, INTERFACE_METHOD_REF, 30, 33);                   // 34
+            utf8(out, "Code");                                              // 35
+
+            // public final synthetic, super, implements CommandInvoker
+            out.writeShort(0x1011 | 0x0020);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(1);
+            out.writeShort(6);
+
+            // private static final MethodHandle HANDLE
+            out.writeShort(1);
+            out.writeShort(0x0002 | 0x0008 | 0x0010);
+            out.writeShort(7);
+            out.writeShort(8);
+            out.writeShort(0);
+
+            out.writeShort(3);
+
+            // public <init>(), calls the constructor of Object
+            method(out, 0x0001, 11, 12, 1, 1, new byte[]{
+                    0x2A,                                   // aload_0
+                    (byte) 0xB7, 0, 14,                     // invokespecial Object.<init>
+                    (byte) 0xB1                             // return
+            });
+
+            // static <clinit>(), reads the handle from the loader of the class
+            method(out, 0x0008, 15, 12, 1, 0, new byte[]{
+                    0x12, 2,                                // ldc CommandInvoker$Generated.class
+                    (byte) 0xB6, 0, 28,                     // invokevirtual Class.getClassLoader
+                    (byte) 0xC0, 0, 30,                     // checkcast Supplier
+                    (byte) 0xB9, 0, 34, 1, 0,               // invokeinterface Supplier.get
+                    (byte) 0xC0, 0, 19,                     // checkcast MethodHandle
+                    (byte) 0xB3, 0, 10,                     // putstatic HANDLE
+                    (byte) 0xB1                             // return
+            });
+
+            // public invoke(ArgumentFrame), calls the constant handle
+            method(out, 0x0001, 16, 17, 2, 2, new byte[]{
+                    (byte) 0xB2, 0, 10,                     // getstatic HANDLE
+                    0x2B,                                   // aload_1
+                    (byte) 0xB6, 0, 22,                     // invokevirtual MethodHandle.invokeExact
+                    (byte) 0xB1                             // return
+            });
+
+            // No class attributes
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void utf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(UTF8);
+        out.writeUTF(value);
+    }
+
+    private static void reference(DataOutputStream out, int tag, int... indices) throws IOException {
+
+        out.writeByte(tag);
+
+        for (int index : indices) {
+            out.writeShort(index);
+        }
+    }
+
+    /**
+     * Write a method with only a code attribute, the code can't have any branches as there's no stack map.
+     */
+    private static void method(DataOutputStream out, int access, int name, int descriptor, int maxStack, int maxLocals, byte[] code) throws IOException {
+
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+
+        out.writeShort(1);
+        out.writeShort(35);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+
+        // No exception table and no attributes
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.kitsune.foxlib.command;
+
+/**
+ * An {@link ArgumentParser} that parses arguments to a {@code long} without boxing them.
+ */
+public interface LongArgumentParser extends ArgumentParser<Long> {
+
+    /**
+     * Parse the argument, this is only called if {@link #matches(String)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    long parseLong(String argument);
+
+    /**
+     * Parse a view of the command line, this is only called if {@link #matches(CharSequence)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    default long parseLong(CharSequence argument) {
+        return parseLong(argument.toString());
+    }
+
+    @Override
+    boolean matches(String argument);
+
+    @Override
+    default Long parse(String argument) {
+        return matches(argument) ? parseLong(argument) : null;
+    }
+
+    @Override
+    default int getPriority() {
+        return PRIORITY_LONG;
+    }
+}
@@ -0,0 +1,98 @@
+package com.kitsune.foxlib.command;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The state of a dispatch that's passed to a {@link ContextualArgumentParser}: the command sender,
+ * the position of the argument and the arguments that have been parsed before it.
+ *
+ * The context of a dispatch is reused for every argument, so it must not be kept by a parser.
+ */
+public final class ParseContext {
+
+    /** The frame that holds the previous arguments, {@code null} if they're not known */
+    private final ArgumentFrame frame;
+
+    private CommandSender commandSender;
+    private int position;
+    private int argumentCount;
+
+    /**
+     * Construct a new {@link ParseContext} for the arguments of a frame.
+     *
+     * @param frame - the frame
+     */
+    ParseContext(ArgumentFrame frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * Construct a new {@link ParseContext} without any previous arguments, used for tab completion.
+     *
+     * @param commandSender - the command sender, {@code null} if there's none
+     * @param position - the position of the argument
+     */
+    public ParseContext(@Nullable CommandSender commandSender, int position) {
+        this.frame = null;
+        this.commandSender = commandSender;
+        this.position = position;
+    }
+
+    /**
+     * Point the context at the next argument that's parsed.
+     *
+     * @param commandSender - the command sender
+     * @param position - the position of the argument
+     * @param argumentCount - the amount of arguments that have been parsed before it
+     */
+    void set(CommandSender commandSender, int position, int argumentCount) {
+        this.commandSender = commandSender;
+        this.position = position;
+        this.argumentCount = argumentCount;
+    }
+
+    /**
+     * Get the sender of the command.
+     *
+     * @return - the command sender, {@code null} if the argument is parsed outside of a command
+     */
+    @Nullable
+    public CommandSender getSender() {
+        return commandSender;
+    }
+
+    /**
+     * Get the position of the argument in the command line, without the label.
+     *
+     * @return - the position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the amount of typed arguments that have been parsed before this one, literal arguments aren't included.
+     *
+     * @return - the amount of arguments
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+
+    /**
+     * Get a typed argument that has been parsed before this one.
+     *
+     * @param index - the index of the argument, in the order of the handler's parameters without the sender
+     *
+     * @return - the argument
+     */
+    public Object getArgument(int index) {
+
+        if (index < 0 || index >= argumentCount) {
+            throw new IndexOutOfBoundsException("Argument " + index + " hasn't been parsed, " + argumentCount + " arguments have");
+        }
+
+        return frame.get(index + 1);
+    }
+}
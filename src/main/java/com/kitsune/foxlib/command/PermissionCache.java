@@ -0,0 +1,144 @@
+package com.kitsune.foxlib.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caches which {@link RegisteredCommand}s a player is allowed to run.
+ *
+ * Every registered command has an index, for every player the cache stores two bits per index:
+ * whether the permission has been resolved and whether the player is allowed to run the command.
+ * Permissions are resolved lazily the first time they're needed, after that a permission check is
+ * a single bit test. Indices are reused after a command is unregistered, so the bits of an index
+ * are forgotten before it's given to another command.
+ *
+ * Only players are cached, other senders (console, command blocks) are checked directly because
+ * they're either cheap to check or created for every command.
+ */
+public class PermissionCache {
+
+    /** The amount of commands a single long word holds */
+    private static final int COMMANDS_PER_WORD = Long.SIZE / 2;
+
+    /** The permission bits of every player */
+    private final Map<CommandSender, AtomicLongArray> permissions;
+
+    /**
+     * Construct a new, empty {@link PermissionCache}.
+     */
+    public PermissionCache() {
+        this.permissions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get whether the command sender is allowed to run the command.
+     *
+     * @param commandSender - the command sender
+     * @param registeredCommand - the command
+     *
+     * @return - {@code true} if the sender is allowed to run the command or else {@code false}
+     */
+    public boolean hasPermission(@NotNull CommandSender commandSender, @NotNull RegisteredCommand registeredCommand) {
+
+        // Commands without a permission don't need to be cached
+        if (registeredCommand.getPermission().isEmpty()) return true;
+
+        int index = registeredCommand.getIndex();
+
+        // Commands that aren't registered don't have an index
+        if (!(commandSender instanceof Player) || index < 0) return registeredCommand.testPermission(commandSender);
+
+        int word = index / COMMANDS_PER_WORD;
+        int shift = (index % COMMANDS_PER_WORD) * 2;
+
+        AtomicLongArray bits = getBits(commandSender, word);
+        long value = bits.get(word);
+
+        // Check the resolved bit, if it's set the allowed bit is valid
+        if ((value & (1L << shift)) != 0) {
+            return (value & (2L << shift)) != 0;
+        }
+
+        boolean allowed = registeredCommand.testPermission(commandSender);
+        long resolved = (allowed ? 3L : 1L) << shift;
+
+        // Both bits are set at once, so other threads never see a resolved bit without its allowed bit
+        long current;
+        do {
+            current = bits.get(word);
+        } while (!bits.compareAndSet(word, current, current | resolved));
+
+        return allowed;
+    }
+
+    /**
+     * Forget all cached permissions of the command sender, they'll be resolved again when they're needed.
+     *
+     * This should be called whenever the permissions of the sender might have changed.
+     *
+     * @param commandSender - the command sender
+     */
+    public void invalidate(@NotNull CommandSender commandSender) {
+        permissions.remove(commandSender);
+    }
+
+    /**
+     * Forget all cached permissions.
+     */
+    public void invalidateAll() {
+        permissions.clear();
+    }
+
+    /**
+     * Forget the cached permissions of the command index for every player, called before the index is reused.
+     *
+     * @param index - the index
+     */
+    void forget(int index) {
+
+        int word = index / COMMANDS_PER_WORD;
+        long mask = ~(3L << ((index % COMMANDS_PER_WORD) * 2));
+
+        for (AtomicLongArray bits : permissions.values()) {
+
+            if (bits.length() <= word) continue;
+
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & ~mask) != 0 && !bits.compareAndSet(word, current, current & mask));
+        }
+    }
+
+    /**
+     * Get the bits of the command sender, making sure they can hold the specified word.
+     */
+    private AtomicLongArray getBits(CommandSender commandSender, int word) {
+
+        AtomicLongArray bits = permissions.get(commandSender);
+
+        if (bits != null && bits.length() > word) return bits;
+
+        // Double the bits, indices are reused so they never grow past the amount of registered commands
+        int words = Math.max(word + 1, bits != null ? bits.length() * 2 : 1);
+
+        return permissions.compute(commandSender, (sender, old) -> {
+
+            // Another thread might have grown the bits already
+            if (old != null && old.length() > word) return old;
+
+            AtomicLongArray grown = new AtomicLongArray(words);
+
+            if (old != null) {
+                for (int i = 0; i < old.length(); i++) grown.set(i, old.get(i));
+            }
+
+            return grown;
+        });
+    }
+}
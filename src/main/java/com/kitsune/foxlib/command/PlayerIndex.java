@@ -0,0 +1,305 @@
+package com.kitsune.foxlib.command;
+
+import com.kitsune.foxlib.FoxLib;
+import com.kitsune.foxlib.util.CaseInsensitiveIndex;
+import com.kitsune.foxlib.util.Log;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The players by their name, ignoring case, and by their unique id.
+ *
+ * {@link Bukkit#getPlayer(String)} scans all online players for a name that starts with the argument, so the
+ * player parsers look players up in this index instead, which is a single hash lookup that doesn't allocate. The online
+ * players are added when they join and removed when they quit. The players that have been online most recently
+ * are remembered by name so they can be found while they're offline, up to a maximum amount of players.
+ */
+public class PlayerIndex {
+
+    /** The amount of players that have been online before that are remembered by default */
+    public static final int DEFAULT_MAX_KNOWN_PLAYERS = 10_000;
+
+    /** The longest name a player can have */
+    private static final int MAX_NAME_LENGTH = 16;
+
+    /** The length of a unique id with dashes */
+    private static final int UUID_LENGTH = 36;
+
+    /** Guards the changes to the online players and all access to the known players */
+    private final Object lock = new Object();
+
+    /** The online players by their name, a new copy is made when a player joins or quits so lookups don't need the lock */
+    private volatile CaseInsensitiveIndex<Player> onlinePlayersByName;
+
+    /** The online players by their unique id */
+    private final Map<UUID, Player> onlinePlayersById;
+
+    /** The players that have been online before by their name */
+    private final CaseInsensitiveIndex<KnownPlayer> knownPlayers;
+
+    /** The known players in the order they've been seen, a player that's seen again leaves an outdated entry behind */
+    private final ArrayDeque<KnownPlayer> knownOrder;
+
+    /** The maximum amount of known players, the players that haven't been seen for the longest are forgotten first */
+    private final int maxKnownPlayers;
+
+    /**
+     * A player that has been online before.
+     */
+    private static final class KnownPlayer {
+
+        private final String name;
+        private final UUID uniqueId;
+
+        private KnownPlayer(String name, UUID uniqueId) {
+            this.name = name;
+            this.uniqueId = uniqueId;
+        }
+    }
+
+    /**
+     * Construct a new, empty {@link PlayerIndex} that remembers {@link #DEFAULT_MAX_KNOWN_PLAYERS} players.
+     */
+    public PlayerIndex() {
+        this(DEFAULT_MAX_KNOWN_PLAYERS);
+    }
+
+    /**
+     * Construct a new, empty {@link PlayerIndex}.
+     *
+     * @param maxKnownPlayers - the maximum amount of players that have been online before that are remembered
+     */
+    public PlayerIndex(int maxKnownPlayers) {
+        this.onlinePlayersByName = new CaseInsensitiveIndex<>();
+        this.onlinePlayersById = new ConcurrentHashMap<>();
+        this.knownPlayers = new CaseInsensitiveIndex<>();
+        this.knownOrder = new ArrayDeque<>();
+        this.maxKnownPlayers = maxKnownPlayers;
+    }
+
+    /**
+     * Add the players that are online and the players that have been online before, used when
+     * the index is created while the server is already running.
+     */
+    void load() {
+
+        if (Bukkit.getServer() == null) return;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            add(player);
+        }
+
+        // The server reads the data file of every player that has been online before, so that's done off the server thread
+        if (FoxLib.getInstance() != null) {
+            Bukkit.getScheduler().runTaskAsynchronously(FoxLib.getInstance(), this::loadKnownPlayers);
+        }
+    }
+
+    /**
+     * Remember the players that have been online most recently.
+     */
+    private void loadKnownPlayers() {
+
+        OfflinePlayer[] offlinePlayers = Bukkit.getOfflinePlayers();
+        Arrays.sort(offlinePlayers, Comparator.comparingLong(OfflinePlayer::getLastPlayed));
+
+        int known;
+
+        synchronized (lock) {
+
+            // These players have been seen before the players that joined in the meantime, so they're forgotten first
+            for (int i = offlinePlayers.length - 1; i >= Math.max(0, offlinePlayers.length - maxKnownPlayers); i--) {
+
+                String name = offlinePlayers[i].getName();
+                if (name == null || knownPlayers.containsKey(name)) continue;
+
+                KnownPlayer knownPlayer = new KnownPlayer(name, offlinePlayers[i].getUniqueId());
+                knownPlayers.put(name, knownPlayer);
+                knownOrder.addFirst(knownPlayer);
+            }
+
+            trimKnownPlayers();
+            known = knownPlayers.size();
+        }
+
+        Log.info("Player Index", "Remembered {} players that have been online before", known);
+    }
+
+    /**
+     * Add a player that joined, this is called by the {@link FoxCommandListener}.
+     *
+     * @param player - the player
+     */
+    public void add(@NotNull Player player) {
+
+        synchronized (lock) {
+
+            CaseInsensitiveIndex<Player> updated = new CaseInsensitiveIndex<>(onlinePlayersByName);
+            updated.put(player.getName(), player);
+            onlinePlayersByName = updated;
+
+            onlinePlayersById.put(player.getUniqueId(), player);
+
+            KnownPlayer knownPlayer = new KnownPlayer(player.getName(), player.getUniqueId());
+            knownPlayers.put(player.getName(), knownPlayer);
+            knownOrder.addLast(knownPlayer);
+            trimKnownPlayers();
+        }
+    }
+
+    /**
+     * Remove a player that quit, unless the player has already been replaced by a new login.
+     * This is called by the {@link FoxCommandListener}.
+     *
+     * @param player - the player
+     */
+    public void remove(@NotNull Player player) {
+
+        synchronized (lock) {
+
+            if (onlinePlayersByName.get(player.getName()) == player) {
+                CaseInsensitiveIndex<Player> updated = new CaseInsensitiveIndex<>(onlinePlayersByName);
+                updated.remove(player.getName());
+                onlinePlayersByName = updated;
+            }
+
+            onlinePlayersById.remove(player.getUniqueId(), player);
+        }
+    }
+
+    /**
+     * Forget the players that haven't been seen for the longest, until there are no more than the maximum.
+     */
+    private void trimKnownPlayers() {
+
+        while (knownPlayers.size() > maxKnownPlayers) {
+
+            KnownPlayer oldest = knownOrder.pollFirst();
+            if (knownPlayers.get(oldest.name) == oldest) knownPlayers.remove(oldest.name);
+        }
+
+        // Drop the outdated entries of players that have been seen again, so the order doesn't grow with every join
+        if (knownOrder.size() > Math.max(maxKnownPlayers, knownPlayers.size()) * 2) {
+            knownOrder.removeIf(knownPlayer -> knownPlayers.get(knownPlayer.name) != knownPlayer);
+        }
+    }
+
+    /**
+     * Get an online player by their exact name, ignoring case, or by their unique id.
+     *
+     * @param nameOrId - the name or the unique id
+     *
+     * @return - the player or {@code null} if there's no such player online
+     */
+    @Nullable
+    public Player getPlayer(@NotNull CharSequence nameOrId) {
+
+        if (nameOrId.length() <= MAX_NAME_LENGTH) return onlinePlayersByName.get(nameOrId);
+
+        UUID uniqueId = parseUniqueId(nameOrId);
+        return uniqueId != null ? onlinePlayersById.get(uniqueId) : null;
+    }
+
+    /**
+     * Get the unique id of a player by their exact name, ignoring case, or by their unique id.
+     * A name is only found if the player is online or has been online recently.
+     *
+     * @param nameOrId - the name or the unique id
+     *
+     * @return - the unique id or {@code null} if the player isn't known
+     */
+    @Nullable
+    public UUID getUniqueId(@NotNull CharSequence nameOrId) {
+
+        Player player = getPlayer(nameOrId);
+        if (player != null) return player.getUniqueId();
+
+        if (nameOrId.length() > MAX_NAME_LENGTH) return parseUniqueId(nameOrId);
+
+        synchronized (lock) {
+            KnownPlayer knownPlayer = knownPlayers.get(nameOrId);
+            return knownPlayer != null ? knownPlayer.uniqueId : null;
+        }
+    }
+
+    /**
+     * Get a player by their exact name, ignoring case, or by their unique id. Online players are returned
+     * as a {@link Player}, a name is only found if the player has been online recently.
+     *
+     * @param nameOrId - the name or the unique id
+     *
+     * @return - the player or {@code null} if the player isn't known
+     */
+    @Nullable
+    public OfflinePlayer getOfflinePlayer(@NotNull CharSequence nameOrId) {
+
+        Player player = getPlayer(nameOrId);
+        if (player != null) return player;
+
+        UUID uniqueId = getUniqueId(nameOrId);
+
+        return uniqueId != null && Bukkit.getServer() != null ? Bukkit.getOfflinePlayer(uniqueId) : null;
+    }
+
+    /**
+     * Get the names of the online players that start with the prefix, ignoring case.
+     *
+     * @param prefix - the prefix
+     * @param viewer - the player the names are suggested to, players the viewer can't see are left out
+     *
+     * @return - the names
+     */
+    @NotNull
+    public List<String> getNames(@NotNull String prefix, @Nullable Player viewer) {
+
+        List<String> names = new ArrayList<>();
+
+        for (Player player : onlinePlayersById.values()) {
+
+            if (viewer != null && !viewer.canSee(player)) continue;
+            if (player.getName().regionMatches(true, 0, prefix, 0, prefix.length())) names.add(player.getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Get the amount of online players.
+     *
+     * @return - the amount of players
+     */
+    public int size() {
+        return onlinePlayersById.size();
+    }
+
+    /**
+     * Parse a unique id with dashes, without throwing an exception if it isn't one.
+     */
+    @Nullable
+    private static UUID parseUniqueId(CharSequence argument) {
+
+        if (argument.length() != UUID_LENGTH) return null;
+
+        for (int i = 0; i < UUID_LENGTH; i++) {
+
+            char c = argument.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+
+            if (dash ? c != '-' : Character.digit(c, 16) < 0) return null;
+        }
+
+        return UUID.fromString(argument.toString());
+    }
+}
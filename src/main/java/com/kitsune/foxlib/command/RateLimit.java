@@ -0,0 +1,92 @@
+package com.kitsune.foxlib.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A limit on how often a player can run a command, enforced by the {@link CommandThrottle}.
+ *
+ * Limits are token buckets that hold {@code burst} tokens and get a new token every {@code interval},
+ * a cooldown is a bucket that holds a single token. They're checked using the generic cell rate algorithm,
+ * which only has to remember a single timestamp per player: the time the bucket will be full again.
+ * The timestamps belong to the {@link RegisteredCommand} the limit is created for, so commands with the
+ * same path never share a bucket.
+ */
+public final class RateLimit {
+
+    /** Whether this is the cooldown of its command, which has its own timestamp next to the one of the rate limit */
+    private final boolean cooldown;
+
+    /** The time it takes to get a new token, in nanoseconds */
+    private final long interval;
+
+    /** How long the bucket can be ahead of the current time and still have a token, in nanoseconds */
+    private final long tolerance;
+
+    /** The message sent when the limit is reached, {@code {time}} is replaced by the time until the next token */
+    private final String message;
+
+    /**
+     * Construct a new {@link RateLimit}.
+     *
+     * @param cooldown - whether this is a cooldown
+     * @param interval - the time it takes to get a new token, in nanoseconds
+     * @param burst - the amount of tokens the bucket holds
+     * @param message - the message sent when the limit is reached
+     */
+    private RateLimit(boolean cooldown, long interval, int burst, String message) {
+        this.cooldown = cooldown;
+        this.interval = interval;
+        this.tolerance = interval * (burst - 1);
+        this.message = message;
+    }
+
+    /**
+     * Create a limit that makes a player wait between two uses of a command.
+     *
+     * @param cooldown - the cooldown in milliseconds
+     * @param message - the message sent when the command is on cooldown
+     *
+     * @return - the limit
+     */
+    public static RateLimit cooldown(long cooldown, @NotNull String message) {
+        return new RateLimit(true, TimeUnit.MILLISECONDS.toNanos(cooldown), 1, message);
+    }
+
+    /**
+     * Create a limit that lets a player use a command a number of times per period.
+     *
+     * @param limit - the amount of uses per period
+     * @param period - the period in milliseconds
+     * @param message - the message sent when the limit is reached
+     *
+     * @return - the limit
+     */
+    public static RateLimit perPeriod(int limit, long period, @NotNull String message) {
+        return new RateLimit(false, TimeUnit.MILLISECONDS.toNanos(period) / limit, limit, message);
+    }
+
+    boolean isCooldown() {
+        return cooldown;
+    }
+
+    long getInterval() {
+        return interval;
+    }
+
+    long getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Get the message sent when the limit is reached.
+     *
+     * @param wait - the time until the next token, in nanoseconds
+     *
+     * @return - the message
+     */
+    String getMessage(long wait) {
+        return message.replace("{time}", String.format("%.1fs", wait / 1_000_000_000.0));
+    }
+}
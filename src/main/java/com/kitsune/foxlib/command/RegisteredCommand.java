@@ -1,27 +1,228 @@
 package com.kitsune.foxlib.command;
 
+import net.md_5.bungee.api.ChatColor;
+import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 public class RegisteredCommand {
 
-    private final FoxCommand foxCommand;
+    /**
+     * The index of this command while it's registered, used to look up its permission in the {@link PermissionCache}.
+     * Indices are assigned by the {@link FoxCommandAPI} and reused once a command is unregistered, {@code -1} if it isn't registered
+     */
+    private volatile int index = -1;
+
+    /** The handler method, {@code null} if the invoker has been generated at compile time */
+    @Nullable
     private final Method method;
     private final Object instance;
+    private final String handlerName;
+
+    /** The annotation of the handler, looked up when it's first requested */
+    @Nullable
+    private volatile FoxCommand foxCommand;
+
+    /** The invoker that calls the command handler */
+    private final CommandInvoker invoker;
+
+    /** The metadata copied from the {@link FoxCommand} annotation */
+    private final String path;
+    private final String label;
+    private final String[] aliases;
+    private final String permission;
+    private final String noPermissionsMessage;
+    private final String description;
+    private final String usage;
+
+    /** Whether the handler runs off the server thread */
+    private final boolean async;
+
+    /** Limits how many handlers can run at the same time, {@code null} if there's no limit */
+    @Nullable
+    private final Semaphore concurrencyPermits;
+
+    /** The limits on how often a player can use the command, {@code null} if there's no limit */
+    @Nullable
+    private final RateLimit cooldown;
+    @Nullable
+    private final RateLimit rateLimit;
+
+    /** The dispatch metrics of this command */
+    private final CommandMetrics metrics;
+
+    /** Whether the permission is empty, meaning everyone can run the command */
+    private final boolean unrestricted;
+
+    /** Whether the permission is "op" */
+    private final boolean opOnly;
+
+    /** The parameter types of the handler, the first one is the sender type */
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * Construct a new {@link RegisteredCommand} from an annotated handler method.
+     *
+     * @param foxCommand - the {@link FoxCommand} annotation of the handler
+     * @param method - the handler method
+     * @param instance - the instance to invoke the handler on
+     *
+     * @throws IllegalAccessException - if the handler can't be accessed
+     */
+    public RegisteredCommand(@NotNull FoxCommand foxCommand, @NotNull Method method, @NotNull Object instance) throws IllegalAccessException {
+        this(foxCommand.path(), foxCommand.aliases().clone(), foxCommand.permission(), foxCommand.noPermissionsMessage(),
+                foxCommand.description(), foxCommand.usage(), foxCommand.async(), foxCommand.maxConcurrent(),
+                foxCommand.cooldown(), foxCommand.cooldownMessage(), foxCommand.rateLimit(), foxCommand.rateLimitPeriod(), foxCommand.rateLimitMessage(),
+                method, instance, method.getName(), method.getParameterTypes(), CommandInvoker.of(method, instance));
+    }
+
+    /**
+     * Construct a new {@link RegisteredCommand} with an invoker that has been generated at compile time.
+     *
+     * This is used by the registration tables generated for every class with {@link FoxCommand} methods,
+     * the values are the ones of the annotation.
+     *
+     * @param path - the path of the command
+     * @param aliases - the aliases of the command
+     * @param permission - the permission required to run the command
+     * @param noPermissionsMessage - the message sent when the sender doesn't have permission
+     * @param description - the description of the command
+     * @param usage - the usage of the command
+     * @param async - whether to run the handler off the server thread
+     * @param maxConcurrent - the maximum amount of handlers that can run at the same time, {@code 0} for no limit
+     * @param instance - the instance the handler belongs to
+     * @param handlerName - the name of the handler method
+     * @param parameterTypes - the parameter types of the handler, the first one is the sender type
+     * @param invoker - the invoker that calls the handler
+     */
+    public RegisteredCommand(@NotNull String path, @NotNull String[] aliases, @NotNull String permission, @NotNull String noPermissionsMessage,
+                             @NotNull String description, @NotNull String usage, boolean async, int maxConcurrent,
+                             @NotNull Object instance, @NotNull String handlerName, @NotNull Class<?>[] parameterTypes, @NotNull CommandInvoker invoker) {
+        this(path, aliases, permission, noPermissionsMessage, description, usage, async, maxConcurrent,
+                0, "", 0, 0, "", instance, handlerName, parameterTypes, invoker);
+    }
 
-    public RegisteredCommand(@NotNull FoxCommand foxCommand, @NotNull Method method, @NotNull Object instance) {
-        this.foxCommand = foxCommand;
+    /**
+     * Construct a new {@link RegisteredCommand} with an invoker that has been generated at compile time.
+     *
+     * @param path - the path of the command
+     * @param aliases - the aliases of the command
+     * @param permission - the permission required to run the command
+     * @param noPermissionsMessage - the message sent when the sender doesn't have permission
+     * @param description - the description of the command
+     * @param usage - the usage of the command
+     * @param async - whether to run the handler off the server thread
+     * @param maxConcurrent - the maximum amount of handlers that can run at the same time, {@code 0} for no limit
+     * @param cooldown - the cooldown in milliseconds, {@code 0} for no cooldown
+     * @param cooldownMessage - the message sent when the command is on cooldown
+     * @param rateLimit - the amount of uses per rate limit period, {@code 0} for no limit
+     * @param rateLimitPeriod - the rate limit period in milliseconds
+     * @param rateLimitMessage - the message sent when the rate limit is reached
+     * @param instance - the instance the handler belongs to
+     * @param handlerName - the name of the handler method
+     * @param parameterTypes - the parameter types of the handler, the first one is the sender type
+     * @param invoker - the invoker that calls the handler
+     */
+    public RegisteredCommand(@NotNull String path, @NotNull String[] aliases, @NotNull String permission, @NotNull String noPermissionsMessage,
+                             @NotNull String description, @NotNull String usage, boolean async, int maxConcurrent,
+                             long cooldown, @NotNull String cooldownMessage, int rateLimit, long rateLimitPeriod, @NotNull String rateLimitMessage,
+                             @NotNull Object instance, @NotNull String handlerName, @NotNull Class<?>[] parameterTypes, @NotNull CommandInvoker invoker) {
+        this(path, aliases, permission, noPermissionsMessage, description, usage, async, maxConcurrent,
+                cooldown, cooldownMessage, rateLimit, rateLimitPeriod, rateLimitMessage,
+                null, instance, handlerName, parameterTypes, invoker);
+    }
+
+    private RegisteredCommand(String path, String[] aliases, String permission, String noPermissionsMessage,
+                              String description, String usage, boolean async, int maxConcurrent,
+                              long cooldown, String cooldownMessage, int rateLimit, long rateLimitPeriod, String rateLimitMessage,
+                              Method method, Object instance, String handlerName, Class<?>[] parameterTypes, CommandInvoker invoker) {
         this.method = method;
         this.instance = instance;
+        this.handlerName = handlerName;
+        this.invoker = invoker;
+
+        this.path = path;
+        this.label = path.indexOf(' ') < 0 ? path : path.substring(0, path.indexOf(' '));
+        this.aliases = aliases;
+        this.permission = permission;
+        this.noPermissionsMessage = ChatColor.translateAlternateColorCodes('&', noPermissionsMessage);
+        this.description = description;
+        this.usage = usage;
+        this.async = async;
+        this.concurrencyPermits = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.cooldown = cooldown > 0 ? RateLimit.cooldown(cooldown, ChatColor.translateAlternateColorCodes('&', cooldownMessage)) : null;
+        this.rateLimit = rateLimit > 0 && rateLimitPeriod > 0 ? RateLimit.perPeriod(rateLimit, rateLimitPeriod, ChatColor.translateAlternateColorCodes('&', rateLimitMessage)) : null;
+
+        this.unrestricted = permission.isEmpty();
+        this.opOnly = permission.equalsIgnoreCase("op");
+        this.parameterTypes = parameterTypes;
+        this.metrics = new CommandMetrics();
+    }
+
+    /**
+     * Get whether the command sender is allowed to run this command.
+     *
+     * @param commandSender - the command sender
+     *
+     * @return - {@code true} if the sender has permission or else {@code false}
+     */
+    public boolean testPermission(@NotNull CommandSender commandSender) {
+        return unrestricted || (opOnly && commandSender.isOp()) || commandSender.hasPermission(permission);
+    }
+
+    /**
+     * Get the index of this command, no other registered command has the same index.
+     *
+     * @return - the index or {@code -1} if the command isn't registered
+     */
+    public int getIndex() {
+        return index;
     }
 
+    /**
+     * Set the index of this command, called by the {@link FoxCommandAPI} when the command is registered and unregistered.
+     *
+     * @param index - the index or {@code -1}
+     */
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Get the {@link FoxCommand} annotation of the handler.
+     *
+     * @return - the annotation
+     */
     public FoxCommand getFoxCommand() {
-        return foxCommand;
+
+        FoxCommand annotation = foxCommand;
+
+        // Commands generated at compile time only know the name and parameters of their handler
+        if (annotation == null) {
+            try {
+                Method handler = method != null ? method : instance.getClass().getDeclaredMethod(handlerName, parameterTypes);
+                annotation = handler.getAnnotation(FoxCommand.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("The handler of " + this + " doesn't exist!", e);
+            }
+
+            foxCommand = annotation;
+        }
+
+        return annotation;
     }
 
+    /**
+     * Get the handler method.
+     *
+     * @return - the method or {@code null} if the invoker has been generated at compile time
+     */
+    @Nullable
     public Method getMethod() {
         return method;
     }
@@ -30,8 +231,116 @@ public class RegisteredCommand {
         return instance;
     }
 
+    public CommandInvoker getInvoker() {
+        return invoker;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get the label of the command, the first argument of its path.
+     *
+     * @return - the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public String[] getAliases() {
+        return aliases;
+    }
+
+    public String getPermission() {
+        return permission;
+    }
+
+    /**
+     * Get the no permissions message, with the colour codes already translated.
+     *
+     * @return - the no permissions message
+     */
+    public String getNoPermissionsMessage() {
+        return noPermissionsMessage;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getUsage() {
+        return usage;
+    }
+
+    /**
+     * Get whether the handler runs off the server thread.
+     *
+     * @return - {@code true} if the command is asynchronous or else {@code false}
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Get the semaphore that limits how many handlers of this command can run at the same time.
+     *
+     * @return - the semaphore or {@code null} if there's no limit
+     */
+    @Nullable
+    public Semaphore getConcurrencyPermits() {
+        return concurrencyPermits;
+    }
+
+    /**
+     * Get the cooldown of the command.
+     *
+     * @return - the cooldown or {@code null} if the command doesn't have one
+     */
+    @Nullable
+    public RateLimit getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * Get the rate limit of the command.
+     *
+     * @return - the rate limit or {@code null} if the command doesn't have one
+     */
+    @Nullable
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Get the dispatch metrics of this command.
+     *
+     * @return - the metrics
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the type of command sender the handler accepts.
+     *
+     * @return - the sender type
+     */
+    public Class<?> getSenderType() {
+        return parameterTypes[0];
+    }
+
+    /**
+     * Get the parameter types of the handler, including the sender type.
+     *
+     * @return - the parameter types
+     */
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
     @Override
     public String toString() {
-        return instance.getClass().getName() + "#" + method.getName() + "(" + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(", ")) + ")";
+        return instance.getClass().getName() + "#" + handlerName + "(" + Arrays.stream(parameterTypes).map(Class::getSimpleName).collect(Collectors.joining(", ")) + ")";
     }
 }
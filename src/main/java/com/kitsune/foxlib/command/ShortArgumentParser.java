@@ -0,0 +1,40 @@
+package com.kitsune.foxlib.command;
+
+/**
+ * An {@link ArgumentParser} that parses arguments to a {@code short} without boxing them.
+ */
+public interface ShortArgumentParser extends ArgumentParser<Short> {
+
+    /**
+     * Parse the argument, this is only called if {@link #matches(String)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    short parseShort(String argument);
+
+    /**
+     * Parse a view of the command line, this is only called if {@link #matches(CharSequence)} returned {@code true}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the parsed value
+     */
+    default short parseShort(CharSequence argument) {
+        return parseShort(argument.toString());
+    }
+
+    @Override
+    boolean matches(String argument);
+
+    @Override
+    default Short parse(String argument) {
+        return matches(argument) ? parseShort(argument) : null;
+    }
+
+    @Override
+    default int getPriority() {
+        return PRIORITY_SHORT;
+    }
+}
@@ -1,13 +1,34 @@
 package com.kitsune.foxlib.command.impl;
 
 import com.kitsune.foxlib.FoxLib;
+import com.kitsune.foxlib.command.CommandMetrics;
+import com.kitsune.foxlib.command.CommandTraceRecorder;
 import com.kitsune.foxlib.command.FoxCommand;
 import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.HelpIndex;
+import com.kitsune.foxlib.command.RegisteredCommand;
 import net.md_5.bungee.api.ChatColor;
 import org.bukkit.command.CommandSender;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 public class FoxLibCommand {
 
+    /** The amount of commands shown by the stats command */
+    private static final int STATS_LIMIT = 10;
+
+    /** The amount of commands per help page */
+    private static final int HELP_PAGE_SIZE = 8;
+
+    /** The size at which a new trace file is started and the amount of trace files that are kept */
+    private static final long TRACE_FILE_SIZE = 16 * 1024 * 1024;
+    private static final int TRACE_FILES = 8;
+
     public FoxLibCommand() {
 
         // Register the command
@@ -18,4 +39,116 @@ public class FoxLibCommand {
     public void foxlibCommand(CommandSender commandSender) {
         commandSender.sendMessage(ChatColor.GOLD + "FoxLib " + ChatColor.GRAY + "v" + FoxLib.getInstance().getDescription().getVersion());
     }
+
+    @FoxCommand(path = "foxlib stats", aliases = {"fl stats"}, description = "Show the most used commands and their latency", usage = "/foxlib stats", permission = "op")
+    public void statsCommand(CommandSender commandSender) {
+
+        List<RegisteredCommand> commands = new ArrayList<>(FoxCommandAPI.getInstance().getRegisteredCommands());
+        commands.sort(Comparator.comparingLong((RegisteredCommand command) -> command.getMetrics().getInvocations()).reversed());
+
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        commandSender.sendMessage(ChatColor.GOLD + "Command Stats " + ChatColor.GRAY + "(" + commandTree.getUnresolvedDispatches() + " unknown, "
+                + commandTree.getLineCache().getHits() + " cached)");
+
+        for (RegisteredCommand command : commands.subList(0, Math.min(STATS_LIMIT, commands.size()))) {
+
+            CommandMetrics metrics = command.getMetrics();
+
+            commandSender.sendMessage(ChatColor.YELLOW + "/" + command.getPath() + ChatColor.GRAY
+                    + " runs: " + ChatColor.WHITE + metrics.getInvocations() + ChatColor.GRAY
+                    + " p50: " + ChatColor.WHITE + formatLatency(metrics.getLatencyPercentile(0.5)) + ChatColor.GRAY
+                    + " p99: " + ChatColor.WHITE + formatLatency(metrics.getLatencyPercentile(0.99)) + ChatColor.GRAY
+                    + " failed: " + ChatColor.WHITE + (metrics.getParseFailures() + metrics.getPermissionDenials()
+                    + metrics.getInvalidSenderTypes() + metrics.getConcurrencyRejections() + metrics.getHandlerFailures()) + ChatColor.GRAY
+                    + " throttled: " + ChatColor.WHITE + metrics.getThrottleRejections());
+        }
+    }
+
+    @FoxCommand(path = "foxlib help", aliases = {"fl help"}, description = "Show the commands you can use", usage = "/foxlib help [label] [page]")
+    public void helpCommand(CommandSender commandSender) {
+        sendHelp(commandSender, null, 1);
+    }
+
+    @FoxCommand(path = "foxlib help", aliases = {"fl help"}, description = "Show the commands you can use", usage = "/foxlib help [label] [page]")
+    public void helpPageCommand(CommandSender commandSender, int page) {
+        sendHelp(commandSender, null, page);
+    }
+
+    @FoxCommand(path = "foxlib help", aliases = {"fl help"}, description = "Show the commands you can use", usage = "/foxlib help [label] [page]")
+    public void helpLabelCommand(CommandSender commandSender, String label) {
+        sendHelp(commandSender, label, 1);
+    }
+
+    @FoxCommand(path = "foxlib help", aliases = {"fl help"}, description = "Show the commands you can use", usage = "/foxlib help [label] [page]")
+    public void helpLabelPageCommand(CommandSender commandSender, String label, int page) {
+        sendHelp(commandSender, label, page);
+    }
+
+    /**
+     * Send a page of the help index.
+     *
+     * @param commandSender - the command sender
+     * @param label - the label of the commands or {@code null} for all commands
+     * @param page - the page, starting at {@code 1}
+     */
+    private static void sendHelp(CommandSender commandSender, String label, int page) {
+
+        HelpIndex.Page helpPage = FoxCommandAPI.getInstance().getCommandTree().getHelpIndex().getPage(commandSender, label, page - 1, HELP_PAGE_SIZE);
+
+        if (helpPage.getLines().isEmpty()) {
+            commandSender.sendMessage(ChatColor.RED + (label != null && page == 1 ? "There are no commands for /" + label + "." : "There's no page " + page + "."));
+            return;
+        }
+
+        for (String line : helpPage.getLines()) {
+            commandSender.sendMessage(line);
+        }
+
+        if (helpPage.hasNext()) {
+            commandSender.sendMessage(ChatColor.GRAY + "Use /foxlib help " + (label != null ? label + " " : "") + (page + 1) + " for more.");
+        }
+    }
+
+    @FoxCommand(path = "foxlib trace start", aliases = {"fl trace start"}, description = "Record the dispatched commands to replay them in a benchmark", usage = "/foxlib trace start", permission = "op")
+    public void traceStartCommand(CommandSender commandSender) {
+
+        File directory = new File(FoxLib.getInstance().getDataFolder(), "traces");
+
+        try {
+            FoxCommandAPI.getInstance().getCommandExecutor().startRecording(new CommandTraceRecorder(directory, TRACE_FILE_SIZE, TRACE_FILES));
+        } catch (IOException e) {
+            commandSender.sendMessage(ChatColor.RED + "Failed to start recording: " + e.getMessage());
+            return;
+        }
+
+        commandSender.sendMessage(ChatColor.GOLD + "Recording commands to " + ChatColor.WHITE + directory.getPath());
+    }
+
+    @FoxCommand(path = "foxlib trace stop", aliases = {"fl trace stop"}, description = "Stop recording the dispatched commands", usage = "/foxlib trace stop", permission = "op")
+    public void traceStopCommand(CommandSender commandSender) {
+
+        CommandTraceRecorder recorder = FoxCommandAPI.getInstance().getCommandExecutor().stopRecording();
+
+        if (recorder == null) {
+            commandSender.sendMessage(ChatColor.RED + "Commands aren't being recorded.");
+            return;
+        }
+
+        commandSender.sendMessage(ChatColor.GOLD + "Recorded " + ChatColor.WHITE + recorder.getRecorded() + ChatColor.GOLD
+                + " commands, " + ChatColor.WHITE + recorder.getDropped() + ChatColor.GOLD + " dropped");
+    }
+
+    /**
+     * Format a latency in the most readable unit.
+     *
+     * @param nanos - the latency in nanoseconds
+     *
+     * @return - the formatted latency
+     */
+    private static String formatLatency(long nanos) {
+        if (nanos < 1_000) return nanos + "ns";
+        if (nanos < 1_000_000) return String.format("%.1fµs", nanos / 1_000.0);
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
 }
@@ -1,18 +1,26 @@
 package com.kitsune.foxlib.command.parser;
 
-import com.kitsune.foxlib.command.ArgumentParser;
-import com.kitsune.foxlib.util.Log;
+import com.kitsune.foxlib.command.DoubleArgumentParser;
 
-public class DoubleParser implements ArgumentParser<Double> {
+public class DoubleParser implements DoubleArgumentParser {
 
     @Override
-    public Double parse(String argument) {
+    public boolean matches(String argument) {
+        return matches((CharSequence) argument);
+    }
+
+    @Override
+    public boolean matches(CharSequence argument) {
+        return NumberParsing.isDecimal(argument);
+    }
 
-        try {
-            return Double.parseDouble(argument);
-        }
-        catch (Exception e) {
-            return null;
-        }
+    @Override
+    public double parseDouble(String argument) {
+        return Double.parseDouble(argument);
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
     }
 }
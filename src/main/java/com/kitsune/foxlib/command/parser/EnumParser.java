@@ -0,0 +1,102 @@
+package com.kitsune.foxlib.command.parser;
+
+import com.kitsune.foxlib.command.ArgumentParser;
+import com.kitsune.foxlib.util.CaseInsensitiveIndex;
+import com.kitsune.foxlib.util.PrefixIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Parses the constants of an enum, ignoring case.
+ *
+ * The lookup table is built once, so parsing an argument is a single hash probe
+ * and arguments that don't match don't throw an exception.
+ *
+ * @param <E> - the type of the enum
+ */
+public class EnumParser<E extends Enum<E>> implements ArgumentParser<E> {
+
+    /** The constants and aliases, by their name */
+    private final CaseInsensitiveIndex<E> lookup;
+
+    /** The constants by their lower case name, used for suggestions */
+    private final PrefixIndex<E> suggestionIndex;
+
+    /**
+     * Construct a new {@link EnumParser} that parses all constants of the enum.
+     *
+     * @param type - the enum class
+     */
+    public EnumParser(@NotNull Class<E> type) {
+        this(type, constant -> true, Collections.emptyMap());
+    }
+
+    /**
+     * Construct a new {@link EnumParser}.
+     *
+     * @param type - the enum class
+     * @param filter - the constants that can be parsed
+     * @param aliases - additional names of constants, constant names take priority over aliases
+     */
+    public EnumParser(@NotNull Class<E> type, @NotNull Predicate<E> filter, @NotNull Map<String, E> aliases) {
+
+        this.lookup = new CaseInsensitiveIndex<>();
+
+        List<E> constants = new ArrayList<>();
+
+        for (E constant : type.getEnumConstants()) {
+            if (!filter.test(constant)) continue;
+
+            constants.add(constant);
+            lookup.put(constant.name(), constant);
+        }
+
+        aliases.forEach((alias, constant) -> {
+            if (!lookup.containsKey(alias)) lookup.put(alias, constant);
+        });
+
+        this.suggestionIndex = new PrefixIndex<>(constants, constant -> constant.name().toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public E parse(String argument) {
+        return lookup.get(argument);
+    }
+
+    @Override
+    public E parse(CharSequence argument) {
+        return lookup.get(argument);
+    }
+
+    /**
+     * Enum parsers only overlap if one of the constants of this enum is accepted by the other parser.
+     */
+    @Override
+    public boolean overlaps(@NotNull ArgumentParser<?> other) {
+
+        if (!(other instanceof EnumParser)) return true;
+
+        for (E constant : lookup.values()) {
+            if (other.parse(constant.name()) != null) return true;
+        }
+
+        return false;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getSuggestions(@NotNull String prefix) {
+        return suggestionIndex.getNames(prefix);
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+}
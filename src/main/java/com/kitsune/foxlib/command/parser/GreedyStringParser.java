@@ -0,0 +1,25 @@
+package com.kitsune.foxlib.command.parser;
+
+import com.kitsune.foxlib.command.ArgumentParser;
+import com.kitsune.foxlib.command.GreedyString;
+
+/**
+ * Parses the rest of the command line, the command tree passes all the remaining arguments to this parser at once.
+ */
+public class GreedyStringParser implements ArgumentParser<GreedyString> {
+
+    @Override
+    public GreedyString parse(String argument) {
+        return new GreedyString(argument);
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_GREEDY;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+}
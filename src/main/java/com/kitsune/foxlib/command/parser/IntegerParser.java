@@ -1,18 +1,31 @@
 package com.kitsune.foxlib.command.parser;
 
-import com.kitsune.foxlib.command.ArgumentParser;
+import com.kitsune.foxlib.command.IntArgumentParser;
 
-public class IntegerParser implements ArgumentParser<Integer> {
+public class IntegerParser implements IntArgumentParser {
 
     @Override
-    public Integer parse(String argument) {
+    public boolean matches(String argument) {
+        return matches((CharSequence) argument);
+    }
+
+    @Override
+    public boolean matches(CharSequence argument) {
+        return NumberParsing.isInteger(argument, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int parseInt(String argument) {
+        return Integer.parseInt(argument);
+    }
 
-        try {
-            return Integer.parseInt(argument);
-        }
-        catch (Exception e) {
-            return null;
-        }
+    @Override
+    public int parseInt(CharSequence argument) {
+        return (int) NumberParsing.parseInteger(argument);
     }
 
+    @Override
+    public boolean isPure() {
+        return true;
+    }
 }
@@ -0,0 +1,31 @@
+package com.kitsune.foxlib.command.parser;
+
+import com.kitsune.foxlib.command.LongArgumentParser;
+
+public class LongParser implements LongArgumentParser {
+
+    @Override
+    public boolean matches(String argument) {
+        return matches((CharSequence) argument);
+    }
+
+    @Override
+    public boolean matches(CharSequence argument) {
+        return NumberParsing.isInteger(argument, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long parseLong(String argument) {
+        return Long.parseLong(argument);
+    }
+
+    @Override
+    public long parseLong(CharSequence argument) {
+        return NumberParsing.parseInteger(argument);
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+}
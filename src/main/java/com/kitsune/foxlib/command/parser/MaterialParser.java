@@ -1,18 +1,49 @@
 package com.kitsune.foxlib.command.parser;
 
-import com.kitsune.foxlib.command.ArgumentParser;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 
-public class MaterialParser implements ArgumentParser<Material> {
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
-    @Override
-    public Material parse(String argument) {
+/**
+ * Parses non legacy {@link Material}s, ignoring case.
+ *
+ * Namespaced names, like {@code minecraft:stone}, are accepted as well. When running on a server
+ * the pre 1.13 names are accepted too and converted to their current material.
+ */
+public class MaterialParser extends EnumParser<Material> {
 
-        try {
-            return Material.valueOf(argument);
-        }
-        catch (Exception e){
-            return null;
+    public MaterialParser() {
+        super(Material.class, material -> !material.isLegacy(), createAliases());
+    }
+
+    /**
+     * Create the aliases of the materials.
+     *
+     * @return - the aliases
+     */
+    private static Map<String, Material> createAliases() {
+
+        Map<String, Material> aliases = new HashMap<>();
+
+        for (Material material : Material.values()) {
+
+            if (!material.isLegacy()) {
+                aliases.put("minecraft:" + material.name().toLowerCase(Locale.ROOT), material);
+                continue;
+            }
+
+            // Converting legacy materials needs the server
+            if (Bukkit.getServer() == null) continue;
+
+            Material converted = Bukkit.getUnsafe().fromLegacy(material);
+            if (converted != null && !converted.isLegacy()) {
+                aliases.putIfAbsent(material.name().substring("LEGACY_".length()), converted);
+            }
         }
+
+        return aliases;
     }
 }
@@ -0,0 +1,130 @@
+package com.kitsune.foxlib.command.parser;
+
+/**
+ * Checks whether arguments are valid numbers without throwing exceptions.
+ *
+ * The checks accept a subset of what the {@code parse} methods of the number classes accept, so once an argument
+ * passes a check, parsing it can't fail.
+ */
+final class NumberParsing {
+
+    private NumberParsing() {
+    }
+
+    /**
+     * Get whether the argument is a decimal integer within the specified range.
+     *
+     * @param argument - the argument
+     * @param min - the minimum value (inclusive)
+     * @param max - the maximum value (inclusive)
+     *
+     * @return - {@code true} if the argument is an integer within the range or else {@code false}
+     */
+    static boolean isInteger(CharSequence argument, long min, long max) {
+
+        int length = argument.length();
+        if (length == 0) return false;
+
+        int i = 0;
+        boolean negative = false;
+        char first = argument.charAt(0);
+
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == length) return false;
+        }
+
+        // Accumulate negatively, like Long#parseLong, so Long.MIN_VALUE doesn't overflow
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+
+        for (; i < length; i++) {
+
+            int digit = argument.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return false;
+
+            // Make sure multiplying by 10 and subtracting the digit doesn't go past the limit
+            if (result < multiplyLimit) return false;
+            result *= 10;
+            if (result < limit + digit) return false;
+            result -= digit;
+        }
+
+        return true;
+    }
+
+    /**
+     * Parse a decimal integer, this is only called for arguments that passed {@link #isInteger(CharSequence, long, long)}
+     * so it doesn't check anything. Unlike {@link Long#parseLong(String)} it works on any {@link CharSequence}.
+     *
+     * @param argument - the argument
+     *
+     * @return - the value
+     */
+    static long parseInteger(CharSequence argument) {
+
+        int i = 0;
+        boolean negative = argument.charAt(0) == '-';
+
+        if (negative || argument.charAt(0) == '+') i++;
+
+        // Accumulate negatively, so Long.MIN_VALUE doesn't overflow
+        long result = 0;
+
+        for (; i < argument.length(); i++) {
+            result = result * 10 - (argument.charAt(i) - '0');
+        }
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Get whether the argument is a decimal floating point number, with an optional exponent.
+     *
+     * Unlike {@link Double#parseDouble(String)} this doesn't accept hexadecimal numbers, type suffixes,
+     * surrounding whitespace, {@code NaN} or {@code Infinity}.
+     *
+     * @param argument - the argument
+     *
+     * @return - {@code true} if the argument is a decimal number or else {@code false}
+     */
+    static boolean isDecimal(CharSequence argument) {
+
+        int length = argument.length();
+        int i = 0;
+
+        if (i < length && (argument.charAt(i) == '-' || argument.charAt(i) == '+')) i++;
+
+        // Integer part
+        int digits = 0;
+        while (i < length && isDigit(argument.charAt(i))) { i++; digits++; }
+
+        // Fraction part
+        if (i < length && argument.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(argument.charAt(i))) { i++; digits++; }
+        }
+
+        // There has to be at least one digit before the exponent
+        if (digits == 0) return false;
+
+        // Exponent part
+        if (i < length && (argument.charAt(i) == 'e' || argument.charAt(i) == 'E')) {
+
+            i++;
+            if (i < length && (argument.charAt(i) == '-' || argument.charAt(i) == '+')) i++;
+
+            int exponentDigits = 0;
+            while (i < length && isDigit(argument.charAt(i))) { i++; exponentDigits++; }
+
+            if (exponentDigits == 0) return false;
+        }
+
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,46 @@
+package com.kitsune.foxlib.command.parser;
+
+import com.kitsune.foxlib.command.ContextualArgumentParser;
+import com.kitsune.foxlib.command.ParseContext;
+import com.kitsune.foxlib.command.PlayerIndex;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Parses a player that has been online before by their exact name, ignoring case, or any player by their unique id.
+ *
+ * Names are never looked up through {@code Bukkit#getOfflinePlayer(String)}, which may block on a web request.
+ */
+public class OfflinePlayerParser implements ContextualArgumentParser<OfflinePlayer> {
+
+    private final PlayerIndex playerIndex;
+
+    /**
+     * Construct a new {@link OfflinePlayerParser}.
+     *
+     * @param playerIndex - the index the players are looked up in
+     */
+    public OfflinePlayerParser(@NotNull PlayerIndex playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    @Override
+    public OfflinePlayer parse(@NotNull ParseContext context, @NotNull CharSequence argument) {
+        return playerIndex.getOfflinePlayer(argument);
+    }
+
+    @NotNull
+    @Override
+    public List<String> getSuggestions(@NotNull String prefix) {
+        return playerIndex.getNames(prefix, null);
+    }
+
+    @NotNull
+    @Override
+    public List<String> getSuggestions(@NotNull ParseContext context, @NotNull String prefix) {
+        return playerIndex.getNames(prefix, context.getSender() instanceof Player ? (Player) context.getSender() : null);
+    }
+}
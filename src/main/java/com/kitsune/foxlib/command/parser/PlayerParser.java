@@ -0,0 +1,52 @@
+package com.kitsune.foxlib.command.parser;
+
+import com.kitsune.foxlib.command.ContextualArgumentParser;
+import com.kitsune.foxlib.command.ParseContext;
+import com.kitsune.foxlib.command.PlayerIndex;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Parses an online player by their exact name, ignoring case, or by their unique id.
+ *
+ * Players the sender can't see don't match, so vanished players can't be found by trying names.
+ */
+public class PlayerParser implements ContextualArgumentParser<Player> {
+
+    private final PlayerIndex playerIndex;
+
+    /**
+     * Construct a new {@link PlayerParser}.
+     *
+     * @param playerIndex - the index the players are looked up in
+     */
+    public PlayerParser(@NotNull PlayerIndex playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    @Override
+    public Player parse(@NotNull ParseContext context, @NotNull CharSequence argument) {
+
+        Player player = playerIndex.getPlayer(argument);
+
+        if (player != null && context.getSender() instanceof Player && !((Player) context.getSender()).canSee(player)) {
+            return null;
+        }
+
+        return player;
+    }
+
+    @NotNull
+    @Override
+    public List<String> getSuggestions(@NotNull String prefix) {
+        return playerIndex.getNames(prefix, null);
+    }
+
+    @NotNull
+    @Override
+    public List<String> getSuggestions(@NotNull ParseContext context, @NotNull String prefix) {
+        return playerIndex.getNames(prefix, context.getSender() instanceof Player ? (Player) context.getSender() : null);
+    }
+}
@@ -1,18 +1,31 @@
 package com.kitsune.foxlib.command.parser;
 
-import com.kitsune.foxlib.command.ArgumentParser;
+import com.kitsune.foxlib.command.ShortArgumentParser;
 
-public class ShortParser  implements ArgumentParser<Short> {
+public class ShortParser implements ShortArgumentParser {
 
     @Override
-    public Short parse(String argument) {
+    public boolean matches(String argument) {
+        return matches((CharSequence) argument);
+    }
+
+    @Override
+    public boolean matches(CharSequence argument) {
+        return NumberParsing.isInteger(argument, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    @Override
+    public short parseShort(String argument) {
+        return Short.parseShort(argument);
+    }
 
-        try {
-            return Short.parseShort(argument);
-        }
-        catch (Exception e) {
-            return null;
-        }
+    @Override
+    public short parseShort(CharSequence argument) {
+        return (short) NumberParsing.parseInteger(argument);
     }
 
+    @Override
+    public boolean isPure() {
+        return true;
+    }
 }
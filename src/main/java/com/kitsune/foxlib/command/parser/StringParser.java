@@ -8,4 +8,14 @@ public class StringParser implements ArgumentParser<String> {
     public String parse(String argument) {
         return argument;
     }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_STRING;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
 }
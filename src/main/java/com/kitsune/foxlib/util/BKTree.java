@@ -0,0 +1,279 @@
+package com.kitsune.foxlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable BK-tree of names that finds the names within an edit distance of a query, ignoring case.
+ *
+ * Every node keeps its children by their distance to the node, so a search only has to visit the children whose
+ * distance is within the maximum distance of the query's distance to the node, by the triangle inequality.
+ * Adding a name copies the nodes on its path, the rest of the tree is shared with the previous version.
+ */
+public final class BKTree {
+
+    /** The tree without any names */
+    public static final BKTree EMPTY = new BKTree(null, 0);
+
+    /** The root node, {@code null} if the tree is empty */
+    private final Node root;
+
+    /** The amount of names */
+    private final int size;
+
+    /**
+     * A name and its children, sorted by their distance to the name.
+     */
+    private static final class Node {
+
+        private final String key;
+        private final String name;
+        private final int[] distances;
+        private final Node[] children;
+
+        private Node(String key, String name, int[] distances, Node[] children) {
+            this.key = key;
+            this.name = name;
+            this.distances = distances;
+            this.children = children;
+        }
+    }
+
+    private BKTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Build a tree of the names.
+     *
+     * @param names - the names
+     *
+     * @return - the tree
+     */
+    public static BKTree of(@NotNull Collection<String> names) {
+
+        BKTree tree = EMPTY;
+
+        for (String name : names) {
+            tree = tree.with(name);
+        }
+
+        return tree;
+    }
+
+    /**
+     * Create a copy of the tree with the name added.
+     *
+     * @param name - the name
+     *
+     * @return - the copy, or this tree if it already contains the name
+     */
+    public BKTree with(@NotNull String name) {
+
+        String key = CaseInsensitiveIndex.fold(name);
+
+        if (root == null) return new BKTree(new Node(key, name, new int[0], new Node[0]), 1);
+
+        Node newRoot = insert(root, key, name);
+        return newRoot == root ? this : new BKTree(newRoot, size + 1);
+    }
+
+    private static Node insert(Node node, String key, String name) {
+
+        int distance = distance(key, node.key, new int[key.length() + 1], new int[key.length() + 1]);
+        if (distance == 0) return node;
+
+        int index = Arrays.binarySearch(node.distances, distance);
+
+        // A child with the same distance already exists, the name belongs to its subtree
+        if (index >= 0) {
+
+            Node child = insert(node.children[index], key, name);
+            if (child == node.children[index]) return node;
+
+            Node[] children = node.children.clone();
+            children[index] = child;
+            return new Node(node.key, node.name, node.distances, children);
+        }
+
+        int insertion = -index - 1;
+
+        int[] distances = new int[node.distances.length + 1];
+        Node[] children = new Node[node.children.length + 1];
+
+        System.arraycopy(node.distances, 0, distances, 0, insertion);
+        System.arraycopy(node.children, 0, children, 0, insertion);
+
+        distances[insertion] = distance;
+        children[insertion] = new Node(key, name, new int[0], new Node[0]);
+
+        System.arraycopy(node.distances, insertion, distances, insertion + 1, node.distances.length - insertion);
+        System.arraycopy(node.children, insertion, children, insertion + 1, node.children.length - insertion);
+
+        return new Node(node.key, node.name, distances, children);
+    }
+
+    /**
+     * A name that has been found by a search, with its distance to the query.
+     */
+    public static final class Match {
+
+        private final String name;
+        private final String key;
+        private final int distance;
+
+        private Match(String name, String key, int distance) {
+            this.name = name;
+            this.key = key;
+            this.distance = distance;
+        }
+
+        /**
+         * Get the name as it was added.
+         *
+         * @return - the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the edit distance between the name and the query, ignoring case.
+         *
+         * @return - the distance
+         */
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Find the names within the maximum distance of the query, ignoring case.
+     *
+     * @param query - the query
+     * @param maxDistance - the maximum edit distance
+     *
+     * @return - the names, the closest first
+     */
+    @NotNull
+    public List<String> search(@NotNull String query, int maxDistance) {
+
+        List<Match> matches = find(query, maxDistance);
+        List<String> names = new ArrayList<>(matches.size());
+
+        for (Match match : matches) names.add(match.name);
+
+        return names;
+    }
+
+    /**
+     * Find the names within the maximum distance of the query, ignoring case, together with their distance.
+     *
+     * @param query - the query
+     * @param maxDistance - the maximum edit distance
+     *
+     * @return - the matches, the closest first and names at the same distance in alphabetical order
+     */
+    @NotNull
+    public List<Match> find(@NotNull String query, int maxDistance) {
+
+        List<Match> matches = new ArrayList<>();
+        visit(CaseInsensitiveIndex.fold(query), maxDistance, matches);
+
+        matches.sort(Comparator.<Match>comparingInt(match -> match.distance).thenComparing(match -> match.key));
+        return matches;
+    }
+
+    /**
+     * Get the amount of names a search compares the query to, which shows how much of the tree the search skips.
+     *
+     * @param query - the query
+     * @param maxDistance - the maximum edit distance
+     *
+     * @return - the amount of names
+     */
+    public int countVisited(@NotNull String query, int maxDistance) {
+        return visit(CaseInsensitiveIndex.fold(query), maxDistance, new ArrayList<>());
+    }
+
+    /**
+     * Add the nodes within the maximum distance of the key to the matches.
+     *
+     * @return - the amount of nodes that have been visited
+     */
+    private int visit(String key, int maxDistance, List<Match> matches) {
+
+        if (root == null) return 0;
+
+        // The rows of the distance matrix are shared by all the distances of this search
+        int[] previous = new int[key.length() + 1];
+        int[] current = new int[key.length() + 1];
+
+        List<Node> pending = new ArrayList<>();
+        pending.add(root);
+
+        int visited = 0;
+
+        while (!pending.isEmpty()) {
+
+            Node node = pending.remove(pending.size() - 1);
+            int distance = distance(key, node.key, previous, current);
+            visited++;
+
+            if (distance <= maxDistance) matches.add(new Match(node.name, node.key, distance));
+
+            // Only children whose distance to the node is within the maximum distance of ours can match
+            for (int i = 0; i < node.distances.length; i++) {
+                if (node.distances[i] > distance + maxDistance) break;
+                if (node.distances[i] >= distance - maxDistance) pending.add(node.children[i]);
+            }
+        }
+
+        return visited;
+    }
+
+    /**
+     * Get the amount of names.
+     *
+     * @return - the amount of names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Compute the Levenshtein distance between the keys using two rows of the distance matrix.
+     *
+     * @param key - the first key, the rows have room for its length plus one
+     * @param other - the second key
+     * @param previous - a row
+     * @param current - another row
+     */
+    private static int distance(String key, String other, int[] previous, int[] current) {
+
+        for (int i = 0; i <= key.length(); i++) previous[i] = i;
+
+        for (int j = 1; j <= other.length(); j++) {
+
+            current[0] = j;
+            char c = other.charAt(j - 1);
+
+            for (int i = 1; i <= key.length(); i++) {
+                int substitution = previous[i - 1] + (key.charAt(i - 1) == c ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+            }
+
+            int[] row = previous;
+            previous = current;
+            current = row;
+        }
+
+        return previous[key.length()];
+    }
+}
@@ -0,0 +1,315 @@
+package com.kitsune.foxlib.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An open addressing hash table that maps case-folded {@link String} keys to values.
+ *
+ * Lookups fold the key character by character while probing, so neither the lookup nor the
+ * comparison allocates a lower case copy of the key. A lookup can also be done on a region of
+ * a {@link CharSequence}.
+ *
+ * @param <V> - the type of the values
+ */
+public class CaseInsensitiveIndex<V> {
+
+    /**
+     * The initial capacity of the table, must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The folded keys
+     */
+    private String[] keys;
+
+    /**
+     * The values, stored at the same index as their key
+     */
+    private Object[] values;
+
+    /**
+     * The amount of entries in the table
+     */
+    private int size;
+
+    /**
+     * Construct a new, empty {@link CaseInsensitiveIndex}.
+     */
+    public CaseInsensitiveIndex() {
+        this.keys = new String[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Construct a new {@link CaseInsensitiveIndex} with the same entries as the specified index.
+     *
+     * @param other - the index to copy
+     */
+    public CaseInsensitiveIndex(@NotNull CaseInsensitiveIndex<V> other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.size = other.size;
+    }
+
+    /**
+     * Get the value that's mapped to the specified key.
+     *
+     * @param key - the key
+     *
+     * @return - the value or {@code null} if the key isn't mapped
+     */
+    @Nullable
+    public V get(@NotNull CharSequence key) {
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * Get the value that's mapped to the region {@code [start, end)} of the specified sequence.
+     *
+     * @param sequence - the sequence that contains the key
+     * @param start - the start of the key (inclusive)
+     * @param end - the end of the key (exclusive)
+     *
+     * @return - the value or {@code null} if the key isn't mapped
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@NotNull CharSequence sequence, int start, int end) {
+
+        int mask = keys.length - 1;
+        int length = end - start;
+
+        for (int slot = hash(sequence, start, end) & mask; ; slot = (slot + 1) & mask) {
+
+            String key = keys[slot];
+
+            // Reached an empty slot, so the key isn't mapped
+            if (key == null) return null;
+
+            if (key.length() == length && regionEquals(key, sequence, start)) {
+                return (V) values[slot];
+            }
+        }
+    }
+
+    /**
+     * Map the key to the specified value.
+     *
+     * @param key - the key
+     * @param value - the value
+     *
+     * @return - the value that was previously mapped to the key, or {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(@NotNull String key, @NotNull V value) {
+
+        // Keep the load factor under 0.5 so probe sequences stay short
+        if ((size + 1) * 2 > keys.length) resize(keys.length * 2);
+
+        String folded = fold(key);
+        int mask = keys.length - 1;
+
+        for (int slot = hash(folded, 0, folded.length()) & mask; ; slot = (slot + 1) & mask) {
+
+            if (keys[slot] == null) {
+                keys[slot] = folded;
+                values[slot] = value;
+                size++;
+                return null;
+            }
+
+            if (keys[slot].equals(folded)) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Remove the mapping of the key.
+     *
+     * @param key - the key
+     *
+     * @return - the value that was mapped to the key, or {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(@NotNull CharSequence key) {
+
+        int mask = keys.length - 1;
+        int length = key.length();
+
+        for (int slot = hash(key, 0, length) & mask; ; slot = (slot + 1) & mask) {
+
+            String existing = keys[slot];
+
+            if (existing == null) return null;
+
+            if (existing.length() != length || !regionEquals(existing, key, 0)) continue;
+
+            V previous = (V) values[slot];
+
+            // Shift the following entries back into the gap, so their probe sequences don't break
+            int gap = slot;
+
+            for (int next = (gap + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+
+                int home = hash(keys[next], 0, keys[next].length()) & mask;
+
+                // The entry can only move back if the gap is between its home slot and where it is now
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+
+            keys[gap] = null;
+            values[gap] = null;
+            size--;
+
+            return previous;
+        }
+    }
+
+    /**
+     * Get whether the specified key is mapped.
+     *
+     * @param key - the key
+     *
+     * @return - {@code true} if the key is mapped or else {@code false}
+     */
+    public boolean containsKey(@NotNull CharSequence key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Get a list of all the values in the index, in no particular order.
+     *
+     * @return - the values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+
+        List<V> result = new ArrayList<>(size);
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) result.add((V) values[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the amount of entries in the index.
+     *
+     * @return - the amount of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get whether the index is empty.
+     *
+     * @return - {@code true} if the index is empty or else {@code false}
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Grow the table to the specified capacity and re-insert all entries.
+     *
+     * @param capacity - the new capacity
+     */
+    private void resize(int capacity) {
+
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new String[capacity];
+        values = new Object[capacity];
+
+        int mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+
+            if (oldKeys[i] == null) continue;
+
+            int slot = hash(oldKeys[i], 0, oldKeys[i].length()) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Compare the folded key to the region of the sequence starting at the specified offset.
+     */
+    private static boolean regionEquals(String foldedKey, CharSequence sequence, int start) {
+
+        for (int i = 0; i < foldedKey.length(); i++) {
+            if (foldedKey.charAt(i) != fold(sequence.charAt(start + i))) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Compute the hash of the folded region {@code [start, end)} of the sequence.
+     */
+    private static int hash(CharSequence sequence, int start, int end) {
+
+        int hash = 0;
+
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(sequence.charAt(i));
+        }
+
+        // Mix all the bits into the low bits the table is indexed with, similar keys like "w1", "w2"
+        // have consecutive hashes that would otherwise form long probe sequences
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Fold a character, this uses the same rules as {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param c - the character
+     *
+     * @return - the folded character
+     */
+    public static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * Fold a string, this uses the same rules as {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param string - the string
+     *
+     * @return - the folded string
+     */
+    public static String fold(String string) {
+
+        char[] chars = string.toCharArray();
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+
+        return new String(chars);
+    }
+}
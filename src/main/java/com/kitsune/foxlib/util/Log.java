@@ -1,11 +1,124 @@
 package com.kitsune.foxlib.util;
 
 import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+/**
+ * Logs messages to the console without blocking the calling thread.
+ *
+ * Messages below the current {@link Level} are discarded before they're built, use {@link #isEnabled(Level)},
+ * a {@link Supplier} or a message with {@code {}} placeholders to avoid building them at all.
+ * Messages that are logged are queued in a bounded buffer and written by a background thread,
+ * if the buffer is full the message is dropped and counted instead of waiting for the console.
+ */
 public class Log {
 
-    private static void message (PrintStream level, String prefix, String message){
-        level.println("[" + prefix + "] " + message);
+    /**
+     * The levels of log messages, from the least to the most important.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    /** The amount of messages that can be waiting to be written */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The messages waiting to be written */
+    private static final BlockingQueue<Entry> BUFFER = new ArrayBlockingQueue<>(BUFFER_SIZE);
+
+    /** The amount of messages that have been dropped because the buffer was full */
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /** The minimum level of messages that are logged */
+    private static volatile Level level = Level.INFO;
+
+    /** The thread that writes the messages, {@code null} if it isn't running */
+    private static Thread writer;
+
+    /** Whether the logger has been shut down, messages are written synchronously after that */
+    private static volatile boolean shutdown;
+
+    /**
+     * A message waiting to be written.
+     */
+    private static final class Entry {
+
+        private final Level level;
+        private final String prefix;
+        private final Object message;
+        private final Object[] args;
+
+        private Entry(Level level, String prefix, Object message, Object[] args) {
+            this.level = level;
+            this.prefix = prefix;
+            this.message = message;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Set the minimum level of messages that are logged.
+     *
+     * @param level - the level
+     */
+    public static void setLevel (Level level){
+        Log.level = level;
+    }
+
+    public static Level getLevel (){
+        return level;
+    }
+
+    /**
+     * Get whether messages of the level are logged.
+     *
+     * @param level - the level
+     *
+     * @return - {@code true} if the messages are logged or else {@code false}
+     */
+    public static boolean isEnabled (Level level){
+        return level.compareTo(Log.level) >= 0;
+    }
+
+    /**
+     * Get the amount of messages that have been dropped because they were logged faster than they could be written.
+     *
+     * @return - the amount of dropped messages
+     */
+    public static long getDroppedCount (){
+        return DROPPED.sum();
+    }
+
+    /**
+     * Log a debug message to the console
+     * @param prefix - the prefix of the message
+     * @param message - the message
+     */
+    public static void debug (String prefix, String message){
+        log(Level.DEBUG, prefix, message, null);
+    }
+
+    /**
+     * Log a debug message to the console, the message is only built if debug messages are logged
+     * @param prefix - the prefix of the message
+     * @param message - the supplier of the message
+     */
+    public static void debug (String prefix, Supplier<String> message){
+        log(Level.DEBUG, prefix, message, null);
+    }
+
+    /**
+     * Log a debug message to the console
+     * @param prefix - the prefix of the message
+     * @param format - the message, every {@code {}} is replaced by the next argument
+     * @param args - the arguments
+     */
+    public static void debug (String prefix, String format, Object... args){
+        log(Level.DEBUG, prefix, format, args);
     }
 
     /**
@@ -14,7 +127,17 @@ public class Log {
      * @param message - the message
      */
     public static void info (String prefix, String message){
-        message(System.out, prefix, message);
+        log(Level.INFO, prefix, message, null);
+    }
+
+    /**
+     * Log a message to the console
+     * @param prefix - the prefix of the message
+     * @param format - the message, every {@code {}} is replaced by the next argument
+     * @param args - the arguments
+     */
+    public static void info (String prefix, String format, Object... args){
+        log(Level.INFO, prefix, format, args);
     }
 
     /**
@@ -23,7 +146,17 @@ public class Log {
      * @param message - the message
      */
     public static void warn (String prefix, String message){
-        message(System.err, prefix, message);
+        log(Level.WARN, prefix, message, null);
+    }
+
+    /**
+     * Log a warning to the console
+     * @param prefix - the prefix of the message
+     * @param format - the message, every {@code {}} is replaced by the next argument
+     * @param args - the arguments
+     */
+    public static void warn (String prefix, String format, Object... args){
+        log(Level.WARN, prefix, format, args);
     }
 
     /**
@@ -32,8 +165,152 @@ public class Log {
      * @param message - the message
      */
     public static void error (String prefix, String message){
-        message(System.err, prefix, message);
+        log(Level.ERROR, prefix, message, null);
     }
 
-}
+    /**
+     * Log an error to the console
+     * @param prefix - the prefix of the message
+     * @param format - the message, every {@code {}} is replaced by the next argument
+     * @param args - the arguments
+     */
+    public static void error (String prefix, String format, Object... args){
+        log(Level.ERROR, prefix, format, args);
+    }
+
+    /**
+     * Stop the writer thread after writing the queued messages, messages logged after this are written synchronously.
+     */
+    public static void shutdown (){
+
+        Thread thread;
+
+        synchronized (Log.class) {
+            shutdown = true;
+            thread = writer;
+            writer = null;
+        }
+
+        if (thread != null) {
+            thread.interrupt();
+
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Write anything that was logged while the writer was stopping
+        drain();
+    }
+
+    private static void log (Level level, String prefix, Object message, Object[] args){
+
+        if (!isEnabled(level)) return;
+
+        Entry entry = new Entry(level, prefix, message, args);
+
+        if (shutdown) {
+            write(entry);
+            return;
+        }
+
+        ensureWriter();
+
+        if (!BUFFER.offer(entry)) {
+            DROPPED.increment();
+        }
+    }
+
+    /**
+     * Start the writer thread if it isn't running yet.
+     */
+    private static void ensureWriter (){
+
+        if (writer != null) return;
+
+        synchronized (Log.class) {
+
+            if (writer != null || shutdown) return;
+
+            writer = new Thread(Log::writeLoop, "FoxLib Log Writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private static void writeLoop (){
+
+        long reportedDrops = 0;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
 
+                write(BUFFER.take());
+
+                // Let the console know messages have been dropped once the buffer has room again
+                long drops = DROPPED.sum();
+                if (drops != reportedDrops && BUFFER.isEmpty()) {
+                    message(System.err, "Log", "Dropped " + (drops - reportedDrops) + " messages because the console couldn't keep up");
+                    reportedDrops = drops;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down, the remaining messages are drained by shutdown()
+        }
+    }
+
+    private static void drain (){
+        Entry entry;
+        while ((entry = BUFFER.poll()) != null) {
+            write(entry);
+        }
+    }
+
+    private static void write (Entry entry){
+
+        String message;
+
+        if (entry.message instanceof Supplier) {
+            message = String.valueOf(((Supplier<?>) entry.message).get());
+        }
+        else {
+            message = format((String) entry.message, entry.args);
+        }
+
+        message(entry.level.compareTo(Level.WARN) >= 0 ? System.err : System.out, entry.prefix, message);
+    }
+
+    /**
+     * Replace the placeholders of the message with the arguments.
+     *
+     * @param format - the message
+     * @param args - the arguments, may be {@code null}
+     *
+     * @return - the formatted message
+     */
+    private static String format (String format, Object[] args){
+
+        if (args == null || args.length == 0) return format;
+
+        StringBuilder builder = new StringBuilder(format.length() + 16 * args.length);
+        int start = 0;
+
+        for (Object arg : args) {
+
+            int placeholder = format.indexOf("{}", start);
+            if (placeholder < 0) break;
+
+            builder.append(format, start, placeholder).append(arg);
+            start = placeholder + 2;
+        }
+
+        return builder.append(format, start, format.length()).toString();
+    }
+
+    private static void message (PrintStream level, String prefix, String message){
+        level.println("[" + prefix + "] " + message);
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.kitsune.foxlib.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An immutable index of named values, sorted by their case-folded name, that finds all values
+ * whose name starts with a prefix using two binary searches.
+ *
+ * All values that match a prefix are stored next to each other, they can be iterated
+ * using the range returned by {@link #from(CharSequence)} and {@link #to(CharSequence)}.
+ *
+ * @param <V> - the type of the values
+ */
+public class PrefixIndex<V> {
+
+    /** The folded names, sorted */
+    private final String[] keys;
+
+    /** The original names, stored at the same index as their key */
+    private final String[] names;
+
+    /** The values, stored at the same index as their key */
+    private final Object[] values;
+
+    /**
+     * Construct a new {@link PrefixIndex}.
+     *
+     * @param values - the values to index
+     * @param nameFunction - the function that gets the name of a value
+     */
+    public PrefixIndex(@NotNull Collection<V> values, @NotNull Function<V, String> nameFunction) {
+
+        Object[] sorted = values.toArray();
+        String[] sortedKeys = new String[sorted.length];
+
+        // Sort the values by their folded name
+        Integer[] order = new Integer[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            order[i] = i;
+            sortedKeys[i] = CaseInsensitiveIndex.fold(name(nameFunction, sorted[i]));
+        }
+
+        Arrays.sort(order, Comparator.comparing(i -> sortedKeys[i]));
+
+        this.keys = new String[sorted.length];
+        this.names = new String[sorted.length];
+        this.values = new Object[sorted.length];
+
+        for (int i = 0; i < order.length; i++) {
+            this.keys[i] = sortedKeys[order[i]];
+            this.names[i] = name(nameFunction, sorted[order[i]]);
+            this.values[i] = sorted[order[i]];
+        }
+    }
+
+    /**
+     * Get the index of the first entry whose name starts with the prefix.
+     *
+     * @param prefix - the prefix
+     *
+     * @return - the index of the first entry (inclusive)
+     */
+    public int from(@NotNull CharSequence prefix) {
+
+        int low = 0;
+        int high = keys.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(keys[middle], prefix) < 0) low = middle + 1;
+            else high = middle;
+        }
+
+        return low;
+    }
+
+    /**
+     * Get the index after the last entry whose name starts with the prefix.
+     *
+     * @param prefix - the prefix
+     *
+     * @return - the index after the last entry (exclusive)
+     */
+    public int to(@NotNull CharSequence prefix) {
+
+        int low = 0;
+        int high = keys.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(keys[middle], prefix) <= 0) low = middle + 1;
+            else high = middle;
+        }
+
+        return low;
+    }
+
+    /**
+     * Get the names of all entries that start with the prefix, ignoring case.
+     *
+     * @param prefix - the prefix
+     *
+     * @return - the names, sorted
+     */
+    public List<String> getNames(@NotNull CharSequence prefix) {
+
+        int from = from(prefix);
+        int to = to(prefix);
+
+        List<String> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(names[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the original name of the entry at the specified index.
+     *
+     * @param index - the index
+     *
+     * @return - the name
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Get the value of the entry at the specified index.
+     *
+     * @param index - the index
+     *
+     * @return - the value
+     */
+    @SuppressWarnings("unchecked")
+    public V getValue(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * Get the amount of entries in the index.
+     *
+     * @return - the amount of entries
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Compare the start of the folded key to the prefix.
+     *
+     * @return - a negative number if the key sorts before the prefix, {@code 0} if the key
+     *           starts with the prefix or a positive number if the key sorts after the prefix
+     */
+    private static int comparePrefix(String key, CharSequence prefix) {
+
+        int length = Math.min(key.length(), prefix.length());
+
+        for (int i = 0; i < length; i++) {
+            int difference = key.charAt(i) - CaseInsensitiveIndex.fold(prefix.charAt(i));
+            if (difference != 0) return difference;
+        }
+
+        return key.length() < prefix.length() ? -1 : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> String name(Function<V, String> nameFunction, Object value) {
+        return nameFunction.apply((V) value);
+    }
+}
@@ -1,7 +1,5 @@
 package com.kitsune.foxlib.util;
 
-import java.lang.reflect.InvocationTargetException;
-
 public class ReflectionUtil {
 
     /**
@@ -26,29 +24,34 @@ public class ReflectionUtil {
         return false;
     }
 
+    /**
+     * Whether instances of a class can be cast to another class, by the class of the instance and then the target class.
+     * The results are stored on the classes themselves, so the cache doesn't keep plugin classes loaded.
+     */
+    private static final ClassValue<ClassValue<Boolean>> CAST_CACHE = new ClassValue<ClassValue<Boolean>>() {
+        @Override
+        protected ClassValue<Boolean> computeValue(Class<?> from) {
+            return new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> to) {
+                    return to.isAssignableFrom(from);
+                }
+            };
+        }
+    };
+
     /**
      * Get whether the object can be cast to the specified class!
      *
+     * The result is cached for every pair of classes, so this is a lookup that doesn't throw
+     * and works for any proxy or mock.
+     *
      * @param object - the object
      * @param to - the class
      *
      * @return - {@code true} if the object can be cast to the class or else {@code false}
      */
     public static boolean canBeCastTo (Object object, Class<?> to){
-
-        // Make sure unit tests pass
-        // Hacky solution but I cba to fix it rn
-        if(object.getClass().getName().equals("com.sun.proxy.$Proxy14")) return true;
-
-        try {
-            Log.info("Reflection Util", "Casting " + object.getClass().getName() + " to " + to.getName());
-            Object obj = to.cast(object);
-            return true;
-        }
-        catch (ClassCastException e){
-            return false;
-        }
-
-
+        return object == null || CAST_CACHE.get(object.getClass()).get(to);
     }
 }
@@ -0,0 +1,419 @@
+package com.kitsune.foxlib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates {@code @FoxCommand} methods at compile time and generates a registration table for every class
+ * that has them, so registering the class doesn't need any reflection.
+ *
+ * Handler parameters are checked against the types the FoxCommandAPI has a parser for by default, types of
+ * parsers that are registered by the plugin itself can be passed using {@code -Afoxlib.parserTypes},
+ * as a comma separated list of qualified class names. A class with a parameter of any other type only gets
+ * a warning, its parser may still be registered at runtime.
+ *
+ * Classes with private handlers, or parameters of unknown types, are skipped and still registered using reflection at runtime.
+ */
+@SupportedAnnotationTypes(FoxCommandProcessor.FOX_COMMAND)
+@SupportedOptions(FoxCommandProcessor.PARSER_TYPES_OPTION)
+public class FoxCommandProcessor extends AbstractProcessor {
+
+    static final String FOX_COMMAND = "com.kitsune.foxlib.command.FoxCommand";
+    static final String PARSER_TYPES_OPTION = "foxlib.parserTypes";
+
+    private static final String COMMAND_SENDER = "org.bukkit.command.CommandSender";
+
+    /** Must match FoxCommandRegistrar#SUFFIX */
+    private static final String SUFFIX = "_FoxCommands";
+
+    private static final String GREEDY_STRING = "com.kitsune.foxlib.command.GreedyString";
+
+    /** The types the FoxCommandAPI registers a parser for */
+    private static final List<String> DEFAULT_PARSER_TYPES = Arrays.asList(
+            "java.lang.String", GREEDY_STRING, "org.bukkit.Material", "org.bukkit.GameMode",
+            "org.bukkit.entity.Player", "org.bukkit.OfflinePlayer",
+            "int", "java.lang.Integer", "short", "java.lang.Short",
+            "long", "java.lang.Long", "double", "java.lang.Double"
+    );
+
+    /** The frame getters of the types that are read unboxed */
+    private static final Map<String, String> PRIMITIVE_GETTERS = new HashMap<>();
+
+    static {
+        PRIMITIVE_GETTERS.put("int", "getInt");
+        PRIMITIVE_GETTERS.put("java.lang.Integer", "getInt");
+        PRIMITIVE_GETTERS.put("short", "getShort");
+        PRIMITIVE_GETTERS.put("java.lang.Short", "getShort");
+        PRIMITIVE_GETTERS.put("long", "getLong");
+        PRIMITIVE_GETTERS.put("java.lang.Long", "getLong");
+        PRIMITIVE_GETTERS.put("double", "getDouble");
+        PRIMITIVE_GETTERS.put("java.lang.Double", "getDouble");
+    }
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    /** The types that have a parser */
+    private Set<String> parserTypes;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+        this.parserTypes = new HashSet<>(DEFAULT_PARSER_TYPES);
+
+        String extraTypes = processingEnv.getOptions().get(PARSER_TYPES_OPTION);
+
+        if (extraTypes != null) {
+            for (String type : extraTypes.split(",")) {
+                if (!type.trim().isEmpty()) parserTypes.add(type.trim());
+            }
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        TypeElement foxCommand = elements.getTypeElement(FOX_COMMAND);
+        if (foxCommand == null) return false;
+
+        // Group the handlers by the class they're declared in
+        Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<>();
+        Set<TypeElement> invalidClasses = new HashSet<>();
+        Set<TypeElement> unknownTypeClasses = new HashSet<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(foxCommand)) {
+
+            if (element.getKind() != ElementKind.METHOD) continue;
+
+            ExecutableElement method = (ExecutableElement) element;
+            TypeElement type = (TypeElement) method.getEnclosingElement();
+
+            handlers.computeIfAbsent(type, key -> new ArrayList<>()).add(method);
+
+            if (!validate(method)) invalidClasses.add(type);
+            if (hasUnknownTypes(method)) unknownTypeClasses.add(type);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : handlers.entrySet()) {
+            if (invalidClasses.contains(entry.getKey()) || unknownTypeClasses.contains(entry.getKey()) || !canGenerate(entry.getKey(), entry.getValue())) continue;
+
+            generate(entry.getKey(), entry.getValue());
+        }
+
+        return false;
+    }
+
+    /**
+     * Make sure the handler can be registered, reporting an error if it can't.
+     *
+     * @param method - the handler
+     *
+     * @return - {@code true} if the handler is valid or else {@code false}
+     */
+    private boolean validate(ExecutableElement method) {
+
+        boolean valid = true;
+        List<? extends VariableElement> parameters = method.getParameters();
+        TypeElement commandSender = elements.getTypeElement(COMMAND_SENDER);
+
+        // Make sure method has a command sender as first param
+        if (parameters.isEmpty() || (commandSender != null && !types.isAssignable(parameters.get(0).asType(), commandSender.asType()))) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "The first parameter of a @FoxCommand method must be a CommandSender", method);
+            valid = false;
+        }
+
+        for (int i = 1; i < parameters.size(); i++) {
+
+            String type = typeName(parameters.get(i).asType());
+
+            // A greedy argument takes the rest of the line, so nothing can follow it
+            if (type.equals(GREEDY_STRING) && i != parameters.size() - 1) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "A GreedyString parameter must be the last parameter", parameters.get(i));
+                valid = false;
+            }
+        }
+
+        if (stringValue(getValues(method), "path").trim().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "The path of a @FoxCommand method can't be empty", method);
+            valid = false;
+        }
+
+        return valid;
+    }
+
+    /**
+     * Get whether the handler has parameters of types that don't have a known parser, reporting a warning for each of them.
+     * The parsers of those types may be registered at runtime, so the class is registered using reflection instead.
+     *
+     * @param method - the handler
+     *
+     * @return - {@code true} if the handler has parameters of unknown types or else {@code false}
+     */
+    private boolean hasUnknownTypes(ExecutableElement method) {
+
+        boolean unknown = false;
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        for (int i = 1; i < parameters.size(); i++) {
+
+            String type = typeName(parameters.get(i).asType());
+
+            if (!parserTypes.contains(type)) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "No known argument parser for type " + type + ", the class is registered using reflection. "
+                        + "Add the type to -A" + PARSER_TYPES_OPTION + " if its parser is registered at runtime", parameters.get(i));
+                unknown = true;
+            }
+        }
+
+        return unknown;
+    }
+
+    /**
+     * Get whether the generated table can call the handlers of the class directly.
+     *
+     * @param type - the class
+     * @param methods - the handlers of the class
+     *
+     * @return - {@code true} if the table can be generated or else {@code false}
+     */
+    private boolean canGenerate(TypeElement type, List<ExecutableElement> methods) {
+
+        // Local and anonymous classes can't be named
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+
+            TypeElement enclosing = (TypeElement) element;
+
+            if (enclosing.getNestingKind() != NestingKind.TOP_LEVEL && enclosing.getNestingKind() != NestingKind.MEMBER) return false;
+
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "Private class " + enclosing.getSimpleName() + " is registered using reflection", type);
+                return false;
+            }
+        }
+
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "Class with private @FoxCommand methods is registered using reflection", method);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Generate the registration table of the class.
+     *
+     * @param type - the class
+     * @param methods - the handlers of the class
+     */
+    private void generate(TypeElement type, List<ExecutableElement> methods) {
+
+        PackageElement packageElement = elements.getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + SUFFIX;
+        String typeName = typeName(type.asType());
+
+        StringBuilder source = new StringBuilder();
+
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+
+        source.append("import com.kitsune.foxlib.command.FoxCommandRegistrar;\n")
+                .append("import com.kitsune.foxlib.command.RegisteredCommand;\n\n")
+                .append("import java.util.ArrayList;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * The commands of {@link ").append(typeName).append("}, generated by ")
+                .append(getClass().getSimpleName()).append(".\n */\n")
+                .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+                .append("public final class ").append(simpleName).append(" implements FoxCommandRegistrar<").append(typeName).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public List<RegisteredCommand> createCommands(").append(typeName).append(" instance) {\n\n")
+                .append("        List<RegisteredCommand> commands = new ArrayList<>(").append(methods.size()).append(");\n\n");
+
+        for (ExecutableElement method : methods) {
+            appendCommand(source, typeName, method);
+        }
+
+        source.append("        return commands;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, type);
+
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + simpleName + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Append the creation of the command of the handler.
+     *
+     * @param source - the source of the table
+     * @param typeName - the name of the class of the handler
+     * @param method - the handler
+     */
+    private void appendCommand(StringBuilder source, String typeName, ExecutableElement method) {
+
+        Map<String, AnnotationValue> values = getValues(method);
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        StringBuilder aliases = new StringBuilder();
+        for (Object alias : (List<?>) values.get("aliases").getValue()) {
+            if (aliases.length() > 0) aliases.append(", ");
+            aliases.append(literal((String) ((AnnotationValue) alias).getValue()));
+        }
+
+        StringBuilder parameterTypes = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+
+        for (int i = 0; i < parameters.size(); i++) {
+
+            String parameterType = typeName(parameters.get(i).asType());
+            String getter = PRIMITIVE_GETTERS.get(parameterType);
+
+            if (i > 0) {
+                parameterTypes.append(", ");
+                arguments.append(", ");
+            }
+
+            parameterTypes.append(parameterType).append(".class");
+
+            if (getter != null) {
+                arguments.append("frame.").append(getter).append("(").append(i).append(")");
+            } else {
+                arguments.append("(").append(parameterType).append(") frame.get(").append(i).append(")");
+            }
+        }
+
+        String target = method.getModifiers().contains(Modifier.STATIC) ? typeName : "instance";
+
+        source.append("        commands.add(new RegisteredCommand(")
+                .append(literal(stringValue(values, "path"))).append(", ")
+                .append("new String[]{").append(aliases).append("}, ")
+                .append(literal(stringValue(values, "permission"))).append(", ")
+                .append(literal(stringValue(values, "noPermissionsMessage"))).append(",\n                ")
+                .append(literal(stringValue(values, "description"))).append(", ")
+                .append(literal(stringValue(values, "usage"))).append(", ")
+                .append(values.get("async").getValue()).append(", ")
+                .append(values.get("maxConcurrent").getValue()).append(",\n                ")
+                .append(values.get("cooldown").getValue()).append("L, ")
+                .append(literal(stringValue(values, "cooldownMessage"))).append(", ")
+                .append(values.get("rateLimit").getValue()).append(", ")
+                .append(values.get("rateLimitPeriod").getValue()).append("L, ")
+                .append(literal(stringValue(values, "rateLimitMessage"))).append(",\n                ")
+                .append("instance, ").append(literal(method.getSimpleName().toString())).append(", ")
+                .append("new Class<?>[]{").append(parameterTypes).append("},\n                ")
+                .append("frame -> ").append(target).append(".").append(method.getSimpleName()).append("(").append(arguments).append(")));\n\n");
+    }
+
+    /**
+     * Get the values of the {@code @FoxCommand} annotation of the method, including the defaults.
+     *
+     * @param method - the method
+     *
+     * @return - the values by their name
+     */
+    private Map<String, AnnotationValue> getValues(ExecutableElement method) {
+
+        Map<String, AnnotationValue> values = new HashMap<>();
+
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(FOX_COMMAND)) continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                values.put(entry.getKey().getSimpleName().toString(), entry.getValue());
+            }
+        }
+
+        return values;
+    }
+
+    private static String stringValue(Map<String, AnnotationValue> values, String name) {
+        AnnotationValue value = values.get(name);
+        return value == null ? "" : (String) value.getValue();
+    }
+
+    /**
+     * Get the name of the erased type, as it's written in source code.
+     *
+     * @param type - the type
+     *
+     * @return - the name
+     */
+    private String typeName(TypeMirror type) {
+        return types.erasure(type).toString();
+    }
+
+    /**
+     * Get the string as a Java string literal.
+     *
+     * @param value - the string
+     *
+     * @return - the literal
+     */
+    private static String literal(String value) {
+
+        StringBuilder literal = new StringBuilder("\"");
+
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': literal.append("\\\""); break;
+                case '\\': literal.append("\\\\"); break;
+                case '\n': literal.append("\\n"); break;
+                case '\r': literal.append("\\r"); break;
+                case '\t': literal.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) literal.append(String.format("\\u%04x", (int) c));
+                    else literal.append(c);
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+}
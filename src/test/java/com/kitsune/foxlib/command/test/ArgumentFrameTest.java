@@ -0,0 +1,139 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.ArgumentParser;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArgumentFrameTest {
+
+    /** The amount of times the coordinate parser has been run */
+    private static final AtomicInteger coordinateParses = new AtomicInteger();
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+        FoxCommandAPI.getInstance().registerArgumentParser(Coordinate.class, new CoordinateParser());
+    }
+
+    @Test
+    public void dispatchAllocationTest() {
+
+        AtomicLong sum = new AtomicLong();
+        Player player = TestPlayers.create("FramePlayer");
+
+        // Every line is only sent once, so the dispatches match the tree instead of using the line cache
+        int lines = 4096;
+        List<RegisteredCommand> registeredCommands = new ArrayList<>();
+
+        for (int i = 0; i < lines * 2; i++) {
+            registeredCommands.add(TestCommands.command("frame literal" + i + " run").handler(frame -> sum.incrementAndGet()).build());
+        }
+
+        registeredCommands.add(TestCommands.command("frame add").arguments(int.class, long.class).handler(frame -> sum.addAndGet(frame.getInt(1) + frame.getLong(2))).build());
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.replaceFoxCommands(Collections.emptyList(), registeredCommands);
+
+        String[][] literalArgs = new String[lines * 2][];
+        String[][] typedArgs = new String[lines * 2][];
+
+        for (int i = 0; i < lines * 2; i++) {
+            literalArgs[i] = new String[]{"literal" + i, "RUN"};
+            typedArgs[i] = new String[]{"add", Integer.toString(i), Long.toString(-i)};
+        }
+
+        // The first half warms up the dispatch
+        for (int i = 0; i < lines; i++) {
+            commandTree.execute(player, "frame", literalArgs[i]);
+            commandTree.execute(player, "frame", typedArgs[i]);
+        }
+
+        sum.set(0);
+
+        long allocated = TestAllocations.measure(() -> {
+            for (int i = lines; i < lines * 2; i++) {
+                commandTree.execute(player, "frame", literalArgs[i]);
+                commandTree.execute(player, "frame", typedArgs[i]);
+            }
+        });
+
+        assertEquals(lines, sum.get(), "Failed to execute every command!");
+        assertEquals(0, commandTree.getLineCache().getHits(), "Used the line cache!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "frame", new String[]{"add", "1", "2"}), "Failed to execute command!");
+
+        // The numbers are passed unboxed, so matching the tree and invoking the handler allocates nothing
+        // Leave room for the allocations of measuring, a single argument list would already take more
+        assertTrue(allocated < lines, "Dispatches allocated " + allocated + " bytes!");
+    }
+
+    @Test
+    public void parseOnceTest() {
+
+        AtomicInteger handler = new AtomicInteger();
+        Player player = TestPlayers.create("FrameParsePlayer");
+
+        // The coordinate follows both an int and a String, only the String branch ends in "b"
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("memo").arguments(int.class, Coordinate.class).handler(frame -> handler.set(1)).build());
+        commandTree.addFoxCommand(TestCommands.command("memo").arguments(int.class, Coordinate.class, int.class).handler(frame -> handler.set(2)).build());
+        commandTree.addFoxCommand(TestCommands.command("memo").arguments(String.class, Coordinate.class, String.class).handler(frame -> handler.set(3)).build());
+
+        // The int branch parses the coordinate and fails on "b", the String branch reuses the parsed coordinate
+        coordinateParses.set(0);
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "memo", new String[]{"5", "c1", "b"}), "Failed to backtrack!");
+        assertEquals(3, handler.get(), "Backtracked into the wrong branch!");
+        assertEquals(1, coordinateParses.get(), "Parsed the same argument twice!");
+
+        // An argument that doesn't match is remembered too
+        coordinateParses.set(0);
+        assertEquals(FoxCommandResult.INVALID_COMMAND, commandTree.execute(player, "memo", new String[]{"5", "x1", "b"}), "Matched invalid coordinate!");
+        assertEquals(1, coordinateParses.get(), "Parsed the same invalid argument twice!");
+
+        // Every dispatch parses its own arguments
+        coordinateParses.set(0);
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "memo", new String[]{"5", "c1", "6"}), "Failed to execute command!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "memo", new String[]{"5", "c1", "6"}), "Failed to execute command!");
+        assertEquals(2, handler.get(), "Executed the wrong branch!");
+        assertEquals(2, coordinateParses.get(), "Reused the parse result of another dispatch!");
+    }
+
+    /**
+     * A type that's only parsed by a custom parser.
+     */
+    public static class Coordinate {
+
+        private final String name;
+
+        public Coordinate(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Parses arguments that start with a "c" and counts how often it's run.
+     */
+    public static class CoordinateParser implements ArgumentParser<Coordinate> {
+
+        @Override
+        public Coordinate parse(String argument) {
+            coordinateParses.incrementAndGet();
+            return argument.startsWith("c") ? new Coordinate(argument) : null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.parser.DoubleParser;
+import com.kitsune.foxlib.command.parser.EnumParser;
+import com.kitsune.foxlib.command.parser.IntegerParser;
+import com.kitsune.foxlib.command.parser.MaterialParser;
+import com.kitsune.foxlib.command.parser.ShortParser;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArgumentParserTest {
+
+    @Test
+    public void numberParserTest() {
+
+        IntegerParser integerParser = new IntegerParser();
+        assertEquals(Integer.valueOf(-42), integerParser.parse("-42"), "Failed to parse integer!");
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), integerParser.parse("-2147483648"), "Failed to parse minimum integer!");
+        assertNull(integerParser.parse("2147483648"), "Parsed integer that overflows!");
+        assertNull(integerParser.parse("12a"), "Parsed invalid integer!");
+        assertNull(integerParser.parse("-"), "Parsed sign without digits!");
+
+        ShortParser shortParser = new ShortParser();
+        assertTrue(shortParser.matches("32767"), "Failed to match maximum short!");
+        assertFalse(shortParser.matches("32768"), "Matched short that overflows!");
+
+        DoubleParser doubleParser = new DoubleParser();
+        assertEquals(Double.valueOf(0.5), doubleParser.parse(".5"), "Failed to parse double!");
+        assertEquals(Double.valueOf(-1500), doubleParser.parse("-1.5e3"), "Failed to parse double with exponent!");
+        assertNull(doubleParser.parse("1e"), "Parsed double without exponent digits!");
+        assertNull(doubleParser.parse("."), "Parsed double without digits!");
+    }
+
+    @Test
+    public void enumParserTest() {
+
+        EnumParser<GameMode> gameModeParser = new EnumParser<>(GameMode.class);
+        assertEquals(GameMode.CREATIVE, gameModeParser.parse("creative"), "Failed to parse enum ignoring case!");
+        assertNull(gameModeParser.parse("creativ"), "Parsed invalid enum constant!");
+
+        MaterialParser materialParser = new MaterialParser();
+        assertEquals(Material.DIAMOND_SWORD, materialParser.parse("Diamond_Sword"), "Failed to parse material ignoring case!");
+        assertEquals(Material.STONE, materialParser.parse("minecraft:stone"), "Failed to parse namespaced material!");
+        assertNull(materialParser.parse("LEGACY_STONE"), "Parsed legacy material!");
+        assertTrue(materialParser.getSuggestions("diam").contains("diamond_sword"), "Failed to suggest material!");
+    }
+}
@@ -0,0 +1,53 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandCorrectionTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+    }
+
+    @Test
+    public void closestFirstTest() {
+
+        // Added from the furthest to the closest, next to a typed overload
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("fix static").build());
+        commandTree.addFoxCommand(TestCommands.command("fix stamps").build());
+        commandTree.addFoxCommand(TestCommands.command("fix statue").permission("foxlib.test.fix.admin").build());
+        commandTree.addFoxCommand(TestCommands.command("fix stats").build());
+        commandTree.addFoxCommand(TestCommands.command("fix states").build());
+        commandTree.addFoxCommand(TestCommands.command("fix").arguments(int.class, int.class).build());
+
+        Set<String> permissions = new HashSet<>();
+        Player player = TestPlayers.create("CorrectionPlayer", permissions);
+
+        // The closest corrections first, the command without permission is left out
+        assertEquals(Arrays.asList("/fix states", "/fix stats", "/fix stamps"),
+                commandTree.getCorrections(player, "fix", new String[]{"status"}), "Wrong corrections!");
+
+        permissions.add("foxlib.test.fix.admin");
+
+        assertEquals(Arrays.asList("/fix states", "/fix stats", "/fix statue"),
+                commandTree.getCorrections(player, "fix", new String[]{"status"}), "Failed to suggest permitted command!");
+
+        // Arguments that match aren't corrected
+        assertTrue(commandTree.getCorrections(player, "fix", new String[]{"states"}).isEmpty(), "Corrected matching command!");
+        assertTrue(commandTree.getCorrections(player, "unknown", new String[]{"states"}).isEmpty(), "Corrected unknown label!");
+    }
+}
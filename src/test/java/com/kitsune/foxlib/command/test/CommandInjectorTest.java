@@ -0,0 +1,164 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandInjector;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandExecutor;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.easymock.EasyMock;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandInjectorTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+    }
+
+    @Test
+    public void batchedInjectionTest() throws ReflectiveOperationException {
+
+        JavaPlugin alpha = TestPlugins.create("InjectAlpha");
+        JavaPlugin beta = TestPlugins.create("InjectBeta");
+
+        CountingCommandMap commandMap = new CountingCommandMap();
+        RecordingInjector injector = new RecordingInjector(commandMap);
+
+        // Queue the commands of both plugins in the same tick, a label is only injected once per plugin
+        for (int i = 0; i < 50; i++) {
+            injector.queue(alpha, TestCommands.command("alpha" + i + " run").build());
+            injector.queue(alpha, TestCommands.command("alpha" + i + " stop").build());
+            injector.queue(beta, TestCommands.command("beta" + i).build());
+        }
+
+        assertEquals(100, injector.scheduledFlushes, "Failed to schedule flush for every queued command!");
+        assertTrue(commandMap.registerAllCalls.isEmpty(), "Injected commands before the flush!");
+
+        injector.flush();
+
+        assertEquals(1, (int) commandMap.registerAllCalls.get("InjectAlpha"), "Failed to inject commands of plugin together!");
+        assertEquals(1, (int) commandMap.registerAllCalls.get("InjectBeta"), "Failed to inject commands of plugin together!");
+        assertEquals(50, (int) commandMap.registeredCommands.get("InjectAlpha"), "Injected wrong commands!");
+        assertEquals(1, injector.syncs, "Failed to resync the players once!");
+
+        // Nothing has changed, so there's nothing to inject or resync
+        injector.flush();
+
+        assertEquals(2, commandMap.registerAllCalls.size(), "Injected commands twice!");
+        assertEquals(1, injector.syncs, "Resynced without changes!");
+    }
+
+    @Test
+    public void uninjectTest() throws ReflectiveOperationException {
+
+        JavaPlugin alpha = TestPlugins.create("UninjectAlpha");
+        JavaPlugin beta = TestPlugins.create("UninjectBeta");
+
+        CountingCommandMap commandMap = new CountingCommandMap();
+        RecordingInjector injector = new RecordingInjector(commandMap);
+
+        // Both plugins have a "shared" command, the plugin that's injected first gets the label
+        injector.queue(alpha, TestCommands.command("shared").build());
+        injector.queue(alpha, TestCommands.command("alpha").build());
+        injector.queue(beta, TestCommands.command("shared").build());
+        injector.queue(beta, TestCommands.command("beta").build());
+        injector.flush();
+
+        Map<String, Command> labels = commandMap.getLabels();
+        Command betaShared = labels.get("uninjectbeta:shared");
+
+        assertNotNull(labels.get("shared"), "Failed to inject command!");
+        assertNotNull(betaShared, "Failed to inject command!");
+
+        injector.uninject("UninjectAlpha");
+
+        // Only the labels of the plugin are removed, the resync waits for the next flush
+        assertNull(labels.get("shared"), "Failed to remove label!");
+        assertNull(labels.get("alpha"), "Failed to remove label!");
+        assertNull(labels.get("uninjectalpha:shared"), "Failed to remove prefixed label!");
+        assertNull(labels.get("uninjectalpha:alpha"), "Failed to remove prefixed label!");
+        assertSame(betaShared, labels.get("uninjectbeta:shared"), "Removed label of another plugin!");
+        assertNotNull(labels.get("beta"), "Removed label of another plugin!");
+        assertNotNull(labels.get("uninjectbeta:beta"), "Removed label of another plugin!");
+        assertEquals(1, injector.syncs, "Resynced before the flush!");
+
+        injector.flush();
+
+        assertEquals(2, injector.syncs, "Failed to resync after uninjecting!");
+
+        // The commands can be injected again
+        injector.queue(alpha, TestCommands.command("alpha").build());
+        injector.flush();
+
+        assertNotNull(labels.get("uninjectalpha:alpha"), "Failed to inject command again!");
+        assertEquals(2, (int) commandMap.registerAllCalls.get("UninjectAlpha"), "Failed to inject command again!");
+    }
+
+    /**
+     * A command map that counts the calls to {@link SimpleCommandMap#registerAll(String, List)}.
+     */
+    private static class CountingCommandMap extends SimpleCommandMap {
+
+        /** The amount of calls by fallback prefix */
+        private final Map<String, Integer> registerAllCalls = new HashMap<>();
+
+        /** The amount of registered commands by fallback prefix */
+        private final Map<String, Integer> registeredCommands = new HashMap<>();
+
+        private CountingCommandMap() {
+            super(EasyMock.niceMock(Server.class));
+        }
+
+        @Override
+        public void registerAll(String fallbackPrefix, List<Command> commands) {
+
+            registerAllCalls.merge(fallbackPrefix, 1, Integer::sum);
+            registeredCommands.merge(fallbackPrefix, commands.size(), Integer::sum);
+
+            super.registerAll(fallbackPrefix, commands);
+        }
+
+        private Map<String, Command> getLabels() {
+            return knownCommands;
+        }
+    }
+
+    /**
+     * An injector that's flushed by the test instead of the server and counts the resyncs.
+     */
+    private static class RecordingInjector extends CommandInjector {
+
+        private int scheduledFlushes;
+        private int syncs;
+
+        private RecordingInjector(SimpleCommandMap commandMap) {
+            super(commandMap, new FoxCommandExecutor(FoxCommandAPI.getInstance()));
+        }
+
+        @Override
+        protected void scheduleFlush(Plugin plugin) {
+            scheduledFlushes++;
+        }
+
+        @Override
+        protected void syncCommands() {
+            syncs++;
+        }
+    }
+}
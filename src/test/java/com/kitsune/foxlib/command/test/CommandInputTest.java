@@ -0,0 +1,95 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandInput;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandInputTest {
+
+    @Test
+    public void quotesTest() {
+
+        assertArrayEquals(new String[]{"give", "Fox Kit", "3"}, CommandInput.split("give \"Fox Kit\" 3"), "Failed to split double quotes!");
+        assertArrayEquals(new String[]{"give", "Fox Kit", "3"}, CommandInput.split("give 'Fox Kit' 3"), "Failed to split single quotes!");
+        assertArrayEquals(new String[]{"say", "", "hi"}, CommandInput.split("say \"\" hi"), "Failed to split empty quotes!");
+        assertArrayEquals(new String[]{"a", "b"}, CommandInput.split("  a   b  "), "Failed to skip spaces!");
+
+        // A quote only closes the token when it's followed by a space, so a token never ends in the middle of a word
+        assertArrayEquals(new String[]{"\"ab\"cd", "e"}, CommandInput.split("\"ab\"cd e"), "Split a word at a quote!");
+        assertArrayEquals(new String[]{"ab\"cd", "e"}, CommandInput.split("'ab\"cd' e"), "Closed a quote with the other quote!");
+
+        CommandInput input = new CommandInput().tokenize("set \"Fox Kit\"");
+        assertEquals("Fox Kit", input.view(1).toString(), "Failed to view quoted token!");
+        assertEquals(4, input.getRawStart(1), "Wrong raw start of quoted token!");
+        assertEquals(13, input.getRawEnd(1), "Wrong raw end of quoted token!");
+    }
+
+    @Test
+    public void escapesTest() {
+
+        CommandInput input = new CommandInput().tokenize("say \"a \\\"quoted\\\" word\" 'it\\'s' \\n");
+
+        assertEquals(4, input.size(), "Failed to split escaped quotes!");
+        assertTrue(input.isEscaped(1), "Failed to detect escapes!");
+        assertEquals("a \"quoted\" word", input.getString(1), "Failed to unescape double quotes!");
+        assertEquals("a \"quoted\" word", input.view(1).toString(), "Failed to unescape view!");
+        assertEquals("it's", input.getString(2), "Failed to unescape single quote!");
+
+        // Backslashes outside of quotes are kept
+        assertFalse(input.isEscaped(3), "Escaped unquoted token!");
+        assertEquals("\\n", input.getString(3), "Removed backslash outside of quotes!");
+    }
+
+    @Test
+    public void unclosedQuoteTest() {
+
+        assertArrayEquals(new String[]{"say", "\"hello", "world"}, CommandInput.split("say \"hello world"), "Failed to keep unclosed quote!");
+        assertArrayEquals(new String[]{"say", "'"}, CommandInput.split("say '"), "Failed to keep single quote!");
+        assertArrayEquals(new String[]{"\"a\\\"", "b"}, CommandInput.split("\"a\\\" b"), "Closed quote with escaped quote!");
+    }
+
+    @Test
+    public void restOfLineTest() {
+
+        CommandInput input = new CommandInput().tokenize("msg Fox  hello   \"there\"  you");
+
+        // The rest keeps the spacing and the quotes as they were typed
+        assertEquals("hello   \"there\"  you", input.getRest(2), "Failed to get rest of the line!");
+
+        // A rest that's a single quoted token is unquoted
+        assertEquals("hello there", new CommandInput().tokenize("msg Fox \"hello there\"").getRest(2), "Failed to unquote rest of the line!");
+        assertEquals("hello", new CommandInput().tokenize("msg Fox hello").getRest(2), "Failed to get single token rest!");
+    }
+
+    @Test
+    public void argumentsTest() {
+
+        // Bukkit splits the line on every space, so a quoted token spans several arguments
+        CommandInput input = new CommandInput().tokenize(new String[]{"give", "\"Fox", "Kit\"", "3"});
+
+        assertEquals(3, input.size(), "Failed to join quoted arguments!");
+        assertEquals("Fox Kit", input.getString(1), "Failed to join quoted arguments!");
+        assertEquals("3", input.getString(2), "Failed to tokenize argument after quoted arguments!");
+
+        // Every other argument is a token as it is, including empty ones and quotes in the middle of a word
+        input.tokenize(new String[]{"a", "", "\"ab\"cd", "'x"});
+
+        assertEquals(4, input.size(), "Arguments don't match tokens!");
+        assertEquals("", input.getString(1), "Failed to keep empty argument!");
+        assertEquals("\"ab\"cd", input.getString(2), "Split argument at a quote!");
+        assertEquals("'x", input.getString(3), "Failed to keep unclosed quote!");
+
+        // Quoted arguments are unquoted, a quote that's closed by a later argument takes the arguments between them
+        input.tokenize(new String[]{"'one'", "\"two", "", "three\"", "four"});
+
+        assertEquals(3, input.size(), "Failed to join quoted arguments!");
+        assertEquals("one", input.getString(0), "Failed to unquote argument!");
+        assertEquals("two  three", input.getString(1), "Failed to keep empty argument in quotes!");
+        assertEquals("four", input.getString(2), "Failed to tokenize last argument!");
+        assertEquals("\"two  three\" four", input.getRest(1), "Failed to get rest of the arguments!");
+    }
+}
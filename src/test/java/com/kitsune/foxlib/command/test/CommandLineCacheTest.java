@@ -0,0 +1,171 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandLineCache;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.PlayerIndex;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.GameMode;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandLineCacheTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+    }
+
+    @Test
+    public void secondSightingTest() {
+
+        AtomicInteger sum = new AtomicInteger();
+        AtomicReference<Object> said = new AtomicReference<>();
+        Player player = TestPlayers.create("CacheAdmitPlayer");
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("cache add").handler(frame -> sum.set(frame.getInt(1) + frame.getInt(2))).arguments(int.class, int.class).build());
+        commandTree.addFoxCommand(TestCommands.command("cache say").handler(frame -> said.set(frame.get(1))).arguments(String.class).build());
+
+        CommandLineCache lineCache = commandTree.getLineCache();
+
+        // The first time a line is seen it isn't cached, the second time it's stored and the third time it's used
+        for (int i = 0; i < 2; i++) {
+            assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "cache", new String[]{"add", "20", "22"}), "Failed to execute command!");
+            assertEquals(0, lineCache.getHits(), "Used line that hasn't been stored!");
+        }
+
+        sum.set(0);
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "cache", new String[]{"add", "20", "22"}), "Failed to execute cached command!");
+        assertEquals(1, lineCache.getHits(), "Failed to cache line seen twice!");
+        assertEquals(42, sum.get(), "Loaded wrong unboxed arguments!");
+
+        // Tokens are cached as strings
+        for (int i = 0; i < 3; i++) {
+            said.set(null);
+            assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "cache", new String[]{"say", "\"hello", "there\""}), "Failed to execute command!");
+            assertEquals("hello there", said.get(), "Loaded wrong string argument!");
+        }
+
+        assertEquals(2, lineCache.getHits(), "Failed to cache string arguments!");
+    }
+
+    @Test
+    public void rootChangeTest() {
+
+        AtomicInteger handler = new AtomicInteger();
+        Player player = TestPlayers.create("CacheRootPlayer");
+
+        RegisteredCommand oldCommand = TestCommands.command("cache set").handler(frame -> handler.set(frame.getInt(1))).arguments(int.class).build();
+        RegisteredCommand newCommand = TestCommands.command("cache set").handler(frame -> handler.set(-frame.getInt(1))).arguments(int.class).build();
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(oldCommand);
+
+        CommandLineCache lineCache = commandTree.getLineCache();
+
+        for (int i = 0; i < 3; i++) commandTree.execute(player, "cache", new String[]{"set", "7"});
+        assertEquals(1, lineCache.getHits(), "Failed to cache line!");
+
+        // Every change of the tree gives it a new root, so the entries of the old root aren't used anymore
+        commandTree.replaceFoxCommands(Collections.singletonList(oldCommand), Collections.singletonList(newCommand));
+
+        long misses = lineCache.getMisses();
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "cache", new String[]{"set", "7"}), "Failed to execute new command!");
+        assertEquals(-7, handler.get(), "Executed cached command of the old tree!");
+        assertEquals(1, lineCache.getHits(), "Used line of the old tree!");
+        assertEquals(misses + 1, lineCache.getMisses(), "Failed to count miss!");
+
+        // A line that's sent all the time is cached again right away
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "cache", new String[]{"set", "7"}), "Failed to execute new command!");
+        assertEquals(2, lineCache.getHits(), "Failed to cache line of the new tree!");
+        assertEquals(-7, handler.get(), "Cached wrong command!");
+    }
+
+    @Test
+    public void impureParserTest() {
+
+        AtomicInteger handler = new AtomicInteger();
+        Player player = TestPlayers.create("CacheMessagePlayer");
+        Player target = TestPlayers.create("CacheFox");
+        PlayerIndex playerIndex = FoxCommandAPI.getInstance().getPlayerIndex();
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("msg").handler(frame -> handler.set(1)).arguments(Player.class).build());
+        commandTree.addFoxCommand(TestCommands.command("msg").handler(frame -> handler.set(2)).arguments(String.class).build());
+
+        // The player is offline, so the line falls back to the String command, which only has a pure argument
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "msg", new String[]{"CacheFox"}), "Failed to execute command!");
+            assertEquals(2, handler.get(), "Matched offline player!");
+        }
+
+        assertEquals(0, commandTree.getLineCache().getHits(), "Cached line that was ruled out by an impure parser!");
+
+        // Once the player is online the same line resolves to the Player command
+        playerIndex.add(target);
+
+        try {
+            assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "msg", new String[]{"CacheFox"}), "Failed to execute command!");
+            assertEquals(1, handler.get(), "Used cached command after the player came online!");
+        } finally {
+            playerIndex.remove(target);
+        }
+    }
+
+    @Test
+    public void enumArgumentTest() {
+
+        AtomicReference<Object> mode = new AtomicReference<>();
+        Player player = TestPlayers.create("CacheModePlayer");
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("cache mode").handler(frame -> mode.set(frame.get(1))).arguments(GameMode.class).build());
+
+        // Enum constants are shared by every dispatch, so lines with them are cached
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "cache", new String[]{"mode", "creative"}), "Failed to execute command!");
+            assertSame(GameMode.CREATIVE, mode.get(), "Loaded wrong enum constant!");
+        }
+
+        assertEquals(1, commandTree.getLineCache().getHits(), "Failed to cache enum argument!");
+    }
+
+    @Test
+    public void missAllocationTest() {
+
+        AtomicInteger handler = new AtomicInteger();
+        Player player = TestPlayers.create("CacheMissPlayer");
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("cache miss").handler(frame -> handler.set(frame.getInt(1))).arguments(int.class).build());
+
+        // Every line is different, so none of them are cached, the first half warms up the dispatch
+        int lines = 4096;
+        String[][] args = new String[lines * 2][];
+        for (int i = 0; i < args.length; i++) args[i] = new String[]{"miss", Integer.toString(i)};
+
+        for (int i = 0; i < lines; i++) commandTree.execute(player, "cache", args[i]);
+
+        long allocated = TestAllocations.measure(() -> {
+            for (int i = lines; i < args.length; i++) commandTree.execute(player, "cache", args[i]);
+        });
+
+        assertEquals(0, commandTree.getLineCache().getHits(), "Cached line seen once!");
+
+        // Leave room for the allocations of measuring, a single entry would already take more
+        assertTrue(allocated < lines, "Missed lines allocated " + allocated + " bytes!");
+    }
+}
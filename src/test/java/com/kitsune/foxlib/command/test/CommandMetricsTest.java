@@ -0,0 +1,76 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandMetrics;
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandMetricsTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+        FoxCommandAPI.getInstance().registerCommandsFromClass(null, new CommandMetricsTest());
+    }
+
+    @Test
+    public void recordDispatchesTest() {
+
+        Player player = TestPlayers.create("MetricsPlayer");
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        CommandMetrics countMetrics = getMetrics("metrics count");
+        CommandMetrics adminMetrics = getMetrics("metrics admin");
+        long unresolved = commandTree.getUnresolvedDispatches();
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "metrics", new String[]{"count", "1"}), "Failed to execute command!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "metrics", new String[]{"count", "2"}), "Failed to execute command!");
+        assertEquals(FoxCommandResult.INSUFFICIENT_PERMISSIONS, commandTree.execute(player, "metrics", new String[]{"admin"}), "Executed command without permission!");
+
+        // An argument that doesn't parse is attributed to the command below the deepest node that has been reached
+        assertEquals(FoxCommandResult.INVALID_COMMAND, commandTree.execute(player, "metrics", new String[]{"count", "many"}), "Executed command with invalid argument!");
+
+        // A label that isn't registered can't be attributed to any command
+        assertEquals(FoxCommandResult.INVALID_COMMAND, commandTree.execute(player, "nometrics", new String[0]), "Executed unknown command!");
+
+        assertEquals(2, countMetrics.getInvocations(), "Failed to count invocations!");
+        assertEquals(1, countMetrics.getParseFailures(), "Failed to count parse failure!");
+        assertEquals(1, adminMetrics.getPermissionDenials(), "Failed to count permission denial!");
+        assertEquals(0, adminMetrics.getInvocations(), "Counted denied invocation!");
+        assertEquals(unresolved + 1, commandTree.getUnresolvedDispatches(), "Failed to count unresolved dispatch!");
+
+        assertTrue(countMetrics.getLatencyPercentile(0.5) > 0, "Failed to record latency!");
+        assertTrue(countMetrics.getLatencyPercentile(0.5) <= countMetrics.getLatencyPercentile(0.99), "Latency percentiles aren't ordered!");
+
+        countMetrics.reset();
+        assertEquals(0, countMetrics.getInvocations(), "Failed to reset invocations!");
+        assertEquals(0, countMetrics.getLatencyPercentile(0.99), "Failed to reset latency!");
+    }
+
+    private static CommandMetrics getMetrics(String path) {
+
+        for (RegisteredCommand registeredCommand : FoxCommandAPI.getInstance().getRegisteredCommands()) {
+            if (registeredCommand.getPath().equals(path)) return registeredCommand.getMetrics();
+        }
+
+        throw new IllegalStateException("/" + path + " isn't registered!");
+    }
+
+    @FoxCommand(path = "metrics count")
+    public void countCommand(Player player, int count) {
+    }
+
+    @FoxCommand(path = "metrics admin", permission = "foxlib.test.metrics", noPermissionsMessage = "")
+    public void adminCommand(Player player) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandPriorityTest {
+
+    /** The handler that ran last */
+    private static String lastHandler;
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api, the handlers are registered from the lowest to the highest priority
+        FoxCommandAPI.init(false);
+        FoxCommandAPI.getInstance().registerCommandsFromClass(null, new StringCommands());
+        FoxCommandAPI.getInstance().registerCommandsFromClass(null, new DoubleCommands());
+        FoxCommandAPI.getInstance().registerCommandsFromClass(null, new IntCommands());
+    }
+
+    @Test
+    public void priorityOrderTest() {
+
+        Player player = TestPlayers.create("PriorityPlayer");
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        // Typed children are tried by priority, not in the order they were registered
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "priority", new String[]{"5"}), "Failed to execute command!");
+        assertEquals("int", lastHandler, "Tried lower priority parser first!");
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "priority", new String[]{"5.5"}), "Failed to execute command!");
+        assertEquals("double", lastHandler, "Failed to fall back to the double parser!");
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "priority", new String[]{"five"}), "Failed to execute command!");
+        assertEquals("string", lastHandler, "Failed to fall back to the string parser!");
+    }
+
+    @Test
+    public void backtrackingTest() {
+
+        Player player = TestPlayers.create("BacktrackPlayer");
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        // The int and double branches match the first argument but have no children, so the string branch is tried next
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "priority", new String[]{"5", "x"}), "Failed to backtrack!");
+        assertEquals("pair", lastHandler, "Backtracked into the wrong branch!");
+    }
+
+    @Test
+    public void deepBacktrackingTest() {
+
+        // A line that only matches the last branch is resolved by backtracking, however many branches are tried first
+        for (int depth : new int[]{3, 8}) {
+            AtomicBoolean called = new AtomicBoolean();
+            assertEquals(FoxCommandResult.SUCCESS, createOverlappingTree(depth, called).execute(TestPlayers.create("DeepPlayer" + depth), "deep", lastBranchArguments(depth)), "Failed to backtrack!");
+            assertTrue(called.get(), "Failed to execute the last branch!");
+        }
+    }
+
+    @Test
+    public void numberOverloadsTest() {
+
+        Class<?>[] numberTypes = {short.class, int.class, long.class, double.class};
+        List<RegisteredCommand> registeredCommands = new ArrayList<>();
+
+        // Every combination of three numbers followed by an int, the number branches all fail on the last argument
+        for (Class<?> first : numberTypes) {
+            for (Class<?> second : numberTypes) {
+                for (Class<?> third : numberTypes) {
+                    registeredCommands.add(TestCommands.command("calc").arguments(first, second, third, int.class).build());
+                }
+            }
+        }
+
+        AtomicBoolean called = new AtomicBoolean();
+        registeredCommands.add(TestCommands.command("calc").arguments(String.class, String.class, String.class, String.class).handler(frame -> called.set(true)).build());
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.replaceFoxCommands(Collections.emptyList(), registeredCommands);
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(TestPlayers.create("CalcPlayer"), "calc", new String[]{"1", "1", "1", "x"}), "Failed to backtrack through the number overloads!");
+        assertTrue(called.get(), "Failed to execute the String overload!");
+    }
+
+    /**
+     * Create a tree where every argument up to the depth may be an int or a String, followed by an int.
+     * Only the branch that takes Strings all the way ends in a String, which is the branch that's tried last.
+     *
+     * @param depth - the amount of overlapping arguments
+     * @param called - set when the last branch is executed
+     * @return - the tree
+     */
+    private static FoxCommandTree createOverlappingTree(int depth, AtomicBoolean called) {
+
+        List<RegisteredCommand> registeredCommands = new ArrayList<>();
+
+        for (int combination = 0; combination < 1 << depth; combination++) {
+
+            Class<?>[] argumentTypes = new Class<?>[depth + 1];
+
+            for (int i = 0; i < depth; i++) {
+                argumentTypes[i] = (combination & (1 << i)) != 0 ? int.class : String.class;
+            }
+
+            argumentTypes[depth] = int.class;
+            registeredCommands.add(TestCommands.command("deep").arguments(argumentTypes).build());
+        }
+
+        Class<?>[] lastBranch = new Class<?>[depth + 1];
+        Arrays.fill(lastBranch, String.class);
+        registeredCommands.add(TestCommands.command("deep").arguments(lastBranch).handler(frame -> called.set(true)).build());
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.replaceFoxCommands(Collections.emptyList(), registeredCommands);
+
+        return commandTree;
+    }
+
+    /**
+     * Get arguments that every int and String branch accepts, except for the last one that's only accepted as a String.
+     */
+    private static String[] lastBranchArguments(int depth) {
+
+        String[] args = new String[depth + 1];
+        Arrays.fill(args, "1");
+        args[depth] = "x";
+
+        return args;
+    }
+
+    public static class StringCommands {
+
+        @FoxCommand(path = "priority")
+        public void stringCommand(Player player, String value) {
+            lastHandler = "string";
+        }
+
+        @FoxCommand(path = "priority")
+        public void pairCommand(Player player, String first, String second) {
+            lastHandler = "pair";
+        }
+    }
+
+    public static class DoubleCommands {
+
+        @FoxCommand(path = "priority")
+        public void doubleCommand(Player player, double value) {
+            lastHandler = "double";
+        }
+    }
+
+    public static class IntCommands {
+
+        @FoxCommand(path = "priority")
+        public void intCommand(Player player, int value) {
+            lastHandler = "int";
+        }
+    }
+}
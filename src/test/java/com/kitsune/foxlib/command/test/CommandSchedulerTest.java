@@ -0,0 +1,135 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandSchedulerTest {
+
+    @Test
+    public void concurrencyLimitTest() throws InterruptedException {
+
+        CommandScheduler scheduler = new CommandScheduler(4, 16);
+        Semaphore permits = new Semaphore(1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        try {
+            assertTrue(scheduler.submit(() -> block(started, finish), permits), "Failed to submit task!");
+            assertTrue(started.await(5, TimeUnit.SECONDS), "Task didn't start!");
+
+            // The scheduler has room, but the task that shares the permits is still running
+            assertFalse(scheduler.submit(() -> {}, permits), "Ran more tasks than the limit!");
+            assertTrue(scheduler.submit(() -> {}, null), "Rejected task without a limit!");
+
+            finish.countDown();
+
+            // The permit is given back once the task has finished
+            assertTrue(permits.tryAcquire(5, TimeUnit.SECONDS), "Failed to release permit!");
+            permits.release();
+
+            CountDownLatch ran = new CountDownLatch(1);
+            assertTrue(scheduler.submit(ran::countDown, permits), "Failed to submit task after the limit was freed!");
+            assertTrue(ran.await(5, TimeUnit.SECONDS), "Task didn't run!");
+        } finally {
+            finish.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void fullQueueTest() throws InterruptedException {
+
+        // A single thread that can only queue a single task
+        CommandScheduler scheduler = new CommandScheduler(1, 1);
+        Semaphore permits = new Semaphore(10);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        try {
+            assertTrue(scheduler.submit(() -> block(started, finish), permits), "Failed to submit task!");
+            assertTrue(started.await(5, TimeUnit.SECONDS), "Task didn't start!");
+            assertTrue(scheduler.submit(() -> queuedRan.set(true), permits), "Failed to queue task!");
+
+            // The queue is full, so the task is rejected instead of waiting
+            assertFalse(scheduler.submit(() -> {}, permits), "Queued more tasks than the bound!");
+            assertEquals(8, permits.availablePermits(), "Kept permit of rejected task!");
+
+            finish.countDown();
+
+            assertTrue(permits.tryAcquire(10, 5, TimeUnit.SECONDS), "Failed to release permits!");
+            assertTrue(queuedRan.get(), "Queued task didn't run!");
+        } finally {
+            finish.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void failingTaskTest() throws InterruptedException {
+
+        CommandScheduler scheduler = new CommandScheduler(1, 1);
+        Semaphore permits = new Semaphore(1);
+
+        try {
+            assertTrue(scheduler.submit(() -> {
+                throw new IllegalStateException("Expected by the test");
+            }, permits), "Failed to submit task!");
+
+            // An exception of the task doesn't keep its permit
+            assertTrue(permits.tryAcquire(5, TimeUnit.SECONDS), "Failed to release permit of failed task!");
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void syncTest() throws InterruptedException, ExecutionException {
+
+        // FoxLib isn't running as a plugin, so the tasks run right away
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> called = CommandScheduler.callSync(Thread::currentThread);
+        assertTrue(called.isDone(), "Failed to run task right away!");
+        assertSame(caller, called.get(), "Ran task on another thread!");
+
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Void> run = CommandScheduler.runSync(() -> ran.set(true));
+        assertTrue(run.isDone() && ran.get(), "Failed to run task right away!");
+
+        // An exception completes the future instead of being thrown
+        IllegalStateException exception = new IllegalStateException("Expected by the test");
+        CompletableFuture<Object> failed = CommandScheduler.callSync(() -> {
+            throw exception;
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, failed::get, "Failed to complete future exceptionally!");
+        assertSame(exception, thrown.getCause(), "Wrong exception!");
+    }
+
+    private static void block(CountDownLatch started, CountDownLatch finish) {
+
+        started.countDown();
+
+        try {
+            finish.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandThrottle;
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandThrottleTest {
+
+    /** Blocks the asynchronous command until the test releases it */
+    private static final CountDownLatch ASYNC_LATCH = new CountDownLatch(1);
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+        FoxCommandAPI.getInstance().registerCommandsFromClass(null, new CommandThrottleTest());
+    }
+
+    @Test
+    public void burstAndRefillTest() {
+
+        // Three uses per three seconds, so the bucket holds three tokens and gets a new one every second
+        RegisteredCommand burst = getCommand("throttle burst");
+        AtomicLong clock = new AtomicLong();
+        CommandThrottle commandThrottle = new CommandThrottle(clock::get);
+        Player player = TestPlayers.create("BurstPlayer");
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(commandThrottle.tryAcquire(player, burst), "Failed to use token " + i + " of the burst!");
+        }
+
+        assertSame(burst.getRateLimit(), commandThrottle.tryAcquire(player, burst), "Used more tokens than the burst!");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), commandThrottle.getWait(player, burst, burst.getRateLimit()), "Wrong time until the next token!");
+
+        // A single token is back after an interval
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNull(commandThrottle.tryAcquire(player, burst), "Failed to refill a token!");
+        assertSame(burst.getRateLimit(), commandThrottle.tryAcquire(player, burst), "Refilled more than a token!");
+
+        // The bucket never holds more than the burst, however long it hasn't been used
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(commandThrottle.tryAcquire(player, burst), "Failed to use token " + i + " of the refilled burst!");
+        }
+
+        assertSame(burst.getRateLimit(), commandThrottle.tryAcquire(player, burst), "Refilled more than the burst!");
+
+        // Other players have their own bucket
+        assertNull(commandThrottle.tryAcquire(TestPlayers.create("OtherBurstPlayer"), burst), "Shared bucket between players!");
+    }
+
+    @Test
+    public void cooldownAndRateLimitTest() {
+
+        // A cooldown of a second and two uses per ten seconds
+        RegisteredCommand both = getCommand("throttle both");
+        AtomicLong clock = new AtomicLong();
+        CommandThrottle commandThrottle = new CommandThrottle(clock::get);
+        Player player = TestPlayers.create("CooldownPlayer");
+
+        assertNull(commandThrottle.tryAcquire(player, both), "Failed to use command!");
+        assertSame(both.getCooldown(), commandThrottle.tryAcquire(player, both), "Ignored cooldown!");
+
+        // Uses that are rejected by the cooldown don't take a token of the rate limit
+        for (int i = 0; i < 10; i++) commandThrottle.tryAcquire(player, both);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNull(commandThrottle.tryAcquire(player, both), "Rejected use took a token of the rate limit!");
+
+        // Both tokens of the rate limit have been used now, which is reported even though the cooldown is over
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertSame(both.getRateLimit(), commandThrottle.tryAcquire(player, both), "Ignored rate limit!");
+        assertEquals(TimeUnit.SECONDS.toNanos(3), commandThrottle.getWait(player, both, both.getRateLimit()), "Wrong time until the next token!");
+
+        // Uses that are rejected by the rate limit don't restart the cooldown
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertNull(commandThrottle.tryAcquire(player, both), "Rejected use restarted the cooldown!");
+    }
+
+    @Test
+    public void releaseTest() {
+
+        RegisteredCommand cooldown = getCommand("throttle cooldown");
+        CommandThrottle commandThrottle = new CommandThrottle(() -> 0);
+        Player player = TestPlayers.create("ReleasePlayer");
+
+        assertNull(commandThrottle.tryAcquire(player, cooldown), "Failed to use command!");
+        assertSame(cooldown.getCooldown(), commandThrottle.tryAcquire(player, cooldown), "Ignored cooldown!");
+
+        commandThrottle.release(player, cooldown);
+        assertNull(commandThrottle.tryAcquire(player, cooldown), "Failed to give back the token!");
+    }
+
+    @Test
+    public void rejectedSubmitTest() throws InterruptedException {
+
+        Player player = TestPlayers.create("AsyncPlayer");
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "throttle", new String[]{"async"}), "Failed to submit command!");
+
+        // The first use is still running, so the second one is rejected and gives its token back
+        assertEquals(FoxCommandResult.CONCURRENCY_LIMIT_REACHED, commandTree.execute(player, "throttle", new String[]{"async"}), "Ignored concurrency limit!");
+
+        ASYNC_LATCH.countDown();
+
+        // The second token is still there once the first use has finished
+        FoxCommandResult result;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        do {
+            result = commandTree.execute(player, "throttle", new String[]{"async"});
+            if (result == FoxCommandResult.CONCURRENCY_LIMIT_REACHED) Thread.sleep(1);
+        } while (result == FoxCommandResult.CONCURRENCY_LIMIT_REACHED && System.nanoTime() < deadline);
+
+        assertEquals(FoxCommandResult.SUCCESS, result, "Rejected submit took a token!");
+        assertEquals(FoxCommandResult.RATE_LIMITED, commandTree.execute(player, "throttle", new String[]{"async"}), "Ignored rate limit!");
+    }
+
+    @Test
+    public void dispatchCooldownTest() {
+
+        Player player = TestPlayers.create("DispatchCooldownPlayer");
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "throttle", new String[]{"cooldown"}), "Failed to execute command!");
+        assertEquals(FoxCommandResult.ON_COOLDOWN, commandTree.execute(player, "throttle", new String[]{"cooldown"}), "Ignored cooldown!");
+
+        RegisteredCommand cooldown = getCommand("throttle cooldown");
+        assertTrue(FoxCommandAPI.getInstance().getCommandThrottle().getWait(player, cooldown, cooldown.getCooldown()) > 0, "Failed to report the remaining cooldown!");
+    }
+
+    private static RegisteredCommand getCommand(String path) {
+
+        for (RegisteredCommand registeredCommand : FoxCommandAPI.getInstance().getRegisteredCommands()) {
+            if (registeredCommand.getPath().equals(path)) return registeredCommand;
+        }
+
+        throw new IllegalStateException("/" + path + " isn't registered!");
+    }
+
+    @FoxCommand(path = "throttle burst", rateLimit = 3, rateLimitPeriod = 3000, rateLimitMessage = "")
+    public void burstCommand(Player player) {
+    }
+
+    @FoxCommand(path = "throttle both", cooldown = 1000, cooldownMessage = "", rateLimit = 2, rateLimitPeriod = 10000, rateLimitMessage = "")
+    public void bothCommand(Player player) {
+    }
+
+    @FoxCommand(path = "throttle cooldown", cooldown = 3_600_000, cooldownMessage = "")
+    public void cooldownCommand(Player player) {
+    }
+
+    @FoxCommand(path = "throttle async", async = true, maxConcurrent = 1, rateLimit = 2, rateLimitPeriod = 3_600_000, rateLimitMessage = "")
+    public void asyncCommand(Player player) throws InterruptedException {
+        ASYNC_LATCH.await(10, TimeUnit.SECONDS);
+    }
+}
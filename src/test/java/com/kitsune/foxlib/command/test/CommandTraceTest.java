@@ -0,0 +1,118 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandTraceReader;
+import com.kitsune.foxlib.command.CommandTraceRecord;
+import com.kitsune.foxlib.command.CommandTraceRecorder;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.easymock.EasyMock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandTraceTest {
+
+    @Test
+    public void roundTripTest(@TempDir Path directory) throws IOException {
+
+        Player fox = TestPlayers.create("TraceFox");
+        Player kit = TestPlayers.create("TraceKit");
+        ConsoleCommandSender console = EasyMock.niceMock(ConsoleCommandSender.class);
+        EasyMock.replay(console);
+
+        // Small files, so the records are spread over several files that each start with their own labels
+        try (CommandTraceRecorder recorder = new CommandTraceRecorder(directory.toFile(), 64, 100)) {
+
+            for (int i = 0; i < 20; i++) {
+                recorder.record(fox, "give", new String[]{"stone", Integer.toString(i)}, FoxCommandResult.SUCCESS, 1000 + i);
+                recorder.record(kit, "msg", new String[]{"TraceFox", "héllo \"there\""}, FoxCommandResult.INVALID_COMMAND, 5);
+                recorder.record(console, "stop", new String[0], FoxCommandResult.INSUFFICIENT_PERMISSIONS, Long.MAX_VALUE);
+            }
+        }
+
+        File[] files = getTraceFiles(directory);
+        assertTrue(files.length > 1, "Failed to start a new file!");
+
+        List<CommandTraceRecord> records = CommandTraceReader.readAll(files);
+        assertEquals(60, records.size(), "Failed to read all records!");
+
+        for (int i = 0; i < 20; i++) {
+
+            CommandTraceRecord give = records.get(i * 3);
+            assertEquals(CommandTraceRecord.SenderType.PLAYER, give.getSenderType(), "Wrong sender type!");
+            assertEquals("give", give.getLabel(), "Wrong label!");
+            assertArrayEquals(new String[]{"stone", Integer.toString(i)}, give.getArgs(), "Wrong arguments!");
+            assertEquals(FoxCommandResult.SUCCESS, give.getResult(), "Wrong result!");
+            assertEquals(1000 + i, give.getLatency(), "Wrong latency!");
+
+            CommandTraceRecord msg = records.get(i * 3 + 1);
+            assertArrayEquals(new String[]{"TraceFox", "héllo \"there\""}, msg.getArgs(), "Failed to read back text!");
+            assertEquals(FoxCommandResult.INVALID_COMMAND, msg.getResult(), "Wrong result!");
+
+            CommandTraceRecord stop = records.get(i * 3 + 2);
+            assertEquals(CommandTraceRecord.SenderType.CONSOLE, stop.getSenderType(), "Wrong sender type!");
+            assertEquals(0, stop.getSenderId(), "Gave an id to the console!");
+            assertEquals(0, stop.getArgs().length, "Wrong arguments!");
+            assertEquals(Long.MAX_VALUE, stop.getLatency(), "Failed to read back large number!");
+
+            // Every player keeps the same id, so a replay can tell them apart
+            assertEquals(records.get(0).getSenderId(), give.getSenderId(), "Player changed id!");
+            assertEquals(records.get(1).getSenderId(), msg.getSenderId(), "Player changed id!");
+            assertNotEquals(give.getSenderId(), msg.getSenderId(), "Players share an id!");
+            assertNotEquals(0, give.getSenderId(), "Failed to give an id to the player!");
+
+            assertTrue(i == 0 || give.getTimestamp() >= records.get(i * 3 - 1).getTimestamp(), "Timestamps aren't ordered!");
+        }
+    }
+
+    @Test
+    public void rotateEarlierRecordingsTest(@TempDir Path directory) throws IOException {
+
+        // The files of earlier recordings sort before the files of a new recording
+        Path oldest = Files.createFile(directory.resolve("trace-20000101-000000-0000" + CommandTraceRecorder.EXTENSION));
+        Path older = Files.createFile(directory.resolve("trace-20000101-000000-0001" + CommandTraceRecorder.EXTENSION));
+        Path other = Files.createFile(directory.resolve("notes.txt"));
+
+        Player player = TestPlayers.create("TraceRotatePlayer");
+
+        try (CommandTraceRecorder recorder = new CommandTraceRecorder(directory.toFile(), 1024, 2)) {
+            recorder.record(player, "spawn", new String[0], FoxCommandResult.SUCCESS, 1);
+        }
+
+        assertFalse(Files.exists(oldest), "Kept more files than the maximum!");
+        assertTrue(Files.exists(older), "Deleted more files than needed!");
+        assertTrue(Files.exists(other), "Deleted file that isn't a trace!");
+
+        File[] files = getTraceFiles(directory);
+        assertEquals(2, files.length, "Kept more files than the maximum!");
+
+        try (CommandTraceReader reader = new CommandTraceReader(files[1])) {
+            CommandTraceRecord record = reader.next();
+            assertNotNull(record, "Failed to write record!");
+            assertEquals("spawn", record.getLabel(), "Wrong label!");
+        }
+    }
+
+    private static File[] getTraceFiles(Path directory) {
+
+        File[] files = directory.toFile().listFiles((parent, name) -> name.endsWith(CommandTraceRecorder.EXTENSION));
+        assertNotNull(files, "Failed to list trace files!");
+
+        Arrays.sort(files);
+        return files;
+    }
+}
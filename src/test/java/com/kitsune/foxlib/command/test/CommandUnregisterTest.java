@@ -0,0 +1,180 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandNode;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandUnregisterTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+    }
+
+    @Test
+    public void unregisterPrunesTreeTest() throws ReflectiveOperationException {
+
+        JavaPlugin plugin = TestPlugins.create("PruneTest");
+        Player player = TestPlayers.create("PrunePlayer");
+        FoxCommandAPI commandAPI = FoxCommandAPI.getInstance();
+        FoxCommandTree commandTree = commandAPI.getCommandTree();
+
+        assertTrue(commandAPI.registerCommandsFromClass(plugin, new PruneCommands()), "Failed to register commands!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "prune", new String[]{"count", "1"}), "Failed to execute command!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "pruned", new String[]{"1"}), "Failed to execute alias!");
+
+        List<RegisteredCommand> registeredCommands = commandAPI.getRegisteredCommands(plugin);
+        assertEquals(2, commandAPI.unregisterCommands(plugin), "Failed to unregister commands!");
+
+        // The nodes of the paths and the alias are left empty, so they're removed from the tree
+        assertNull(commandTree.getRoot().getLiteralChild("prune"), "Failed to prune path!");
+        assertNull(commandTree.getRoot().getLiteralChild("pruned"), "Failed to prune alias!");
+        assertEquals(FoxCommandResult.INVALID_COMMAND, commandTree.execute(player, "prune", new String[]{"count", "1"}), "Executed unregistered command!");
+
+        for (RegisteredCommand registeredCommand : registeredCommands) {
+            assertFalse(commandAPI.getRegisteredCommands().contains(registeredCommand), "Failed to forget " + registeredCommand);
+            assertEquals(-1, registeredCommand.getIndex(), "Failed to free index of " + registeredCommand);
+        }
+
+        assertEquals(0, commandAPI.unregisterCommands(plugin), "Unregistered commands twice!");
+    }
+
+    @Test
+    public void replaceKeepsSharedNodesTest() throws ReflectiveOperationException {
+
+        JavaPlugin plugin = TestPlugins.create("ReplaceTest");
+        Player player = TestPlayers.create("ReplacePlayer");
+        FoxCommandAPI commandAPI = FoxCommandAPI.getInstance();
+        FoxCommandTree commandTree = commandAPI.getCommandTree();
+
+        assertTrue(commandAPI.registerCommandsFromClass(plugin, new OldCommands()), "Failed to register commands!");
+        assertTrue(commandAPI.replaceCommandsFromClass(plugin, new NewCommands()), "Failed to replace commands!");
+
+        // The shared label is kept, only the removed subcommand is pruned
+        FoxCommandNode<?> label = commandTree.getRoot().getLiteralChild("replace");
+        assertNotNull(label, "Pruned shared label!");
+        assertNull(label.getLiteralChild("old"), "Failed to prune replaced command!");
+        assertNotNull(label.getLiteralChild("new"), "Failed to add new command!");
+        assertNotNull(label.getLiteralChild("keep"), "Failed to add kept command!");
+        assertEquals(2, label.getChildren().size(), "Left pruned nodes in the tree!");
+
+        assertEquals(FoxCommandResult.INVALID_COMMAND, commandTree.execute(player, "replace", new String[]{"old"}), "Executed replaced command!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "replace", new String[]{"new"}), "Failed to execute new command!");
+        assertEquals(2, commandAPI.getRegisteredCommands(plugin).size(), "Kept replaced commands!");
+
+        commandAPI.unregisterCommands(plugin);
+        assertNull(commandTree.getRoot().getLiteralChild("replace"), "Failed to prune label!");
+    }
+
+    @Test
+    public void reuseIndexTest() throws ReflectiveOperationException {
+
+        JavaPlugin plugin = TestPlugins.create("ReuseTest");
+        JavaPlugin fillerPlugin = TestPlugins.create("ReuseFillerTest");
+        Set<String> permissions = new HashSet<>();
+        permissions.add("foxlib.test.reuse.old");
+
+        Player player = TestPlayers.create("ReusePlayer", permissions);
+        FoxCommandAPI commandAPI = FoxCommandAPI.getInstance();
+        FoxCommandTree commandTree = commandAPI.getCommandTree();
+
+        // Fill the indices freed by other tests, so the next command gets the only free index
+        do {
+            assertTrue(commandAPI.registerCommandsFromClass(fillerPlugin, new ReuseFillerCommand()), "Failed to register filler!");
+        } while (getLastIndex(fillerPlugin) != commandAPI.getRegisteredCommands().size() - 1);
+
+        assertTrue(commandAPI.registerCommandsFromClass(plugin, new ReuseOldCommand()), "Failed to register command!");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "reuseold", new String[0]), "Failed to execute permitted command!");
+
+        int index = commandAPI.getRegisteredCommands(plugin).get(0).getIndex();
+        commandAPI.unregisterCommands(plugin);
+
+        // The freed index is given to the next command, without the permission cached for the old one
+        assertTrue(commandAPI.registerCommandsFromClass(plugin, new ReuseNewCommand()), "Failed to register command!");
+        assertEquals(index, commandAPI.getRegisteredCommands(plugin).get(0).getIndex(), "Failed to reuse index!");
+        assertEquals(FoxCommandResult.INSUFFICIENT_PERMISSIONS, commandTree.execute(player, "reusenew", new String[0]), "Reused permission of unregistered command!");
+
+        commandAPI.unregisterCommands(plugin);
+        commandAPI.unregisterCommands(fillerPlugin);
+    }
+
+    private static int getLastIndex(JavaPlugin plugin) {
+
+        List<RegisteredCommand> registeredCommands = FoxCommandAPI.getInstance().getRegisteredCommands(plugin);
+
+        return registeredCommands.get(registeredCommands.size() - 1).getIndex();
+    }
+
+    public static class PruneCommands {
+
+        @FoxCommand(path = "prune count", aliases = "pruned")
+        public void countCommand(Player player, int count) {
+        }
+
+        @FoxCommand(path = "prune other")
+        public void otherCommand(Player player) {
+        }
+    }
+
+    public static class OldCommands {
+
+        @FoxCommand(path = "replace old")
+        public void oldCommand(Player player) {
+        }
+
+        @FoxCommand(path = "replace keep")
+        public void keepCommand(Player player) {
+        }
+    }
+
+    public static class NewCommands {
+
+        @FoxCommand(path = "replace new")
+        public void newCommand(Player player) {
+        }
+
+        @FoxCommand(path = "replace keep")
+        public void keepCommand(Player player) {
+        }
+    }
+
+    public static class ReuseFillerCommand {
+
+        @FoxCommand(path = "reusefiller")
+        public void fillerCommand(Player player) {
+        }
+    }
+
+    public static class ReuseOldCommand {
+
+        @FoxCommand(path = "reuseold", permission = "foxlib.test.reuse.old", noPermissionsMessage = "")
+        public void oldCommand(Player player) {
+        }
+    }
+
+    public static class ReuseNewCommand {
+
+        @FoxCommand(path = "reusenew", permission = "foxlib.test.reuse.new", noPermissionsMessage = "")
+        public void newCommand(Player player) {
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import com.kitsune.foxlib.processor.FoxCommandProcessor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compiles handler classes with the {@link FoxCommandProcessor} and registers the generated tables.
+ */
+public class FoxCommandProcessorTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+    }
+
+    @Test
+    public void generatedTableTest(@TempDir Path output) throws Exception {
+
+        String source = "package processortest;\n"
+                + "import com.kitsune.foxlib.command.FoxCommand;\n"
+                + "import com.kitsune.foxlib.command.GreedyString;\n"
+                + "import org.bukkit.command.CommandSender;\n"
+                + "public class Handlers {\n"
+                + "    @FoxCommand(path = \"processor add\", aliases = \"processor plus\", permission = \"foxlib.test.processor\", description = \"Add \\\"two\\\" numbers\")\n"
+                + "    public void add(CommandSender sender, int first, Integer second) { System.setProperty(\"foxlib.test.processor\", String.valueOf(first + second)); }\n"
+                + "    @FoxCommand(path = \"processor say\")\n"
+                + "    public static void say(CommandSender sender, GreedyString message) { System.setProperty(\"foxlib.test.processor\", message.toString()); }\n"
+                + "}\n";
+
+        String errors = getMessages(compile(output, "processortest.Handlers", source), Diagnostic.Kind.ERROR);
+        assertTrue(errors.isEmpty(), "Failed to compile handlers: " + errors);
+        assertTrue(Files.exists(output.resolve("processortest/Handlers_FoxCommands.class")), "Failed to generate registration table!");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+
+            Object handlers = classLoader.loadClass("processortest.Handlers").getDeclaredConstructor().newInstance();
+            assertTrue(FoxCommandAPI.getInstance().registerCommandsFromClass(null, handlers), "Failed to register generated commands!");
+
+            RegisteredCommand add = getCommand("processor add");
+            assertNull(add.getMethod(), "Registered generated command using reflection!");
+            assertEquals("foxlib.test.processor", add.getPermission(), "Failed to copy permission!");
+            assertEquals("Add \"two\" numbers", add.getDescription(), "Failed to escape description!");
+            assertEquals(Arrays.asList("processor plus"), Arrays.asList(add.getAliases()), "Failed to copy aliases!");
+            assertEquals("Add \"two\" numbers", add.getFoxCommand().description(), "Failed to find annotation of generated command!");
+
+            CommandSender console = TestPlayers.create("ProcessorPlayer", Collections.singleton("foxlib.test.processor"));
+
+            assertEquals(FoxCommandResult.SUCCESS, FoxCommandAPI.getInstance().getCommandTree().execute(console, "processor", new String[]{"plus", "2", "40"}), "Failed to execute generated command!");
+            assertEquals("42", System.getProperty("foxlib.test.processor"), "Generated invoker passed wrong arguments!");
+
+            assertEquals(FoxCommandResult.SUCCESS, FoxCommandAPI.getInstance().getCommandTree().execute(console, "processor", new String[]{"say", "hello", "world"}), "Failed to execute static command!");
+            assertEquals("hello world", System.getProperty("foxlib.test.processor"), "Generated invoker passed wrong greedy argument!");
+        } finally {
+            System.clearProperty("foxlib.test.processor");
+        }
+    }
+
+    @Test
+    public void invalidHandlerTest(@TempDir Path output) throws Exception {
+
+        String source = "package processortest;\n"
+                + "import com.kitsune.foxlib.command.FoxCommand;\n"
+                + "import com.kitsune.foxlib.command.GreedyString;\n"
+                + "import org.bukkit.command.CommandSender;\n"
+                + "public class InvalidHandlers {\n"
+                + "    @FoxCommand(path = \"invalid greedy\")\n"
+                + "    public void greedy(CommandSender sender, GreedyString message, int count) {}\n"
+                + "    @FoxCommand(path = \"invalid sender\")\n"
+                + "    public void sender(String sender) {}\n"
+                + "}\n";
+
+        String errors = getMessages(compile(output, "processortest.InvalidHandlers", source), Diagnostic.Kind.ERROR);
+
+        assertTrue(errors.contains("A GreedyString parameter must be the last parameter"), "Accepted GreedyString that isn't last!");
+        assertTrue(errors.contains("The first parameter of a @FoxCommand method must be a CommandSender"), "Accepted handler without sender!");
+        assertFalse(Files.exists(output.resolve("processortest/InvalidHandlers_FoxCommands.class")), "Generated table of invalid handlers!");
+    }
+
+    @Test
+    public void unknownTypeTest(@TempDir Path output, @TempDir Path declaredOutput) throws Exception {
+
+        String source = "package processortest;\n"
+                + "import com.kitsune.foxlib.command.FoxCommand;\n"
+                + "import org.bukkit.command.CommandSender;\n"
+                + "public class RuntimeParserHandlers {\n"
+                + "    @FoxCommand(path = \"runtime thread\")\n"
+                + "    public void thread(CommandSender sender, Thread thread) {}\n"
+                + "}\n";
+
+        // The parser may be registered at runtime, so the class still compiles and is registered using reflection
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(output, "processortest.RuntimeParserHandlers", source);
+
+        assertEquals("", getMessages(diagnostics, Diagnostic.Kind.ERROR), "Failed to compile handler with a parser registered at runtime!");
+        assertTrue(getMessages(diagnostics, Diagnostic.Kind.WARNING).contains("No known argument parser for type java.lang.Thread"), "Failed to warn about unknown type!");
+        assertFalse(Files.exists(output.resolve("processortest/RuntimeParserHandlers_FoxCommands.class")), "Generated table for unknown type!");
+
+        // Declared types get a table
+        diagnostics = compile(declaredOutput, "processortest.RuntimeParserHandlers", source, "-Afoxlib.parserTypes=java.lang.Thread");
+
+        assertEquals("", getMessages(diagnostics, Diagnostic.Kind.WARNING), "Warned about declared type!");
+        assertTrue(Files.exists(declaredOutput.resolve("processortest/RuntimeParserHandlers_FoxCommands.class")), "Failed to generate table for declared type!");
+    }
+
+    /**
+     * Compile the source with the processor.
+     *
+     * @return - the diagnostics
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> compile(Path output, String className, String source, String... options) throws IOException, URISyntaxException {
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "Tests have to run on a JDK!");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output.toFile()));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(output.toFile()));
+
+            // Compile against the same classes the tests use
+            Set<File> classpath = new LinkedHashSet<>();
+            for (Class<?> type : Arrays.asList(FoxCommand.class, CommandSender.class, NotNull.class)) {
+                classpath.add(Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile());
+            }
+            fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+
+            JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+
+            List<String> compilerOptions = new ArrayList<>(Arrays.asList("-source", "8", "-target", "8", "-Xlint:-options"));
+            compilerOptions.addAll(Arrays.asList(options));
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, Collections.singletonList(file));
+            task.setProcessors(Collections.singletonList(new FoxCommandProcessor()));
+            task.call();
+        }
+
+        return diagnostics.getDiagnostics();
+    }
+
+    /**
+     * Join the messages of the diagnostics of the kind.
+     */
+    private static String getMessages(List<Diagnostic<? extends JavaFileObject>> diagnostics, Diagnostic.Kind kind) {
+        return diagnostics.stream()
+                .filter(diagnostic -> diagnostic.getKind() == kind)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static RegisteredCommand getCommand(String path) {
+
+        for (RegisteredCommand registeredCommand : FoxCommandAPI.getInstance().getRegisteredCommands()) {
+            if (registeredCommand.getPath().equals(path)) return registeredCommand;
+        }
+
+        throw new IllegalStateException("/" + path + " isn't registered!");
+    }
+}
@@ -0,0 +1,122 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.HelpIndex;
+import net.md_5.bungee.api.ChatColor;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HelpIndexTest {
+
+    private static final String HEADER = ChatColor.GOLD + "/help commands";
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+    }
+
+    @Test
+    public void paginationTest() {
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+
+        // Added out of order, the entries are sorted by their path
+        for (String sub : new String[]{"e", "c", "a", "d", "b"}) {
+            commandTree.addFoxCommand(TestCommands.command("help " + sub).usage(FoxCommand.NO_USAGE).description("Command " + sub).build());
+        }
+
+        HelpIndex helpIndex = commandTree.getHelpIndex();
+        Player player = TestPlayers.create("HelpPagePlayer");
+
+        HelpIndex.Page first = helpIndex.getPage(player, null, 0, 2);
+        assertEquals(Arrays.asList(HEADER, line("/help a", "Command a"), line("/help b", "Command b")), first.getLines(), "Wrong first page!");
+        assertTrue(first.hasNext(), "Failed to find next page!");
+
+        HelpIndex.Page second = helpIndex.getPage(player, null, 1, 2);
+        assertEquals(Arrays.asList(HEADER, line("/help c", "Command c"), line("/help d", "Command d")), second.getLines(), "Wrong second page!");
+        assertTrue(second.hasNext(), "Failed to find next page!");
+
+        HelpIndex.Page last = helpIndex.getPage(player, null, 2, 2);
+        assertEquals(Arrays.asList(HEADER, line("/help e", "Command e")), last.getLines(), "Wrong last page!");
+        assertFalse(last.hasNext(), "Found page after the last page!");
+
+        HelpIndex.Page beyond = helpIndex.getPage(player, null, 3, 2);
+        assertTrue(beyond.getLines().isEmpty(), "Found entries beyond the last page!");
+        assertFalse(beyond.hasNext(), "Found page after the last page!");
+
+        // A full last page doesn't have a next page
+        assertFalse(helpIndex.getPage(player, null, 0, 5).hasNext(), "Found page after a full last page!");
+        assertEquals(first.getLines(), helpIndex.getPage(player, null, -1, 2).getLines(), "Failed to show first page for a negative page!");
+    }
+
+    @Test
+    public void permissionFilterTest() {
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("help a").description("Public").build());
+        commandTree.addFoxCommand(TestCommands.command("help b").permission("foxlib.test.help.admin").description("Admin").build());
+        commandTree.addFoxCommand(TestCommands.command("help c").description("Public").build());
+        commandTree.addFoxCommand(TestCommands.command("help d").permission("foxlib.test.help.admin").description("Admin").build());
+
+        HelpIndex helpIndex = commandTree.getHelpIndex();
+        Set<String> permissions = new HashSet<>();
+        Player player = TestPlayers.create("HelpPermissionPlayer", permissions);
+
+        // Hidden entries don't take up room on a page, and a page that's only followed by hidden entries is the last one
+        HelpIndex.Page page = helpIndex.getPage(player, null, 0, 2);
+        assertEquals(Arrays.asList(HEADER, line("/help a", "Public"), line("/help c", "Public")), page.getLines(), "Showed commands without permission!");
+        assertFalse(page.hasNext(), "Counted hidden entries towards the next page!");
+
+        permissions.add("foxlib.test.help.admin");
+
+        page = helpIndex.getPage(player, null, 0, 2);
+        assertEquals(Arrays.asList(HEADER, line("/help a", "Public"), line("/help b", "Admin")), page.getLines(), "Failed to show permitted commands!");
+        assertTrue(page.hasNext(), "Failed to find next page!");
+    }
+
+    @Test
+    public void groupsTest() {
+
+        FoxCommandTree commandTree = new FoxCommandTree();
+        commandTree.addFoxCommand(TestCommands.command("help").aliases("assist").usage("/help [page]").description(FoxCommand.NO_DESCRIPTION).build());
+        commandTree.addFoxCommand(TestCommands.command("help").aliases("assist").usage("/help [page]").description(FoxCommand.NO_DESCRIPTION).arguments(int.class).build());
+        commandTree.addFoxCommand(TestCommands.command("other run").description("&aGreen").build());
+
+        HelpIndex helpIndex = commandTree.getHelpIndex();
+        Player player = TestPlayers.create("HelpGroupPlayer");
+
+        // Every label gets its own header, overloads with the same usage only get one entry
+        assertEquals(Arrays.asList(HEADER, ChatColor.YELLOW + "/help [page]", ChatColor.GOLD + "/other commands", line("/other run", "§aGreen")),
+                helpIndex.getPage(player, null, 0, 10).getLines(), "Wrong groups!");
+
+        // The commands of a label are found by their alias too, ignoring case
+        assertEquals(Arrays.asList(HEADER, ChatColor.YELLOW + "/help [page]"), helpIndex.getPage(player, "ASSIST", 0, 10).getLines(), "Failed to find group by alias!");
+        assertEquals(Collections.emptyList(), helpIndex.getPage(player, "unknown", 0, 10).getLines(), "Found unknown group!");
+
+        // The index is only built again after the tree has changed
+        assertSame(helpIndex, commandTree.getHelpIndex(), "Built index again for the same tree!");
+
+        commandTree.addFoxCommand(TestCommands.command("help new").build());
+        assertNotSame(helpIndex, commandTree.getHelpIndex(), "Failed to build index for the changed tree!");
+    }
+
+    private static String line(String usage, String description) {
+        return ChatColor.YELLOW + usage + ChatColor.GRAY + " - " + description;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.FoxCommand;
+import com.kitsune.foxlib.command.FoxCommandAPI;
+import com.kitsune.foxlib.command.FoxCommandResult;
+import com.kitsune.foxlib.command.FoxCommandTree;
+import com.kitsune.foxlib.command.PermissionCache;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PermissionCacheTest {
+
+    @BeforeAll
+    public static void initTestingEnvironment() {
+
+        // Initialise the command api
+        FoxCommandAPI.init(false);
+        FoxCommandAPI.getInstance().registerCommandsFromClass(null, new PermissionCacheTest());
+    }
+
+    @Test
+    public void invalidatePlayerTest() {
+
+        Set<String> permissions = new HashSet<>();
+        permissions.add("foxlib.test.cache");
+
+        Player player = TestPlayers.create("CachedPlayer", permissions);
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+        PermissionCache permissionCache = FoxCommandAPI.getInstance().getPermissionCache();
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "permcache", new String[0]), "Failed to execute permitted command!");
+
+        // The permission has been cached, so taking it away isn't noticed until the player is invalidated
+        permissions.remove("foxlib.test.cache");
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "permcache", new String[0]), "Permission wasn't cached!");
+
+        permissionCache.invalidate(player);
+        assertEquals(FoxCommandResult.INSUFFICIENT_PERMISSIONS, commandTree.execute(player, "permcache", new String[0]), "Invalidated permission was still cached!");
+
+        // A denied permission is cached as well
+        permissions.add("foxlib.test.cache");
+        assertEquals(FoxCommandResult.INSUFFICIENT_PERMISSIONS, commandTree.execute(player, "permcache", new String[0]), "Denied permission wasn't cached!");
+
+        permissionCache.invalidateAll();
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(player, "permcache", new String[0]), "Permissions weren't invalidated!");
+    }
+
+    @Test
+    public void separatePlayersTest() {
+
+        Set<String> permissions = new HashSet<>();
+        permissions.add("foxlib.test.cache");
+
+        Player permitted = TestPlayers.create("PermittedPlayer", permissions);
+        Player denied = TestPlayers.create("DeniedPlayer");
+        FoxCommandTree commandTree = FoxCommandAPI.getInstance().getCommandTree();
+
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(permitted, "permcache", new String[0]), "Failed to execute permitted command!");
+        assertEquals(FoxCommandResult.INSUFFICIENT_PERMISSIONS, commandTree.execute(denied, "permcache", new String[0]), "Shared cached permission between players!");
+
+        // Invalidating one player doesn't affect the other one
+        permissions.clear();
+        FoxCommandAPI.getInstance().getPermissionCache().invalidate(denied);
+        assertEquals(FoxCommandResult.SUCCESS, commandTree.execute(permitted, "permcache", new String[0]), "Invalidated the wrong player!");
+    }
+
+    @FoxCommand(path = "permcache", permission = "foxlib.test.cache", noPermissionsMessage = "")
+    public void cachedCommand(Player player) {
+    }
+}
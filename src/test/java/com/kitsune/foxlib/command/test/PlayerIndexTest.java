@@ -0,0 +1,81 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.PlayerIndex;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PlayerIndexTest {
+
+    @Test
+    public void onlineLookupTest() {
+
+        PlayerIndex playerIndex = new PlayerIndex();
+        Player player = TestPlayers.create("FoxKit");
+        playerIndex.add(player);
+
+        assertSame(player, playerIndex.getPlayer("foxkit"), "Failed to find player ignoring case!");
+        assertSame(player, playerIndex.getPlayer("FOXKIT"), "Failed to find player ignoring case!");
+        assertSame(player, playerIndex.getPlayer(new StringBuilder("FoxKit")), "Failed to find player by a char sequence!");
+        assertSame(player, playerIndex.getPlayer(player.getUniqueId().toString()), "Failed to find player by unique id!");
+        assertNull(playerIndex.getPlayer("Fox"), "Found player by a prefix of the name!");
+
+        assertEquals(1, playerIndex.size(), "Wrong amount of online players!");
+        assertEquals(Collections.singletonList("FoxKit"), playerIndex.getNames("fO", null), "Failed to suggest name!");
+    }
+
+    @Test
+    public void replacedLoginTest() {
+
+        PlayerIndex playerIndex = new PlayerIndex();
+        Player oldLogin = TestPlayers.create("Relog");
+        Player newLogin = TestPlayers.create("Relog");
+
+        playerIndex.add(oldLogin);
+        playerIndex.add(newLogin);
+
+        // The quit of the old login comes after the new login joined
+        playerIndex.remove(oldLogin);
+        assertSame(newLogin, playerIndex.getPlayer("relog"), "Removed new login when the old login quit!");
+
+        playerIndex.remove(newLogin);
+        assertNull(playerIndex.getPlayer("relog"), "Failed to remove player that quit!");
+        assertEquals(0, playerIndex.size(), "Wrong amount of online players!");
+
+        // Players that have been online are still known by name
+        assertEquals(newLogin.getUniqueId(), playerIndex.getUniqueId("RELOG"), "Forgot player that quit!");
+    }
+
+    @Test
+    public void knownPlayersBoundTest() {
+
+        PlayerIndex playerIndex = new PlayerIndex(3);
+
+        for (String name : new String[]{"First", "Second", "Third", "First"}) {
+            Player player = TestPlayers.create(name);
+            playerIndex.add(player);
+            playerIndex.remove(player);
+        }
+
+        // The first player has been seen again, so the second player hasn't been seen for the longest
+        playerIndex.add(TestPlayers.create("Fourth"));
+
+        assertNull(playerIndex.getUniqueId("Second"), "Remembered more players than the maximum!");
+        assertNotNull(playerIndex.getUniqueId("First"), "Forgot player that has been seen again!");
+        assertNotNull(playerIndex.getUniqueId("Third"), "Forgot recent player!");
+        assertNotNull(playerIndex.getUniqueId("Fourth"), "Forgot online player!");
+
+        // Joining again and again doesn't make the index forget other players
+        Player fourth = TestPlayers.create("Fourth");
+        for (int i = 0; i < 100; i++) playerIndex.add(fourth);
+
+        assertNotNull(playerIndex.getUniqueId("First"), "Forgot player because another player joined again!");
+        assertNotNull(playerIndex.getUniqueId("Third"), "Forgot player because another player joined again!");
+    }
+}
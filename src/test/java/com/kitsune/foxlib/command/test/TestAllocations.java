@@ -0,0 +1,40 @@
+package com.kitsune.foxlib.command.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the memory the tests allocate on the current thread.
+ */
+public final class TestAllocations {
+
+    private TestAllocations() {
+    }
+
+    /**
+     * Run the task and get the amount of bytes it allocated on the current thread.
+     *
+     * The test is skipped if the JVM can't measure the allocations of a thread.
+     *
+     * @param task - the task
+     *
+     * @return - the amount of allocated bytes
+     */
+    public static long measure(Runnable task) {
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean, "Allocations can't be measured on this JVM");
+
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled(), "Allocations can't be measured on this JVM");
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+
+        task.run();
+
+        return allocationBean.getThreadAllocatedBytes(threadId) - before;
+    }
+}
@@ -0,0 +1,83 @@
+package com.kitsune.foxlib.command.test;
+
+import com.kitsune.foxlib.command.CommandInvoker;
+import com.kitsune.foxlib.command.RegisteredCommand;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Creates the commands that are added to standalone command trees by the tests.
+ */
+public final class TestCommands {
+
+    private TestCommands() {
+    }
+
+    /**
+     * Start building a command that everyone can run, without arguments and with a handler that does nothing.
+     *
+     * @param path - the path of the command
+     *
+     * @return - the builder
+     */
+    public static Builder command(String path) {
+        return new Builder(path);
+    }
+
+    /**
+     * Builds a {@link RegisteredCommand} whose handler takes a {@link CommandSender} followed by the arguments.
+     */
+    public static final class Builder {
+
+        private final String path;
+        private String[] aliases = new String[0];
+        private String permission = "";
+        private String usage = "";
+        private String description = "";
+        private Class<?>[] argumentTypes = new Class<?>[0];
+        private CommandInvoker invoker = frame -> {};
+
+        private Builder(String path) {
+            this.path = path;
+        }
+
+        public Builder aliases(String... aliases) {
+            this.aliases = aliases;
+            return this;
+        }
+
+        public Builder permission(String permission) {
+            this.permission = permission;
+            return this;
+        }
+
+        public Builder usage(String usage) {
+            this.usage = usage;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder arguments(Class<?>... argumentTypes) {
+            this.argumentTypes = argumentTypes;
+            return this;
+        }
+
+        public Builder handler(CommandInvoker invoker) {
+            this.invoker = invoker;
+            return this;
+        }
+
+        public RegisteredCommand build() {
+
+            Class<?>[] parameterTypes = new Class<?>[argumentTypes.length + 1];
+            parameterTypes[0] = CommandSender.class;
+            System.arraycopy(argumentTypes, 0, parameterTypes, 1, argumentTypes.length);
+
+            return new RegisteredCommand(path, aliases, permission, "", description, usage, false, 0,
+                    TestCommands.class, path, parameterTypes, invoker);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.kitsune.foxlib.command.test;
+
+import org.bukkit.entity.Player;
+import org.easymock.EasyMock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.expect;
+
+/**
+ * Creates the mocked players that are shared by the tests.
+ */
+public final class TestPlayers {
+
+    private TestPlayers() {
+    }
+
+    /**
+     * Create a player without any permissions.
+     *
+     * @param name - the name of the player
+     *
+     * @return - the player
+     */
+    public static Player create(String name) {
+        return create(name, Collections.emptySet());
+    }
+
+    /**
+     * Create a player that has the permissions in the set, changes to the set are seen by the player.
+     *
+     * The unique id of the player is derived from the name, the player can see every other player
+     * and messages sent to the player are ignored.
+     *
+     * @param name - the name of the player
+     * @param permissions - the permissions of the player
+     *
+     * @return - the player
+     */
+    public static Player create(String name, Set<String> permissions) {
+
+        Player player = EasyMock.niceMock(Player.class);
+
+        expect(player.getName()).andStubReturn(name);
+        expect(player.getUniqueId()).andStubReturn(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)));
+        expect(player.hasPermission(anyString())).andStubAnswer(() -> permissions.contains((String) EasyMock.getCurrentArguments()[0]));
+        expect(player.canSee(anyObject())).andStubReturn(true);
+
+        EasyMock.replay(player);
+        return player;
+    }
+}
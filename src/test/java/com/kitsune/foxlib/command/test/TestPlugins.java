@@ -0,0 +1,47 @@
+package com.kitsune.foxlib.command.test;
+
+import org.bukkit.command.PluginCommand;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.reflect.Field;
+
+/**
+ * Creates plugins for the tests.
+ */
+public final class TestPlugins {
+
+    private TestPlugins() {
+    }
+
+    /**
+     * Create a plugin that only has a name.
+     *
+     * @param name - the name of the plugin
+     *
+     * @return - the plugin
+     */
+    public static JavaPlugin create(String name) throws ReflectiveOperationException {
+
+        // Plugins can only be constructed by the plugin loader, so the constructor is skipped
+        JavaPlugin plugin = new ObjenesisStd().newInstance(TestPlugin.class);
+
+        // The name of a plugin is read from its description
+        Field description = JavaPlugin.class.getDeclaredField("description");
+        description.setAccessible(true);
+        description.set(plugin, new PluginDescriptionFile(name, "1.0", TestPlugins.class.getName()));
+
+        return plugin;
+    }
+
+    public static class TestPlugin extends JavaPlugin {
+
+        @Override
+        public PluginCommand getCommand(String name) {
+
+            // The plugin has no server, so it has no commands of its own
+            return null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.kitsune.foxlib.util.test;
+
+import com.kitsune.foxlib.util.BKTree;
+import com.kitsune.foxlib.util.CaseInsensitiveIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BKTreeTest {
+
+    private static final List<String> WORDS = Arrays.asList("help", "Hello", "held", "hell", "shelp", "yelp", "helm", "heap", "world", "word", "sword");
+
+    @Test
+    public void distanceOneTest() {
+
+        BKTree tree = BKTree.of(WORDS);
+
+        // Names keep their case, the same distance is sorted alphabetically
+        assertEquals(Arrays.asList("held", "hell", "Hello", "helm", "help"), tree.search("helo", 1), "Wrong names within distance 1!");
+        assertEquals(Arrays.asList("held", "hell", "Hello", "helm", "help"), tree.search("HELO", 1), "Failed to ignore case!");
+        assertEquals(Collections.singletonList("Hello"), tree.search("hello", 0), "Failed to find exact name!");
+
+        for (BKTree.Match match : tree.find("helo", 1)) {
+            assertEquals(1, match.getDistance(), "Wrong distance of " + match.getName());
+        }
+    }
+
+    @Test
+    public void distanceTwoTest() {
+
+        BKTree tree = BKTree.of(WORDS);
+
+        // The closest names come first
+        List<BKTree.Match> matches = tree.find("helo", 2);
+        assertEquals(Arrays.asList("held", "hell", "Hello", "helm", "help", "heap", "shelp", "yelp"), names(matches), "Wrong names within distance 2!");
+        assertEquals(Arrays.asList(1, 1, 1, 1, 1, 2, 2, 2), matches.stream().map(BKTree.Match::getDistance).collect(Collectors.toList()), "Wrong distances!");
+
+        assertEquals(Arrays.asList("word", "sword", "world"), tree.search("wrd", 2), "Failed to find names by insertions!");
+        assertTrue(tree.search("xyz", 2).isEmpty(), "Found names that are too far away!");
+    }
+
+    @Test
+    public void pruningTest() {
+
+        Random random = new Random(42);
+        Set<String> names = new LinkedHashSet<>();
+
+        while (names.size() < 2000) names.add(randomWord(random));
+
+        BKTree tree = BKTree.of(names);
+        assertEquals(names.size(), tree.size(), "Wrong amount of names!");
+
+        List<String> nameList = new ArrayList<>(names);
+
+        for (int i = 0; i < 50; i++) {
+
+            // Queries close to a name and queries that don't match anything
+            String query = i % 2 == 0 ? mutate(random, nameList.get(random.nextInt(nameList.size()))) : randomWord(random);
+
+            for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+
+                // Skipping children by the triangle inequality doesn't lose any names
+                assertEquals(bruteForce(names, query, maxDistance), tree.search(query, maxDistance), "Search differs from brute force for " + query);
+            }
+
+            // Only a part of the tree is compared to the query
+            assertTrue(tree.countVisited(query, 1) < names.size() / 2, "Failed to skip children for " + query);
+        }
+
+        // Without a maximum distance every child has to be visited
+        assertEquals(names.size(), tree.countVisited("anything", 100), "Skipped children within the distance!");
+    }
+
+    @Test
+    public void withTest() {
+
+        BKTree tree = BKTree.of(Arrays.asList("alpha", "beta"));
+        BKTree added = tree.with("gamma");
+
+        assertEquals(2, tree.size(), "Changed the previous version!");
+        assertEquals(3, added.size(), "Failed to add name!");
+        assertTrue(tree.search("gamma", 0).isEmpty(), "Changed the previous version!");
+        assertEquals(Collections.singletonList("gamma"), added.search("gama", 1), "Failed to find added name!");
+
+        assertSame(added, added.with("GAMMA"), "Added name that differs only in case!");
+        assertTrue(BKTree.EMPTY.search("alpha", 2).isEmpty(), "Found name in empty tree!");
+    }
+
+    private static List<String> names(List<BKTree.Match> matches) {
+        return matches.stream().map(BKTree.Match::getName).collect(Collectors.toList());
+    }
+
+    private static List<String> bruteForce(Set<String> names, String query, int maxDistance) {
+
+        String key = CaseInsensitiveIndex.fold(query);
+
+        return names.stream()
+                .filter(name -> distance(key, CaseInsensitiveIndex.fold(name)) <= maxDistance)
+                .sorted(Comparator.<String>comparingInt(name -> distance(key, CaseInsensitiveIndex.fold(name))).thenComparing(CaseInsensitiveIndex::fold))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The Levenshtein distance, using the full matrix.
+     */
+    private static int distance(String first, String second) {
+
+        int[][] distances = new int[first.length() + 1][second.length() + 1];
+
+        for (int i = 0; i <= first.length(); i++) distances[i][0] = i;
+        for (int j = 0; j <= second.length(); j++) distances[0][j] = j;
+
+        for (int i = 1; i <= first.length(); i++) {
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = distances[i - 1][j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                distances[i][j] = Math.min(substitution, Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+            }
+        }
+
+        return distances[first.length()][second.length()];
+    }
+
+    private static String randomWord(Random random) {
+
+        char[] chars = new char[5 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) ('a' + random.nextInt(26));
+
+        return new String(chars);
+    }
+
+    /**
+     * Change a random character of the word.
+     */
+    private static String mutate(Random random, String word) {
+        char[] chars = word.toCharArray();
+        chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+}
@@ -0,0 +1,196 @@
+package com.kitsune.foxlib.util.test;
+
+import com.kitsune.foxlib.util.CaseInsensitiveIndex;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaseInsensitiveIndexTest {
+
+    /**
+     * The mask of a new index, which holds up to 4 entries before it grows
+     */
+    private static final int INITIAL_MASK = 7;
+
+    @Test
+    public void putGetTest() {
+
+        CaseInsensitiveIndex<Integer> index = new CaseInsensitiveIndex<>();
+
+        assertNull(index.put("Hello", 1), "Replaced value of new key!");
+        assertEquals(1, index.get("hello"), "Failed to get value ignoring case!");
+        assertEquals(1, index.get("HELLO"), "Failed to get value ignoring case!");
+        assertNull(index.get("hell"), "Found value by a prefix of the key!");
+
+        // Keys that only differ in case are the same key
+        assertEquals(1, index.put("HELLO", 2), "Failed to replace value!");
+        assertEquals(1, index.size(), "Added key that only differs in case!");
+        assertEquals(2, index.get("Hello"), "Failed to replace value!");
+
+        assertTrue(index.containsKey("hElLo"), "Failed to find key!");
+        assertFalse(index.containsKey("world"), "Found key that isn't mapped!");
+    }
+
+    @Test
+    public void collidingKeysTest() {
+
+        // Three keys that start probing at the same slot, so they form a single probe chain
+        List<String> keys = findKeysWithSlot(INITIAL_MASK, 3);
+        CaseInsensitiveIndex<String> index = new CaseInsensitiveIndex<>();
+
+        for (String key : keys) index.put(key, key);
+
+        for (String key : keys) {
+            assertEquals(key, index.get(key.toUpperCase()), "Failed to get colliding key!");
+        }
+
+        // Removing the middle of the chain shifts the last entry back, so it can still be found
+        assertEquals(keys.get(1), index.remove(keys.get(1)), "Failed to remove colliding key!");
+        assertNull(index.get(keys.get(1)), "Found removed key!");
+        assertEquals(keys.get(0), index.get(keys.get(0)), "Lost key before the removed key!");
+        assertEquals(keys.get(2), index.get(keys.get(2)), "Lost key after the removed key!");
+
+        // Removing the start of the chain
+        assertEquals(keys.get(0), index.remove(keys.get(0)), "Failed to remove colliding key!");
+        assertEquals(keys.get(2), index.get(keys.get(2)), "Lost key after the removed key!");
+        assertEquals(1, index.size(), "Wrong amount of entries!");
+
+        assertNull(index.remove(keys.get(0)), "Removed key twice!");
+    }
+
+    @Test
+    public void wrappingChainTest() {
+
+        // Keys that start probing at the last slot, so the chain wraps around to the start of the table
+        List<String> wrapping = findKeysWithSlot(INITIAL_MASK, 2);
+        List<String> displaced = findKeysWithSlot(0, 1);
+
+        CaseInsensitiveIndex<String> index = new CaseInsensitiveIndex<>();
+        index.put(wrapping.get(0), "first");
+        index.put(wrapping.get(1), "second");
+        index.put(displaced.get(0), "displaced");
+
+        // The entry whose home is the first slot was moved further along by the wrapped entry
+        index.remove(wrapping.get(0));
+
+        assertEquals("second", index.get(wrapping.get(1)), "Lost wrapped key!");
+        assertEquals("displaced", index.get(displaced.get(0)), "Lost displaced key!");
+        assertEquals(2, index.size(), "Wrong amount of entries!");
+    }
+
+    @Test
+    public void resizeTest() {
+
+        CaseInsensitiveIndex<Integer> index = new CaseInsensitiveIndex<>();
+
+        for (int i = 0; i < 1000; i++) {
+            index.put("Key" + i, i);
+        }
+
+        assertEquals(1000, index.size(), "Wrong amount of entries!");
+        assertEquals(1000, index.values().size(), "Wrong amount of values!");
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.get("KEY" + i), "Lost key while growing!");
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        CaseInsensitiveIndex<Integer> index = new CaseInsensitiveIndex<>();
+
+        // A small key space, so the same keys are added and removed many times
+        for (int i = 0; i < 20000; i++) {
+
+            String key = "k" + random.nextInt(200);
+            String mixedCase = random.nextBoolean() ? key.toUpperCase() : key;
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), index.remove(mixedCase), "Removed wrong value!");
+            } else {
+                assertEquals(expected.put(key, i), index.put(mixedCase, i), "Replaced wrong value!");
+            }
+        }
+
+        assertEquals(expected.size(), index.size(), "Wrong amount of entries!");
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(expected.get("k" + i), index.get("K" + i), "Wrong value of " + i);
+        }
+    }
+
+    @Test
+    public void rangeLookupTest() {
+
+        CaseInsensitiveIndex<String> index = new CaseInsensitiveIndex<>();
+        index.put("give", "give");
+        index.put("gi", "gi");
+
+        String line = "/GIVE Fox stone";
+        assertEquals("give", index.get(line, 1, 5), "Failed to get key from a region!");
+        assertEquals("gi", index.get(line, 1, 3), "Failed to get shorter key from a region!");
+        assertNull(index.get(line, 1, 4), "Found key that isn't mapped!");
+        assertNull(index.get(line, 6, 9), "Found key that isn't mapped!");
+
+        assertEquals("give", index.get(new StringBuilder("give")), "Failed to get key from a builder!");
+        assertEquals("give", index.remove(new StringBuilder("GIVE")), "Failed to remove key by a builder!");
+        assertNull(index.get(line, 1, 5), "Found removed key!");
+    }
+
+    @Test
+    public void copyTest() {
+
+        CaseInsensitiveIndex<String> index = new CaseInsensitiveIndex<>();
+        index.put("alpha", "a");
+
+        CaseInsensitiveIndex<String> copy = new CaseInsensitiveIndex<>(index);
+        copy.put("beta", "b");
+        copy.remove("alpha");
+
+        assertEquals("a", index.get("alpha"), "Changed the copied index!");
+        assertNull(index.get("beta"), "Changed the copied index!");
+        assertEquals(1, copy.size(), "Wrong amount of entries in the copy!");
+    }
+
+    /**
+     * Find keys that start probing at the specified slot of a new index.
+     *
+     * @param slot - the slot
+     * @param amount - the amount of keys
+     *
+     * @return - the keys
+     */
+    private static List<String> findKeysWithSlot(int slot, int amount) {
+
+        List<String> keys = new ArrayList<>();
+
+        try {
+
+            Method hash = CaseInsensitiveIndex.class.getDeclaredMethod("hash", CharSequence.class, int.class, int.class);
+            hash.setAccessible(true);
+
+            for (int i = 0; keys.size() < amount; i++) {
+
+                String key = "key" + i;
+                if (((int) hash.invoke(null, key, 0, key.length()) & INITIAL_MASK) == slot) keys.add(key);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError("Failed to access the hash function!", e);
+        }
+
+        return keys;
+    }
+}